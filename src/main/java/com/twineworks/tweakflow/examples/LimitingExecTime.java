@@ -25,83 +25,62 @@
 package com.twineworks.tweakflow.examples;
 
 import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.errors.LangError;
 import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.ValueInspector;
-
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import com.twineworks.tweakflow.lang.values.Values;
 
 public class LimitingExecTime {
 
-  @SuppressWarnings("deprecation")
-  private static void stopTask(FutureTask task, Thread taskThread) {
-    // ask the thread to stop
-    task.cancel(true);
-    try {
-      // give it some time to cleanly finish
-      taskThread.join(100);
-    } catch (InterruptedException ignored) {
-    }
-
-    // forcibly stop it, if it did not cleanly finish
-    if (taskThread.isAlive()) {
-      taskThread.stop();
-    }
-  }
-
   public static void main(String[] args) {
 
-    // evaluating naive implementation of fibonacci function
+    // naive implementation of fibonacci function
     // with exponential runtime complexity causing O(2^x) recursive calls
-    String[] expressions = {
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(1)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(5)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(10)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(20)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(30)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(40)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(50)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(60)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(70)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(80)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(90)",
-        "let { f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1 } f(100)",
-    };
+    String module = "library lib {\n" +
+        "  f: (x) -> if x > 2 then f(x-2)+f(x-1) else 1;\n" +
+        "}";
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .addStdLocation()
+        .add(new MemoryLocation.Builder()
+            .allowNativeFunctions(false)
+            .add("userModule", module)
+            .build())
+        .build();
 
-    for (String expression : expressions) {
-      FutureTask<Value> task = new FutureTask<>(() -> TweakFlow.evaluate(expression));
-      Thread thread = new Thread(task);
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+
+    Runtime.Var f = m.getLibrary("lib").getVar("f");
+
+    long[] inputs = {1, 5, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+
+    for (long input : inputs) {
+      System.out.println("evaluating: f(" + input + ")");
+      // each evaluation gets one second
+      // the runtime remains usable after an evaluation is aborted
+      runtime.setTimeLimit(1000);
       try {
-        System.out.println("evaluating: " + expression);
-        thread.start();
-        Value value = task.get(1000, TimeUnit.MILLISECONDS);
+        Value value = f.call(Values.make(input));
         // successful evaluation
         System.out.println("result: " + ValueInspector.inspect(value));
-      } catch (ExecutionException e) {
-        // evaluation failed
-        if (e.getCause() instanceof LangException) {
-          LangException langException = (LangException) e.getCause();
-          System.out.println(langException.getDigestMessage());
+      } catch (LangException e) {
+        if (e.getCode() == LangError.EVALUATION_ABORTED) {
+          // evaluation timed out
+          System.out.println("could not evaluate expression in time, skipping");
         } else {
-          e.getCause().printStackTrace();
+          // evaluation failed
+          System.out.println(e.getDigestMessage());
         }
-
-      } catch (TimeoutException e) {
-        // evaluation timed out
-        System.out.println("could not evaluate expression in time, skipping");
-        stopTask(task, thread);
-
-      } catch (InterruptedException e) {
-        // main program got interrupted (Ctrl+C)
-        System.out.println("program interrupted");
-        stopTask(task, thread);
-        break;
       }
-
     }
+
+    runtime.clearLimits();
   }
 
 }
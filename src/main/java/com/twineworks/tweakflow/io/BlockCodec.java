@@ -0,0 +1,43 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import java.io.IOException;
+
+/**
+ * Compresses blocks of bytes for {@link BlockCompressingChannel} and {@link BlockDecompressingChannel}.
+ *
+ * Implementations may keep state between calls, and are used by a single channel at a time.
+ */
+public interface BlockCodec {
+
+  // compresses len bytes of src at srcOff into dst, returns the compressed length,
+  // or -1 if the result would not fit into dst
+  int compress(byte[] src, int srcOff, int len, byte[] dst) throws IOException;
+
+  // decompresses len bytes of src into exactly dstLen bytes of dst
+  void decompress(byte[] src, int len, byte[] dst, int dstLen) throws IOException;
+
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A channel writing compressed blocks to another channel. Each write becomes one or more blocks
+ * of at most blockSize bytes, so writers that flush whole buffers produce blocks aligned to their
+ * buffer size.
+ *
+ * A block is framed as its uncompressed length, its stored length, and the stored bytes. Blocks
+ * that do not compress are stored as they are, with equal lengths. Readers can skip blocks by
+ * their stored length without decompressing them.
+ */
+public class BlockCompressingChannel implements WritableByteChannel {
+
+  private final WritableByteChannel channel;
+  private final BlockCodec codec;
+  private final byte[] raw;
+  private final byte[] packed;
+  private final ByteBuffer header = ByteBuffer.allocate(8);
+
+  public BlockCompressingChannel(WritableByteChannel channel, BlockCodec codec, int blockSize) {
+    if (blockSize <= 0) throw new IllegalArgumentException("block size must be positive, found: "+blockSize);
+    this.channel = channel;
+    this.codec = codec;
+    raw = new byte[blockSize];
+    packed = new byte[blockSize];
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    int ret = src.remaining();
+    while (src.hasRemaining()){
+      int len = Math.min(src.remaining(), raw.length);
+      src.get(raw, 0, len);
+      writeBlock(len);
+    }
+    return ret;
+  }
+
+  private void writeBlock(int len) throws IOException {
+
+    // keep blocks that do not shrink uncompressed
+    int packedLen = codec.compress(raw, 0, len, packed);
+    boolean stored = packedLen < 0 || packedLen >= len;
+
+    header.clear();
+    header.putInt(len);
+    header.putInt(stored ? len : packedLen);
+    header.flip();
+    writeFully(header);
+    writeFully(ByteBuffer.wrap(stored ? raw : packed, 0, stored ? len : packedLen));
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()){
+      channel.write(buffer);
+    }
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
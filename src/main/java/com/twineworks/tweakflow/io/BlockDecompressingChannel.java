@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * A channel reading blocks written by {@link BlockCompressingChannel}. Each read returns bytes of
+ * at most one block.
+ */
+public class BlockDecompressingChannel implements ReadableByteChannel {
+
+  private final ReadableByteChannel channel;
+  private final BlockCodec codec;
+  private final ByteBuffer header = ByteBuffer.allocate(8);
+
+  // lengths of the block at the last header read
+  private int rawLength;
+  private int packedLength;
+
+  private byte[] packed = new byte[0];
+  private byte[] raw = new byte[0];
+
+  // the unread bytes of the current block are raw[position, limit)
+  private int position;
+  private int limit;
+
+  public BlockDecompressingChannel(ReadableByteChannel channel, BlockCodec codec) {
+    this.channel = channel;
+    this.codec = codec;
+  }
+
+  // fills buffer, returns false if the channel ends before the first byte
+  private boolean readFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()){
+      if (channel.read(buffer) == -1){
+        if (buffer.position() == 0) return false;
+        throw new IOException("Invalid data format: premature EOF");
+      }
+    }
+    return true;
+  }
+
+  // reads the next block header, returns false at the end of the channel
+  private boolean readHeader() throws IOException {
+    header.clear();
+    if (!readFully(header)) return false;
+    header.flip();
+    rawLength = header.getInt();
+    packedLength = header.getInt();
+    if (rawLength < 0 || packedLength < 0 || packedLength > rawLength) throw new IOException("Invalid data format: corrupt block header");
+    return true;
+  }
+
+  private boolean nextBlock() throws IOException {
+
+    if (!readHeader()) return false;
+
+    if (raw.length < rawLength) raw = new byte[rawLength];
+
+    if (packedLength == rawLength){
+      readBlock(raw, rawLength);
+    }
+    else {
+      if (packed.length < packedLength) packed = new byte[packedLength];
+      readBlock(packed, packedLength);
+      codec.decompress(packed, packedLength, raw, rawLength);
+    }
+
+    position = 0;
+    limit = rawLength;
+    return true;
+  }
+
+  private void readBlock(byte[] dst, int len) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(dst, 0, len);
+    if (len > 0 && !readFully(buffer)) throw new IOException("Invalid data format: premature EOF");
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    while (position == limit){
+      if (!nextBlock()) return -1;
+    }
+    int n = Math.min(dst.remaining(), limit - position);
+    dst.put(raw, position, n);
+    position += n;
+    return n;
+  }
+
+  // discards the unread bytes of the current block, or the next block if the current one is read
+  // completely, without decompressing it, returns false at the end of the channel
+  public boolean skipBlock() throws IOException {
+
+    if (position < limit){
+      position = limit;
+      return true;
+    }
+
+    if (!readHeader()) return false;
+
+    if (channel instanceof SeekableByteChannel){
+      SeekableByteChannel seekable = (SeekableByteChannel) channel;
+      if (seekable.position() + packedLength > seekable.size()) throw new IOException("Invalid data format: premature EOF");
+      seekable.position(seekable.position() + packedLength);
+    }
+    else {
+      if (packed.length < packedLength) packed = new byte[packedLength];
+      readBlock(packed, packedLength);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
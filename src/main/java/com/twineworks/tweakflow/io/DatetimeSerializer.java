@@ -31,9 +31,7 @@ import com.twineworks.tweakflow.lang.values.Values;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 
 class DatetimeSerializer implements ValueSerializer, ValueDeserializer {
 
@@ -54,7 +52,7 @@ class DatetimeSerializer implements ValueSerializer, ValueDeserializer {
   @Override
   public void setSubject(Value subject) {
     this.subject = subject;
-    ZoneId zoneId = subject.dateTime().getZoned().getZone();
+    ZoneId zoneId = subject.dateTime().getZone();
 
     if (!zoneId.equals(lastZoneId)){
       lastZoneId = zoneId;
@@ -74,9 +72,8 @@ class DatetimeSerializer implements ValueSerializer, ValueDeserializer {
     if (!writtenInstant){
       if (buffer.remaining() >= 13){
         buffer.put(MagicNumbers.Format.DATETIME);
-        Instant instant = subject.dateTime().getInstant();
-        long epochSecond = instant.getEpochSecond();
-        int nanos = instant.getNano();
+        long epochSecond = subject.dateTime().getEpochSecond();
+        int nanos = subject.dateTime().getNano();
         buffer.putLong(epochSecond);
         buffer.putInt(nanos);
         writtenInstant = true;
@@ -155,8 +152,7 @@ class DatetimeSerializer implements ValueSerializer, ValueDeserializer {
     CharBuffer decoded = StandardCharsets.UTF_8.decode(tzBytes);
     ZoneId zoneId = ZoneId.of(decoded.toString());
 
-    ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds, nanos), zoneId);
-    subject = Values.make(new DateTimeValue(zonedDateTime));
+    subject = Values.make(DateTimeValue.ofEpochSecond(epochSeconds, nanos, zoneId));
 
     readInstant = false;
     readTzSize = false;
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link BlockCodec} compressing blocks with raw deflate from the JDK.
+ */
+public class DeflateCodec implements BlockCodec {
+
+  private final Deflater deflater;
+  private final Inflater inflater;
+
+  public DeflateCodec() {
+    this(Deflater.DEFAULT_COMPRESSION);
+  }
+
+  public DeflateCodec(int level) {
+    deflater = new Deflater(level, true);
+    inflater = new Inflater(true);
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int len, byte[] dst) {
+    deflater.reset();
+    deflater.setInput(src, srcOff, len);
+    deflater.finish();
+    int ret = 0;
+    while (!deflater.finished()){
+      if (ret == dst.length) return -1;
+      ret += deflater.deflate(dst, ret, dst.length - ret);
+    }
+    return ret;
+  }
+
+  @Override
+  public void decompress(byte[] src, int len, byte[] dst, int dstLen) throws IOException {
+    inflater.reset();
+    inflater.setInput(src, 0, len);
+    try {
+      int n = 0;
+      while (n < dstLen && !inflater.finished()){
+        int inflated = inflater.inflate(dst, n, dstLen - n);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+        n += inflated;
+      }
+      if (n != dstLen) throw new IOException("Invalid data format: corrupt block");
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid data format: corrupt block", e);
+    }
+  }
+
+}
@@ -63,6 +63,11 @@ public class In implements AutoCloseable {
     deserializers = new ArrayDeque<>();
   }
 
+  // reads input compressed in blocks by Out with the same codec
+  public In(ReadableByteChannel channel, int bufferSize, BlockCodec codec) {
+    this(new BlockDecompressingChannel(channel, codec), bufferSize);
+  }
+
   public void reInit(){
     buffer.clear();
     buffer.limit(0);
@@ -149,6 +154,46 @@ public class In implements AutoCloseable {
     return ret;
   }
 
+  // reads the head of a list and returns its size, the elements follow as values
+  // lets callers stream elements through readNext() instead of reading the list as a whole
+  public int readListHead() throws IOException {
+    return readHead(MagicNumbers.Format.LIST);
+  }
+
+  // reads the head of a dict and returns its size, the entries follow as a key and a value each
+  // lets callers stream entries through readKey() and readNext() instead of reading the dict as a whole
+  public int readDictHead() throws IOException {
+    return readHead(MagicNumbers.Format.DICT);
+  }
+
+  // reads the key of a dict entry
+  public String readKey() throws IOException {
+    Value key = readNext();
+    if (key == null) throw new IOException("Invalid data format: premature EOF");
+    if (!key.isString()) throw new IOException("Invalid data format: expected key, found: "+key.type().name());
+    return key.string();
+  }
+
+  private int readHead(byte format) throws IOException {
+
+    if (!buffer.hasRemaining() && !channelDepleted){
+      nextBuffer();
+    }
+    if (!buffer.hasRemaining()) throw new IOException("Invalid data format: premature EOF");
+
+    byte found = buffer.get(buffer.position());
+    if (found != format) throw new IOException("Invalid data format: expected format "+format+", found: "+found);
+    buffer.get();
+
+    while (buffer.remaining() < 4){
+      if (channelDepleted) throw new IOException("Invalid data format: premature EOF");
+      nextBuffer();
+    }
+    int size = buffer.getInt();
+    if (size < 0) throw new IOException("Invalid data format: negative size "+size);
+    return size;
+  }
+
   @Override
   public void close() {
   }
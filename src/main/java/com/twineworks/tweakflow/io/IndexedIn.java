@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.values.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+/**
+ * Reads values written by {@link IndexedOut} from a byte buffer, typically a memory-mapped file.
+ *
+ * Lists and dicts are returned as lazy views. Elements are decoded from the buffer only when
+ * accessed, so reading a few keys of a large document decodes only the values on the way to them.
+ * The buffer must stay valid and unchanged while values read from it are in use.
+ *
+ * Lazy views cannot report malformed data when they are read. Decoding errors surface on element
+ * access as a {@link LangException} with {@link LangError#IO_ERROR}.
+ */
+public class IndexedIn implements AutoCloseable {
+
+  private final ByteBuffer buffer;
+  private int position;
+
+  public IndexedIn(ByteBuffer buffer) {
+    this.buffer = buffer.slice();
+  }
+
+  public IndexedIn(FileChannel channel) throws IOException {
+    this(map(channel));
+  }
+
+  private static ByteBuffer map(FileChannel channel) throws IOException {
+    long size = channel.size() - channel.position();
+    if (size > Integer.MAX_VALUE) throw new IOException("Cannot map indexed data larger than 2GiB");
+    return channel.map(FileChannel.MapMode.READ_ONLY, channel.position(), size);
+  }
+
+  public Value readNext() throws IOException {
+    if (position >= buffer.limit()) return null;
+    int length = lengthAt(position);
+    Value ret = decode(position);
+    position += length;
+    return ret;
+  }
+
+  // makes sure n bytes are available at pos
+  private void require(int pos, long n) throws IOException {
+    if (pos < 0 || pos + n > buffer.limit()) throw new IOException("Invalid data format: premature EOF");
+  }
+
+  private int sizeAt(int pos) throws IOException {
+    require(pos, 4);
+    int size = buffer.getInt(pos);
+    if (size < 0) throw new IOException("Invalid data format: negative size "+size);
+    require(pos + 4, size);
+    return size;
+  }
+
+  // number of elements of a list or dict
+  private int countAt(int pos) throws IOException {
+    require(pos, 4);
+    int count = buffer.getInt(pos);
+    if (count < 0) throw new IOException("Invalid data format: negative size "+count);
+    return count;
+  }
+
+  // a view of size bytes at pos
+  private ByteBuffer bytes(int pos, int size) {
+    ByteBuffer ret = buffer.duplicate();
+    ret.limit(pos + size);
+    ret.position(pos);
+    return ret.slice();
+  }
+
+  private String utf8At(int pos) throws IOException {
+    int size = sizeAt(pos);
+    return StandardCharsets.UTF_8.decode(bytes(pos + 4, size)).toString();
+  }
+
+  // the position of the offset table of a dict at pos
+  private int dictTableAt(int pos, int size) throws IOException {
+    int p = pos + 5;
+    for (int i = 0; i < size; i++) {
+      p += 4 + sizeAt(p);
+    }
+    return p;
+  }
+
+  // the encoded length of the value at pos
+  private int lengthAt(int pos) throws IOException {
+
+    require(pos, 1);
+    byte format = buffer.get(pos);
+
+    switch (format){
+      case MagicNumbers.Format.VOID:
+        return 1;
+      case MagicNumbers.Format.BOOLEAN:
+        return 2;
+      case MagicNumbers.Format.LONG:
+      case MagicNumbers.Format.DOUBLE:
+        return 9;
+      case MagicNumbers.Format.DECIMAL:
+      case MagicNumbers.Format.STRING:
+      case MagicNumbers.Format.BINARY:
+        return 5 + sizeAt(pos + 1);
+      case MagicNumbers.Format.DATETIME:
+        require(pos, 13);
+        return 17 + sizeAt(pos + 13);
+      case MagicNumbers.Format.INDEXED_LIST:
+        return elementsAt(pos + 5, countAt(pos + 1)) - pos;
+      case MagicNumbers.Format.INDEXED_DICT: {
+        int count = countAt(pos + 1);
+        return elementsAt(dictTableAt(pos, count), count) - pos;
+      }
+      default:
+        throw new IOException("Unknown format: "+format);
+    }
+  }
+
+  // the end position of the elements following an offset table at pos
+  private int elementsAt(int pos, int size) throws IOException {
+    long start = pos + 4L * (size + 1);
+    require(pos, 4L * (size + 1));
+    int length = buffer.getInt(pos + 4 * size);
+    if (length < 0) throw new IOException("Invalid data format: negative size "+length);
+    require((int) start, length);
+    return (int) start + length;
+  }
+
+  private Value decode(int pos) throws IOException {
+
+    require(pos, 1);
+    byte format = buffer.get(pos);
+
+    switch (format){
+      case MagicNumbers.Format.VOID:
+        return Values.NIL;
+
+      case MagicNumbers.Format.BOOLEAN:
+        require(pos, 2);
+        return Values.make(buffer.get(pos + 1) == (byte) 1);
+
+      case MagicNumbers.Format.LONG:
+        require(pos, 9);
+        return Values.make(buffer.getLong(pos + 1));
+
+      case MagicNumbers.Format.DOUBLE:
+        require(pos, 9);
+        return Values.make(buffer.getDouble(pos + 1));
+
+      case MagicNumbers.Format.DECIMAL:
+        return Values.make(new BigDecimal(utf8At(pos + 1)));
+
+      case MagicNumbers.Format.STRING: {
+        // UTF-16BE code units, as written by IndexedOut
+        int size = sizeAt(pos + 1);
+        return Values.make(bytes(pos + 5, size).asCharBuffer().toString());
+      }
+
+      case MagicNumbers.Format.BINARY: {
+        int size = sizeAt(pos + 1);
+        byte[] ret = new byte[size];
+        bytes(pos + 5, size).get(ret);
+        return Values.make(ret);
+      }
+
+      case MagicNumbers.Format.DATETIME: {
+        require(pos, 13);
+        long epochSeconds = buffer.getLong(pos + 1);
+        int nanos = buffer.getInt(pos + 9);
+        ZoneId zone = ZoneId.of(utf8At(pos + 13));
+        return Values.make(DateTimeValue.ofEpochSecond(epochSeconds, nanos, zone));
+      }
+
+      case MagicNumbers.Format.INDEXED_LIST: {
+        int size = countAt(pos + 1);
+        int table = pos + 5;
+        int start = elementsAt(table, size) - buffer.getInt(table + 4 * size);
+        return Values.make(ListValue.lazy(size, (i) -> load(start + buffer.getInt(table + 4 * i))));
+      }
+
+      case MagicNumbers.Format.INDEXED_DICT: {
+        int size = countAt(pos + 1);
+        String[] keys = new String[size];
+        int p = pos + 5;
+        for (int i = 0; i < size; i++) {
+          keys[i] = utf8At(p);
+          p += 4 + sizeAt(p);
+        }
+        int table = p;
+        int start = elementsAt(table, size) - buffer.getInt(table + 4 * size);
+        return Values.make(DictValue.lazy(keys, (i) -> load(start + buffer.getInt(table + 4 * i))));
+      }
+
+      default:
+        throw new IOException("Unknown format: "+format);
+    }
+
+  }
+
+  // decodes an element of a lazy list or dict
+  private Value load(int pos) {
+    try {
+      return decode(pos);
+    } catch (IOException | RuntimeException e) {
+      throw new LangException(LangError.IO_ERROR, "Could not decode indexed value: "+e.getMessage());
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import com.twineworks.tweakflow.lang.values.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.twineworks.tweakflow.util.InOut.MiB;
+
+/**
+ * Writes values in an indexed layout, which {@link IndexedIn} reads lazily.
+ *
+ * Scalars are written as by {@link Out}. Lists and dicts carry offset tables, so readers can locate
+ * any element without decoding the ones before it:
+ *
+ * INDEXED_LIST: size, size+1 offsets of the elements relative to the first one, elements
+ * INDEXED_DICT: size, keys as UTF-8 with their byte length, size+1 offsets of the values relative
+ * to the first one, values
+ *
+ * The last offset of a table is the length of the elements. Offsets are ints, so a value written by
+ * this class cannot exceed 2GiB.
+ */
+public class IndexedOut implements AutoCloseable {
+
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+
+  // encoded lengths of the lists and dicts of the value being written
+  private final IdentityHashMap<Object, Integer> lengths = new IdentityHashMap<>();
+
+  public IndexedOut(WritableByteChannel channel) {
+    this(channel, 8*MiB);
+  }
+
+  public IndexedOut(WritableByteChannel channel, int bufferSize) {
+    if (bufferSize < 16) throw new IllegalArgumentException("buffer size must be at least 16 bytes, found: "+bufferSize);
+    this.channel = channel;
+    buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  public void write(Value v) throws IOException {
+    try {
+      // offset tables precede their elements, so all lengths are measured first
+      lengthOf(v);
+      put(v);
+    }
+    finally {
+      lengths.clear();
+    }
+  }
+
+  private static int utf8Length(String s) {
+    int ret = 0;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) ret += 1;
+      else if (c < 0x800) ret += 2;
+      else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))){
+        ret += 4;
+        i++;
+      }
+      // unpaired surrogates are encoded as '?'
+      else if (Character.isSurrogate(c)) ret += 1;
+      else ret += 3;
+    }
+    return ret;
+  }
+
+  private static int checked(long length) throws IOException {
+    if (length > Integer.MAX_VALUE) throw new IOException("Cannot write indexed values larger than 2GiB");
+    return (int) length;
+  }
+
+  private int lengthOf(Value v) throws IOException {
+
+    switch (v.type().getId()){
+      case MagicNumbers.Format.VOID:
+        return 1;
+      case MagicNumbers.Format.BOOLEAN:
+        return 2;
+      case MagicNumbers.Format.LONG:
+      case MagicNumbers.Format.DOUBLE:
+        return 9;
+      case MagicNumbers.Format.DECIMAL:
+        return 5 + utf8Length(v.decimal().toString());
+      case MagicNumbers.Format.STRING:
+        return checked(5 + 2L * v.string().length());
+      case MagicNumbers.Format.BINARY:
+        return checked(5L + v.bytes().length);
+      case MagicNumbers.Format.DATETIME:
+        return 17 + utf8Length(v.dateTime().getZone().getId());
+
+      case MagicNumbers.Format.LIST: {
+        ListValue list = v.list();
+        Integer known = lengths.get(list);
+        if (known != null) return known;
+        long ret = 5 + 4L * (list.size() + 1);
+        for (Value item : list) {
+          ret += lengthOf(item);
+        }
+        int length = checked(ret);
+        lengths.put(list, length);
+        return length;
+      }
+
+      case MagicNumbers.Format.DICT: {
+        DictValue dict = v.dict();
+        Integer known = lengths.get(dict);
+        if (known != null) return known;
+        long ret = 5 + 4L * (dict.size() + 1);
+        Iterator<Map.Entry<String, Value>> iter = dict.entryIterator();
+        while (iter.hasNext()){
+          Map.Entry<String, Value> e = iter.next();
+          ret += 4 + utf8Length(e.getKey()) + lengthOf(e.getValue());
+        }
+        int length = checked(ret);
+        lengths.put(dict, length);
+        return length;
+      }
+
+      case MagicNumbers.Format.FUNCTION:
+        throw new IOException("Cannot serialize function values, found: "+ ValueInspector.inspect(v, true));
+      default:
+        throw new IOException("Unknown value type: "+v.type().name());
+    }
+  }
+
+  // makes room for n bytes in the buffer
+  private void ensure(int n) throws IOException {
+    if (buffer.remaining() < n) flush();
+  }
+
+  private void putByte(byte b) throws IOException {
+    ensure(1);
+    buffer.put(b);
+  }
+
+  private void putInt(int i) throws IOException {
+    ensure(4);
+    buffer.putInt(i);
+  }
+
+  private void putBytes(byte[] bytes) throws IOException {
+    putInt(bytes.length);
+    int i = 0;
+    while (i < bytes.length){
+      ensure(1);
+      int n = Math.min(bytes.length - i, buffer.remaining());
+      buffer.put(bytes, i, n);
+      i += n;
+    }
+  }
+
+  private void putChars(String s) throws IOException {
+    putInt(2 * s.length());
+    int i = 0;
+    while (i < s.length()){
+      ensure(2);
+      int n = Math.min(s.length() - i, buffer.remaining() / 2);
+      buffer.asCharBuffer().put(s, i, i + n);
+      buffer.position(buffer.position() + 2 * n);
+      i += n;
+    }
+  }
+
+  private void put(Value v) throws IOException {
+
+    switch (v.type().getId()){
+      case MagicNumbers.Format.VOID:
+        putByte(MagicNumbers.Format.VOID);
+        return;
+
+      case MagicNumbers.Format.BOOLEAN:
+        ensure(2);
+        buffer.put(MagicNumbers.Format.BOOLEAN);
+        buffer.put(v.bool() ? (byte) 1 : (byte) 0);
+        return;
+
+      case MagicNumbers.Format.LONG:
+        ensure(9);
+        buffer.put(MagicNumbers.Format.LONG);
+        buffer.putLong(v.longNum());
+        return;
+
+      case MagicNumbers.Format.DOUBLE:
+        ensure(9);
+        buffer.put(MagicNumbers.Format.DOUBLE);
+        buffer.putDouble(v.doubleNum());
+        return;
+
+      case MagicNumbers.Format.DECIMAL:
+        putByte(MagicNumbers.Format.DECIMAL);
+        putBytes(v.decimal().toString().getBytes(StandardCharsets.UTF_8));
+        return;
+
+      case MagicNumbers.Format.STRING:
+        putByte(MagicNumbers.Format.STRING);
+        putChars(v.string());
+        return;
+
+      case MagicNumbers.Format.BINARY:
+        putByte(MagicNumbers.Format.BINARY);
+        putBytes(v.bytes());
+        return;
+
+      case MagicNumbers.Format.DATETIME: {
+        DateTimeValue dt = v.dateTime();
+        ensure(13);
+        buffer.put(MagicNumbers.Format.DATETIME);
+        buffer.putLong(dt.getEpochSecond());
+        buffer.putInt(dt.getNano());
+        putBytes(dt.getZone().getId().getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+
+      case MagicNumbers.Format.LIST: {
+        ListValue list = v.list();
+        putByte(MagicNumbers.Format.INDEXED_LIST);
+        putInt(list.size());
+        int offset = 0;
+        for (Value item : list) {
+          putInt(offset);
+          offset += lengthOf(item);
+        }
+        putInt(offset);
+        for (Value item : list) {
+          put(item);
+        }
+        return;
+      }
+
+      case MagicNumbers.Format.DICT: {
+        DictValue dict = v.dict();
+        putByte(MagicNumbers.Format.INDEXED_DICT);
+        putInt(dict.size());
+        Iterator<Map.Entry<String, Value>> iter = dict.entryIterator();
+        while (iter.hasNext()){
+          putBytes(iter.next().getKey().getBytes(StandardCharsets.UTF_8));
+        }
+        int offset = 0;
+        iter = dict.entryIterator();
+        while (iter.hasNext()){
+          putInt(offset);
+          offset += lengthOf(iter.next().getValue());
+        }
+        putInt(offset);
+        iter = dict.entryIterator();
+        while (iter.hasNext()){
+          put(iter.next().getValue());
+        }
+        return;
+      }
+
+      default:
+        throw new IOException("Unknown value type: "+v.type().name());
+    }
+  }
+
+  public void flush() throws IOException {
+
+    if(buffer.position() != 0){
+      buffer.flip();
+      while (buffer.hasRemaining()){
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+}
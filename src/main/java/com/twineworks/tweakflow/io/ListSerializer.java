@@ -25,6 +25,7 @@
 package com.twineworks.tweakflow.io;
 
 import com.twineworks.tweakflow.lang.values.ListValue;
+import com.twineworks.tweakflow.lang.values.TransientListValue;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
@@ -68,12 +69,12 @@ class ListSerializer implements ValueSerializer, ValueDeserializer {
     switch (format){
       case MagicNumbers.Format.LIST: {
         if (buffer.remaining() >= 4){
-          ListValue listValue = new ListValue();
           int size = buffer.getInt();
+          TransientListValue listValue = new TransientListValue();
           for (int i=0;i<size;i++){
-            listValue = listValue.append(in.readNext());
+            listValue.append(in.readNext());
           }
-          subject = Values.make(listValue);
+          subject = Values.make(listValue.persistent());
           return true;
         }
         return false;
@@ -54,10 +54,18 @@ public class MagicNumbers {
 
     public static final byte STRING_PART = 42;
 
+    public static final byte STRING_REF = 44;
+
     public final static byte LIST_HEAD = 62;
 
     public final static byte DICT_HEAD = 72;
 
+    public final static byte INDEXED_LIST = 64;
+
+    public final static byte INDEXED_DICT = 74;
+
+    public final static byte SHAPED_DICT = 78;
+
     public final static byte KEY = 80;
     public final static byte KEY_PART = 82;
 
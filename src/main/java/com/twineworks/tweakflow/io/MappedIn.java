@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import com.twineworks.tweakflow.lang.values.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+import static com.twineworks.tweakflow.util.InOut.GiB;
+
+/**
+ * Reads values written by {@link Out} directly from a byte buffer, typically a memory-mapped file.
+ *
+ * Numbers and datetimes are decoded in place, and strings are decoded straight from the buffer,
+ * without staging bytes in an intermediate buffer first. Files are mapped in windows, which move
+ * along as values are read, so files larger than a single mapping can be read.
+ */
+public class MappedIn implements AutoCloseable {
+
+  private final FileChannel channel;
+  private final long channelSize;
+  private final int windowSize;
+
+  private ByteBuffer buffer;
+
+  // channel position of the current window
+  private long windowStart;
+
+  private String lastZoneId;
+  private ZoneId lastZone;
+
+  public MappedIn(ByteBuffer buffer) {
+    this.channel = null;
+    this.channelSize = 0;
+    this.windowSize = 0;
+    this.buffer = buffer.slice();
+  }
+
+  public MappedIn(FileChannel channel) throws IOException {
+    this(channel, GiB);
+  }
+
+  public MappedIn(FileChannel channel, int windowSize) throws IOException {
+    this.channel = channel;
+    this.channelSize = channel.size();
+    this.windowSize = windowSize;
+    map(channel.position(), 0);
+  }
+
+  private void map(long position, int minSize) throws IOException {
+    long size = Math.min(channelSize - position, Math.max(windowSize, minSize));
+    buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    windowStart = position;
+  }
+
+  // makes sure the next n bytes are available in the buffer
+  private void require(int n) throws IOException {
+    if (buffer.remaining() >= n) return;
+    if (channel != null){
+      long position = windowStart + buffer.position();
+      if (channelSize - position >= n){
+        map(position, n);
+        return;
+      }
+    }
+    throw new IOException("Invalid data format: premature EOF");
+  }
+
+  private boolean atEnd() {
+    if (buffer.hasRemaining()) return false;
+    return channel == null || windowStart + buffer.position() >= channelSize;
+  }
+
+  private int readSize() throws IOException {
+    require(4);
+    int size = buffer.getInt();
+    if (size < 0) throw new IOException("Invalid data format: negative size "+size);
+    require(size);
+    return size;
+  }
+
+  // a view of the next size bytes, advancing the buffer past them
+  private ByteBuffer bytes(int size) {
+    ByteBuffer ret = buffer.slice();
+    ret.limit(size);
+    buffer.position(buffer.position() + size);
+    return ret;
+  }
+
+  private String readUtf8() throws IOException {
+    int size = readSize();
+    return StandardCharsets.UTF_8.decode(bytes(size)).toString();
+  }
+
+  public Value readNext() throws IOException {
+    if (atEnd()) return null;
+    require(1);
+    return read(buffer.get());
+  }
+
+  private Value read(byte format) throws IOException {
+
+    switch (format){
+      case MagicNumbers.Format.VOID:
+        return Values.NIL;
+
+      case MagicNumbers.Format.BOOLEAN:
+        require(1);
+        return Values.make(buffer.get() == (byte) 1);
+
+      case MagicNumbers.Format.LONG:
+        require(8);
+        return Values.make(buffer.getLong());
+
+      case MagicNumbers.Format.DOUBLE:
+        require(8);
+        return Values.make(buffer.getDouble());
+
+      case MagicNumbers.Format.DECIMAL:
+        return Values.make(new BigDecimal(readUtf8()));
+
+      case MagicNumbers.Format.STRING: {
+        // UTF-16BE code units, as written by Out
+        int size = readSize();
+        return Values.make(bytes(size).asCharBuffer().toString());
+      }
+
+      case MagicNumbers.Format.BINARY: {
+        int size = readSize();
+        byte[] ret = new byte[size];
+        buffer.get(ret);
+        return Values.make(ret);
+      }
+
+      case MagicNumbers.Format.DATETIME: {
+        require(12);
+        long epochSeconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        String zoneId = readUtf8();
+        if (!zoneId.equals(lastZoneId)){
+          lastZone = ZoneId.of(zoneId);
+          lastZoneId = zoneId;
+        }
+        return Values.make(DateTimeValue.ofEpochSecond(epochSeconds, nanos, lastZone));
+      }
+
+      case MagicNumbers.Format.LIST: {
+        require(4);
+        int size = buffer.getInt();
+        TransientListValue list = new TransientListValue();
+        for (int i = 0; i < size; i++) {
+          list.append(readItem());
+        }
+        return Values.make(list.persistent());
+      }
+
+      case MagicNumbers.Format.DICT: {
+        require(4);
+        int size = buffer.getInt();
+        TransientDictValue dict = new TransientDictValue();
+        for (int i = 0; i < size; i++) {
+          String key = readItem().string();
+          dict.put(key, readItem());
+        }
+        return Values.make(dict.persistent());
+      }
+
+      default:
+        throw new IOException("Unknown format: "+format);
+    }
+
+  }
+
+  private Value readItem() throws IOException {
+    Value ret = readNext();
+    if (ret == null) throw new IOException("Invalid data format: premature EOF");
+    return ret;
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -61,6 +61,11 @@ public class Out implements AutoCloseable {
     serializers = new ArrayDeque<>();
   }
 
+  // compresses the output in blocks of bufferSize bytes, as read by In with the same codec
+  public Out(WritableByteChannel channel, int bufferSize, BlockCodec codec) {
+    this(new BlockCompressingChannel(channel, codec, bufferSize), bufferSize);
+  }
+
   private void toBuffer(Value v) throws IOException {
     ValueSerializer s = serializers.peek();
     s.setSubject(v);
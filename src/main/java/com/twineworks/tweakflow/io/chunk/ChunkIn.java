@@ -6,9 +6,7 @@ import com.twineworks.tweakflow.lang.values.*;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.Iterator;
 
 public class ChunkIn {
@@ -76,14 +74,13 @@ public class ChunkIn {
     int nanos = b.getInt();
     String tz = new String(bytes, 12, bytes.length-12, StandardCharsets.UTF_8);
     ZoneId zoneId = ZoneId.of(tz);
-    ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(secs, nanos), zoneId);
-    return Values.make(new DateTimeValue(zonedDateTime));
+    return Values.make(DateTimeValue.ofEpochSecond(secs, nanos, zoneId));
   }
 
   private Value readNextValue() {
 
     byte[] partial = null;
-    ListValue list = null;
+    TransientListValue list = null;
     TransientDictValue t = null;
 
     while (true) {
@@ -180,11 +177,11 @@ public class ChunkIn {
           case MagicNumbers.Format.LIST: {
             int size = buffer.getInt();
             if (size == 0) return Values.EMPTY_LIST;
-            list = new ListValue();
+            list = new TransientListValue();
             for (int i = 0; i < size; i++) {
-              list = list.append(readNextValue());
+              list.append(readNextValue());
             }
-            return Values.make(list);
+            return Values.make(list.persistent());
           }
           case MagicNumbers.Format.DICT: {
             int size = buffer.getInt();
@@ -5,8 +5,6 @@ import com.twineworks.tweakflow.lang.values.*;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.ZonedDateTime;
 import java.util.ArrayDeque;
 import java.util.Iterator;
 
@@ -141,14 +139,12 @@ public class ChunkOut {
 
   private boolean writeDatetime() {
     DateTimeValue dt = s.v.dateTime();
-    ZonedDateTime dz = dt.getZoned();
-    Instant di = dt.getInstant();
-    String z = dz.getZone().getId();
+    String z = dt.getZone().getId();
 
     byte[] binBytes = new byte[8+4+z.length()];
     ByteBuffer b = ByteBuffer.wrap(binBytes);
-    b.putLong(di.getEpochSecond());
-    b.putInt(di.getNano());
+    b.putLong(dt.getEpochSecond());
+    b.putInt(dt.getNano());
     b.put(z.getBytes(StandardCharsets.UTF_8));
     int remaining = buffer.remaining();
     if (remaining >= binBytes.length + 1 + 4) {
@@ -24,15 +24,19 @@
 
 package com.twineworks.tweakflow.io.stream;
 
+import com.twineworks.tweakflow.io.BlockCodec;
+import com.twineworks.tweakflow.io.BlockDecompressingChannel;
 import com.twineworks.tweakflow.io.MagicNumbers;
 import com.twineworks.tweakflow.lang.values.*;
 import com.twineworks.tweakflow.util.LRUCache;
 
 import java.io.*;
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.nio.channels.Channels;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 public class ValueInputStream implements AutoCloseable {
 
@@ -41,12 +45,43 @@ public class ValueInputStream implements AutoCloseable {
   private final LRUCache<Long, Value> longCache;
   private final LRUCache<String, String> keyCache;
 
+  // strings and dict key sets defined by the stream, by id
+  private final ArrayList<Value> strings = new ArrayList<>();
+  private final ArrayList<DictShape> shapes = new ArrayList<>();
+  // slots of the keys of a shape, in the order the stream lists them
+  private final ArrayList<int[]> shapeSlots = new ArrayList<>();
+
+  // dicts streamed by readDictHead with keys left to read, innermost first
+  private final ArrayDeque<DictHead> dictHeads = new ArrayDeque<>();
+
+  private static final class DictHead {
+    // keys of a shaped dict in stream order, null if keys are read from the stream
+    private final String[] keys;
+    private final int size;
+    private int read;
+
+    private DictHead(String[] keys, int size) {
+      this.keys = keys;
+      this.size = size;
+    }
+  }
+
   public ValueInputStream(InputStream in) {
     this(in, 0);
   }
 
   public ValueInputStream(InputStream in, int cacheSize) {
-    this.ds = new DataInputStream(in);
+    this(new DataInputStream(in), cacheSize);
+  }
+
+  // reads input compressed in blocks by ValueOutputStream with the same codec
+  public ValueInputStream(InputStream in, int cacheSize, BlockCodec codec) {
+    this(new DataInputStream(new BufferedInputStream(
+        Channels.newInputStream(new BlockDecompressingChannel(Channels.newChannel(in), codec)))), cacheSize);
+  }
+
+  private ValueInputStream(DataInputStream ds, int cacheSize) {
+    this.ds = ds;
     if (cacheSize > 0){
       stringCache = new LRUCache<>(cacheSize);
       longCache = new LRUCache<>(cacheSize);
@@ -122,19 +157,20 @@ public class ValueInputStream implements AutoCloseable {
         return Values.make(new BigDecimal(ds.readUTF()));
       case MagicNumbers.Format.STRING:
         return makeString(ds.readUTF());
+      case MagicNumbers.Format.STRING_REF:
+        return readStringRef();
       case MagicNumbers.Format.DATETIME:
         long epochSeconds = ds.readLong();
         int nanos = ds.readInt();
         ZoneId zoneId = ZoneId.of(getKey(ds.readUTF()));
-        ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds, nanos), zoneId);
-        return Values.make(new DateTimeValue(zonedDateTime));
+        return Values.make(DateTimeValue.ofEpochSecond(epochSeconds, nanos, zoneId));
       case MagicNumbers.Format.LIST:
         int size = ds.readInt();
-        Value[] items = new Value[size];
+        TransientListValue items = new TransientListValue(size);
         for (int i = 0; i < size; i++) {
-          items[i] = read();
+          items.append(read());
         }
-        return Values.make(new ListValue(items));
+        return Values.make(items.persistent());
       case MagicNumbers.Format.DICT:
 
         TransientDictValue t = new TransientDictValue();
@@ -144,11 +180,105 @@ public class ValueInputStream implements AutoCloseable {
         }
         return Values.make(t.persistent());
 
+      case MagicNumbers.Format.SHAPED_DICT:
+        return readShapedDict();
+
       default:
         throw new IOException("Unknown value type: " + magicByte);
     }
   }
 
+  // reads the head of a list and returns its size, the elements follow as values
+  // lets callers stream elements through read() instead of reading the list as a whole
+  public int readListHead() throws IOException {
+    byte magicByte = ds.readByte();
+    if (magicByte != MagicNumbers.Format.LIST) throw new IOException("Expected list, found value type: " + magicByte);
+    return ds.readInt();
+  }
+
+  // reads the head of a dict and returns its size, the entries follow as a key and a value each
+  // lets callers stream entries through readKey() and read() instead of reading the dict as a whole
+  public int readDictHead() throws IOException {
+    byte magicByte = ds.readByte();
+    DictHead head;
+    switch (magicByte){
+      case MagicNumbers.Format.DICT:
+        int size = ds.readInt();
+        head = new DictHead(null, size);
+        break;
+      case MagicNumbers.Format.SHAPED_DICT:
+        int id = readShape();
+        DictShape shape = shapes.get(id);
+        int[] slots = shapeSlots.get(id);
+        String[] keys = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+          keys[i] = shape.keyAt(slots[i]);
+        }
+        head = new DictHead(keys, keys.length);
+        break;
+      default:
+        throw new IOException("Expected dict, found value type: " + magicByte);
+    }
+    if (head.size > 0) dictHeads.push(head);
+    return head.size;
+  }
+
+  // reads the key of the next entry of the innermost dict streamed by readDictHead
+  public String readKey() throws IOException {
+    DictHead head = dictHeads.peek();
+    if (head == null) throw new IOException("No dict entries left to read");
+    String key = head.keys == null ? getKey(ds.readUTF()) : head.keys[head.read];
+    head.read++;
+    if (head.read == head.size) dictHeads.pop();
+    return key;
+  }
+
+  private Value readStringRef() throws IOException {
+    int id = ds.readInt();
+    if (id == strings.size()){
+      // the next id defines the string
+      Value str = makeString(ds.readUTF());
+      strings.add(str);
+      return str;
+    }
+    if (id < 0 || id > strings.size()) throw new IOException("Invalid string reference: " + id);
+    return strings.get(id);
+  }
+
+  // reads a shape reference, and the shape if the reference defines it
+  private int readShape() throws IOException {
+    int id = ds.readInt();
+    if (id == shapes.size()){
+      // the next id defines the key set
+      int size = ds.readInt();
+      String[] keys = new String[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = getKey(ds.readUTF());
+      }
+      DictShape shape = DictShape.unshared(Arrays.asList(keys));
+      if (shape.size() != size) throw new IOException("Invalid dict shape: duplicate keys");
+      int[] slots = new int[size];
+      for (int i = 0; i < size; i++) {
+        slots[i] = shape.slotOf(keys[i]);
+      }
+      shapes.add(shape);
+      shapeSlots.add(slots);
+    }
+    if (id < 0 || id >= shapes.size()) throw new IOException("Invalid dict shape reference: " + id);
+    return id;
+  }
+
+  private Value readShapedDict() throws IOException {
+    int id = readShape();
+    DictShape shape = shapes.get(id);
+    int[] slots = shapeSlots.get(id);
+    Value[] values = new Value[slots.length];
+    for (int slot : slots) {
+      values[slot] = read();
+    }
+    return Values.make(DictValue.record(shape, values));
+  }
+
   @Override
   public void close() {
     try {
@@ -161,6 +291,10 @@ public class ValueInputStream implements AutoCloseable {
       if(keyCache != null){
         keyCache.clear();
       }
+      strings.clear();
+      shapes.clear();
+      shapeSlots.clear();
+      dictHeads.clear();
       ds.close();
     } catch (IOException ignored) {
     }
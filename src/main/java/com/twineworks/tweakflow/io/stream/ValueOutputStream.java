@@ -24,26 +24,130 @@
 
 package com.twineworks.tweakflow.io.stream;
 
+import com.twineworks.tweakflow.io.BlockCodec;
+import com.twineworks.tweakflow.io.BlockCompressingChannel;
 import com.twineworks.tweakflow.io.MagicNumbers;
-import com.twineworks.tweakflow.lang.values.DictValue;
-import com.twineworks.tweakflow.lang.values.ListValue;
-import com.twineworks.tweakflow.lang.values.Value;
-import com.twineworks.tweakflow.lang.values.ValueInspector;
+import com.twineworks.tweakflow.lang.values.*;
 
+import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.time.Instant;
-import java.time.ZonedDateTime;
-import java.util.Iterator;
-import java.util.Map;
+import java.nio.channels.Channels;
+import java.util.*;
 
 public class ValueOutputStream implements AutoCloseable {
 
   private final DataOutputStream ds;
 
+  // strings and dict key sets written so far, by id, null unless writing references
+  private final int tableSize;
+  private final HashMap<String, Integer> strings;
+  private final HashMap<List<String>, Integer> shapes;
+  private final IdentityHashMap<DictShape, Integer> recordShapes;
+
   public ValueOutputStream(OutputStream out) {
-    this.ds = new DataOutputStream(out);
+    this(out, 0);
+  }
+
+  // with a positive table size, the first tableSize distinct strings and dict key sets are written
+  // once, and referenced by id when they repeat
+  public ValueOutputStream(OutputStream out, int tableSize) {
+    this(new DataOutputStream(out), tableSize);
+  }
+
+  // compresses the output in blocks of blockSize bytes, as read by ValueInputStream with the same codec
+  public ValueOutputStream(OutputStream out, int tableSize, BlockCodec codec, int blockSize) {
+    this(new DataOutputStream(new BufferedOutputStream(
+        Channels.newOutputStream(new BlockCompressingChannel(Channels.newChannel(out), codec, blockSize)),
+        blockSize)), tableSize);
+  }
+
+  private ValueOutputStream(DataOutputStream ds, int tableSize) {
+    this.ds = ds;
+    this.tableSize = tableSize;
+    if (tableSize > 0){
+      strings = new HashMap<>();
+      shapes = new HashMap<>();
+      recordShapes = new IdentityHashMap<>();
+    }
+    else {
+      strings = null;
+      shapes = null;
+      recordShapes = null;
+    }
+  }
+
+  private void writeString(String str) throws IOException {
+    if (strings != null){
+      Integer id = strings.get(str);
+      if (id != null){
+        ds.writeByte(MagicNumbers.Format.STRING_REF);
+        ds.writeInt(id);
+        return;
+      }
+      if (strings.size() < tableSize){
+        // the next id defines the string
+        id = strings.size();
+        strings.put(str, id);
+        ds.writeByte(MagicNumbers.Format.STRING_REF);
+        ds.writeInt(id);
+        ds.writeUTF(str);
+        return;
+      }
+    }
+    ds.writeByte(MagicNumbers.Format.STRING);
+    ds.writeUTF(str);
+  }
+
+  // writes dict as values of a known key set, returns false if the shape table is full
+  private boolean writeShaped(DictValue dict) throws IOException {
+
+    DictShape record = dict.shape();
+    int size = dict.size();
+
+    if (record != null){
+      Integer id = recordShapes.get(record);
+      if (id != null){
+        ds.writeByte(MagicNumbers.Format.SHAPED_DICT);
+        ds.writeInt(id);
+        for (int i = 0; i < size; i++) {
+          write(dict.valueAt(i));
+        }
+        return true;
+      }
+    }
+
+    String[] keys = new String[size];
+    Value[] values = new Value[size];
+    dict.getAll(keys, values);
+
+    List<String> keyList = Arrays.asList(keys);
+    Integer id = shapes.get(keyList);
+    boolean define = false;
+    if (id == null){
+      if (shapes.size() >= tableSize) return false;
+      // the next id defines the key set
+      id = shapes.size();
+      shapes.put(keyList, id);
+      define = true;
+    }
+    if (record != null && recordShapes.size() < tableSize){
+      recordShapes.put(record, id);
+    }
+
+    ds.writeByte(MagicNumbers.Format.SHAPED_DICT);
+    ds.writeInt(id);
+    if (define){
+      ds.writeInt(size);
+      for (String key : keys) {
+        ds.writeUTF(key);
+      }
+    }
+    for (Value value : values) {
+      write(value);
+    }
+    return true;
   }
 
   public void write(Value v) throws IOException {
@@ -74,15 +178,13 @@ public class ValueOutputStream implements AutoCloseable {
         ds.writeUTF(v.decimal().toString());
         break;
       case MagicNumbers.Format.STRING:
-        ds.writeByte(magicByte);
-        ds.writeUTF(v.string());
+        writeString(v.string());
         break;
       case MagicNumbers.Format.DATETIME:
         ds.writeByte(magicByte);
-        ZonedDateTime dt = v.dateTime().getZoned();
-        Instant di = v.dateTime().getInstant();
-        ds.writeLong(di.getEpochSecond());
-        ds.writeInt(di.getNano());
+        DateTimeValue dt = v.dateTime();
+        ds.writeLong(dt.getEpochSecond());
+        ds.writeInt(dt.getNano());
         ds.writeUTF(dt.getZone().getId());
         break;
 
@@ -96,8 +198,9 @@ public class ValueOutputStream implements AutoCloseable {
         break;
 
       case MagicNumbers.Format.DICT:
-        ds.writeByte(magicByte);
         DictValue dict = v.dict();
+        if (shapes != null && !dict.isEmpty() && writeShaped(dict)) break;
+        ds.writeByte(magicByte);
         ds.writeInt(dict.size());
         Iterator<Map.Entry<String, Value>> iter = dict.entryIterator();
         while (iter.hasNext()) {
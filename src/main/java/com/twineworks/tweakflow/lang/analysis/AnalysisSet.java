@@ -38,6 +38,7 @@ public class AnalysisSet {
 
   private IdentityHashMap<Symbol, LinkedHashSet<Symbol>> dependencies;
   private IdentityHashMap<Symbol, LinkedHashSet<Symbol>> dependants;
+  private IdentityHashMap<Symbol, LinkedHashSet<Symbol>> varDependencies;
 
   private final ArrayList<LangException> recoveryErrors = new ArrayList<>();
 
@@ -77,6 +78,16 @@ public class AnalysisSet {
     return this;
   }
 
+  // library vars to the library vars they reference directly
+  public IdentityHashMap<Symbol, LinkedHashSet<Symbol>> getVarDependencies() {
+    return varDependencies;
+  }
+
+  public AnalysisSet setVarDependencies(IdentityHashMap<Symbol, LinkedHashSet<Symbol>> varDependencies) {
+    this.varDependencies = varDependencies;
+    return this;
+  }
+
   public ArrayList<LangException> getRecoveryErrors() {
     return recoveryErrors;
   }
@@ -36,6 +36,8 @@ import com.twineworks.tweakflow.lang.interpreter.Interpreter;
 import com.twineworks.tweakflow.lang.interpreter.ops.*;
 import com.twineworks.tweakflow.lang.load.loadpath.LoadPathLocation;
 import com.twineworks.tweakflow.lang.load.user.UserObjectFactory;
+import com.twineworks.tweakflow.lang.types.Type;
+import com.twineworks.tweakflow.lang.types.Types;
 import com.twineworks.tweakflow.lang.values.*;
 
 import java.util.ArrayList;
@@ -96,6 +98,9 @@ public class OpBuilderVisitor extends AExpressionDescendingVisitor implements Vi
   @Override
   public ExpressionNode visit(CallNode node) {
     super.visit(node);
+    if (node.isTailCall()) {
+      return node.setOp(new TailCallOp(node));
+    }
     return node.setOp(new CallOp(node));
   }
 
@@ -238,8 +243,43 @@ public class OpBuilderVisitor extends AExpressionDescendingVisitor implements Vi
     return node.setOp(new CastOp(node));
   }
 
+  // marks calls whose result is the result of the function, so they can run without growing the stack
+  // returnType is the type their result would be cast to on the way out, Types.ANY if not cast at all
+  private void markTailCalls(ExpressionNode node, Type returnType) {
+
+    if (node instanceof CallNode) {
+      ((CallNode) node).setTailCallReturnType(returnType);
+    }
+    else if (node instanceof IfNode) {
+      IfNode ifNode = (IfNode) node;
+      markTailCalls(ifNode.getThenExpression(), returnType);
+      markTailCalls(ifNode.getElseExpression(), returnType);
+    }
+    else if (node instanceof LetNode) {
+      markTailCalls(((LetNode) node).getExpression(), returnType);
+    }
+    else if (node instanceof MatchNode) {
+      for (MatchLineNode matchLineNode : ((MatchNode) node).getMatchLines().getElements()) {
+        markTailCalls(matchLineNode.getExpression(), returnType);
+      }
+    }
+    else if (node instanceof CastNode) {
+      // a cast is only skipped if the callee is known to produce the same type
+      Type targetType = ((CastNode) node).getTargetType();
+      if (returnType == Types.ANY || returnType == targetType) {
+        markTailCalls(((CastNode) node).getExpression(), targetType);
+      }
+    }
+
+  }
+
   @Override
   public ExpressionNode visit(FunctionNode node) {
+
+    if (node.getExpression() != null) {
+      markTailCalls(node.getExpression(), Types.ANY);
+    }
+
     super.visit(node);
 
     // construct signature for all nodes, no matter if they end up being compile time constants or not
@@ -458,9 +498,15 @@ public class OpBuilderVisitor extends AExpressionDescendingVisitor implements Vi
       return node.setOp(new ClosureReferenceOp(node));
     }
     if (node.isSimpleLocal()) {
+      if (node.isSlot()) {
+        return node.setOp(new LocalSlotReferenceOp(node.getSimpleName(), node.getSlot()));
+      }
       return node.setOp(new SimpleLocalReferenceOp(node.getSimpleName()));
     }
     if (node.isSimpleParent()) {
+      if (node.isSlot()) {
+        return node.setOp(new ParentSlotReferenceOp(node.getSimpleName(), node.getSlot()));
+      }
       return node.setOp(new SimpleParentSpaceReferenceOp(node.getSimpleName()));
     }
     return node.setOp(new ReferenceOp(node));
@@ -29,6 +29,8 @@ import com.twineworks.tweakflow.lang.analysis.visitors.Visitor;
 import com.twineworks.tweakflow.lang.ast.expressions.*;
 import com.twineworks.tweakflow.lang.ast.structure.*;
 import com.twineworks.tweakflow.lang.ast.structure.match.*;
+import com.twineworks.tweakflow.lang.interpreter.ops.ExpressionOp;
+import com.twineworks.tweakflow.lang.interpreter.ops.TieredOp;
 
 public class OpSpecializationVisitor extends AExpressionDescendingVisitor implements Visitor {
 
@@ -36,6 +38,19 @@ public class OpSpecializationVisitor extends AExpressionDescendingVisitor implem
     return node.setOp(node.getOp().specialize());
   }
 
+  // function bodies and var initializers are candidates for compilation once hot
+  private void tier(ExpressionNode node){
+    ExpressionOp op = node.getOp();
+    if (op instanceof TieredOp || op.isConstant()) return;
+    node.setOp(new TieredOp(node, op));
+  }
+
+  private void tierVars(VarDefs vars){
+    for (VarDefNode varDef : vars.getMap().values()) {
+      tier(varDef.getValueExpression());
+    }
+  }
+
   @Override
   public InteractiveNode visit(InteractiveNode node) {
     node.getSections().forEach(this::visit);
@@ -45,6 +60,7 @@ public class OpSpecializationVisitor extends AExpressionDescendingVisitor implem
   @Override
   public InteractiveSectionNode visit(InteractiveSectionNode node) {
     visit(node.getVars());
+    tierVars(node.getVars());
     return node;
   }
 
@@ -62,6 +78,7 @@ public class OpSpecializationVisitor extends AExpressionDescendingVisitor implem
     if (node.hasDoc()) visit(node.getDoc());
     if (node.hasMeta()) visit(node.getMeta());
     visit(node.getVars());
+    tierVars(node.getVars());
     return node;
   }
 
@@ -215,6 +232,9 @@ public class OpSpecializationVisitor extends AExpressionDescendingVisitor implem
   @Override
   public ExpressionNode visit(FunctionNode node) {
     super.visit(node);
+    if (node.getExpression() != null && node.getVia() == null){
+      tier(node.getExpression());
+    }
     return specialize(node);
   }
 
@@ -116,6 +116,7 @@ public class DependencyVerification {
     IdentityHashMap<Symbol, LinkedHashSet<Symbol>> dependencies = analysis.getDirectDependencies();
     IdentityHashMap<Symbol, LinkedHashSet<Symbol>> varDependencies = analysis.getVarDependencies();
     analysisSet.setDependencies(dependencies);
+    analysisSet.setVarDependencies(varDependencies);
 
     // find global evaluation order
     List<Symbol> globalOrder;
@@ -37,6 +37,8 @@ public class CallNode extends AExpressionNode implements ExpressionNode {
 
   private Arguments arguments = new Arguments();
   private ExpressionNode expression;
+  // return type a tail call must produce to skip the caller's return cast, null if not in tail position
+  private Type tailCallReturnType;
 
   @Override
   public CallNode copy() {
@@ -44,6 +46,7 @@ public class CallNode extends AExpressionNode implements ExpressionNode {
     copy.sourceInfo = sourceInfo;
     copy.arguments = arguments.copy();
     copy.expression = expression.copy();
+    copy.tailCallReturnType = tailCallReturnType;
     return copy;
   }
 
@@ -87,4 +90,17 @@ public class CallNode extends AExpressionNode implements ExpressionNode {
     return this;
   }
 
+  public boolean isTailCall() {
+    return tailCallReturnType != null;
+  }
+
+  public Type getTailCallReturnType() {
+    return tailCallReturnType;
+  }
+
+  public CallNode setTailCallReturnType(Type tailCallReturnType) {
+    this.tailCallReturnType = tailCallReturnType;
+    return this;
+  }
+
 }
@@ -27,6 +27,7 @@ package com.twineworks.tweakflow.lang.ast.expressions;
 import com.twineworks.tweakflow.lang.interpreter.ops.ConstantOp;
 import com.twineworks.tweakflow.lang.analysis.visitors.Visitor;
 import com.twineworks.tweakflow.lang.ast.Node;
+import com.twineworks.tweakflow.lang.ast.args.ParameterNode;
 import com.twineworks.tweakflow.lang.scope.Symbol;
 import com.twineworks.tweakflow.lang.types.Type;
 import com.twineworks.tweakflow.lang.types.Types;
@@ -48,6 +49,7 @@ public class ReferenceNode extends AExpressionNode implements ExpressionNode {
   private boolean isSimpleLocal = false;
   private boolean isSimpleParent = false;
   private String simpleName;
+  private int slot = -1;
 
   public Symbol getReferencedSymbol() {
     return referencedSymbol;
@@ -59,6 +61,10 @@ public class ReferenceNode extends AExpressionNode implements ExpressionNode {
     isSimpleParent = (referencedSymbol != null) && referencedSymbol.getScope() == scope.getEnclosingScope() && elements.size() == 1;
     if (isSimpleLocal || isSimpleParent){
       simpleName = elements.get(0);
+      // parameters live in fixed frame slots of their call
+      if (referencedSymbol.getTargetNode() instanceof ParameterNode){
+        slot = ((ParameterNode) referencedSymbol.getTargetNode()).getIndex();
+      }
     }
 
     return this;
@@ -76,6 +82,14 @@ public class ReferenceNode extends AExpressionNode implements ExpressionNode {
     return simpleName;
   }
 
+  public boolean isSlot() {
+    return slot >= 0;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
   public boolean isClosure() {
     return isClosure;
   }
@@ -127,6 +141,7 @@ public class ReferenceNode extends AExpressionNode implements ExpressionNode {
     copy.isClosure = isClosure;
     copy.isSimpleLocal = isSimpleLocal;
     copy.isSimpleParent = isSimpleParent;
+    copy.slot = slot;
     return copy;
   }
 
@@ -67,4 +67,14 @@ public class CallContext implements UserCallContext {
     return stack;
   }
 
+  @Override
+  public UserCallContext fork() {
+    return new CallContext(stack.copy(), evaluationContext.fork());
+  }
+
+  @Override
+  public void release() {
+    evaluationContext.release();
+  }
+
 }
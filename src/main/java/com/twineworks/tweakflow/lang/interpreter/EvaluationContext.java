@@ -24,7 +24,10 @@
 
 package com.twineworks.tweakflow.lang.interpreter;
 
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
 import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
+import com.twineworks.tweakflow.lang.values.AllocationBudget;
 
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -34,18 +37,78 @@ public class EvaluationContext {
 
   private final DebugHandler debugHandler;
 
+  // context this context was forked from or is a child of, cancelling it cancels this context too
+  private final EvaluationContext parent;
+
   private final Map<Cell, List<RecursiveDeferredClosure>> recursiveDeferredClosures;
 
+  // amount of evaluations after which hot function bodies and var initializers
+  // are compiled to bytecode, 0 disables compilation
+  private int compileThreshold;
+
+  // evaluation limits are checked every CHECK_INTERVAL steps
+  // a step is a function call, or an iteration of a for loop
+  private static final long CHECK_INTERVAL = 1024;
+
+  // configured limits, applied anew by each top-level evaluation, -1 if not set
+  private long timeLimit = -1;
+  private long stepLimit = -1;
+  private long allocationLimit = -1;
+
+  // nesting depth of evaluations, limits are re-armed when entering at depth 0
+  private int depth;
+
+  private volatile boolean cancelled;
+  private boolean hasDeadline;
+  private long deadline;
+  // shared with forks, so steps taken on all threads count towards the same limit
+  private StepBudget stepBudget = new StepBudget(Long.MAX_VALUE);
+  private long stepsBeforeCheck;
+
+  // estimated bytes evaluations may allocate for strings, binaries, lists and dicts, null if unlimited
+  private AllocationBudget allocationBudget;
+
   public EvaluationContext() {
-    this.debugHandler = new SimpleDebugHandler();
-    this.recursiveDeferredClosures = new IdentityHashMap<>();
+    this(new SimpleDebugHandler());
   }
 
   public EvaluationContext(DebugHandler debugHandler) {
+    this(debugHandler, null);
+  }
+
+  private EvaluationContext(DebugHandler debugHandler, EvaluationContext parent) {
     this.debugHandler = debugHandler;
+    this.parent = parent;
     this.recursiveDeferredClosures = new IdentityHashMap<>();
   }
 
+  /**
+   * Creates a context for evaluating on another thread. The fork inherits the compile threshold
+   * and the deadline of this context, and shares its step and allocation budgets. Cancelling
+   * this context cancels the fork. Call {@link #release()} on the fork once done evaluating on it.
+   */
+  public EvaluationContext fork() {
+    EvaluationContext fork = new EvaluationContext(debugHandler, this);
+    fork.compileThreshold = compileThreshold;
+    fork.hasDeadline = hasDeadline;
+    fork.deadline = deadline;
+    fork.stepBudget = stepBudget;
+    fork.allocationBudget = allocationBudget;
+    // evaluations on the fork are part of the evaluation forking it, they never re-arm limits
+    fork.depth = 1;
+    return fork;
+  }
+
+  /**
+   * Creates a context with limits of its own, for evaluations on another thread. The child inherits
+   * the compile threshold of this context. Cancelling this context cancels the child.
+   */
+  public EvaluationContext child() {
+    EvaluationContext child = new EvaluationContext(debugHandler, this);
+    child.compileThreshold = compileThreshold;
+    return child;
+  }
+
   public Map<Cell, List<RecursiveDeferredClosure>> getRecursiveDeferredClosures() {
     return recursiveDeferredClosures;
   }
@@ -53,4 +116,145 @@ public class EvaluationContext {
   public DebugHandler getDebugHandler() {
     return debugHandler;
   }
+
+  public int getCompileThreshold() {
+    return compileThreshold;
+  }
+
+  public EvaluationContext setCompileThreshold(int compileThreshold) {
+    if (compileThreshold < 0) throw new IllegalArgumentException("compile threshold cannot be negative");
+    this.compileThreshold = compileThreshold;
+    return this;
+  }
+
+  public EvaluationContext setDeadline(long nanoTime) {
+    this.timeLimit = -1;
+    this.hasDeadline = true;
+    this.deadline = nanoTime;
+    release();
+    return this;
+  }
+
+  public EvaluationContext setTimeLimit(long millis) {
+    if (millis < 0) throw new IllegalArgumentException("time limit cannot be negative");
+    setDeadline(System.nanoTime() + millis * 1_000_000L);
+    this.timeLimit = millis;
+    return this;
+  }
+
+  public EvaluationContext setStepLimit(long steps) {
+    if (steps < 0) throw new IllegalArgumentException("step limit cannot be negative");
+    this.stepLimit = steps;
+    this.stepBudget = new StepBudget(steps);
+    this.stepsBeforeCheck = 0;
+    return this;
+  }
+
+  public EvaluationContext setAllocationLimit(long bytes) {
+    this.allocationLimit = bytes;
+    this.allocationBudget = new AllocationBudget(bytes);
+    return this;
+  }
+
+  public AllocationBudget getAllocationBudget() {
+    return allocationBudget;
+  }
+
+  public long getBytesAllocated() {
+    return allocationBudget == null ? 0 : allocationBudget.getAllocated();
+  }
+
+  // steps of the current or last top-level evaluation
+  // includes steps taken by forks, and steps granted to forks that are still evaluating
+  public long getStepsTaken() {
+    return stepBudget.getGranted() - Math.max(stepsBeforeCheck, 0);
+  }
+
+  /**
+   * Returns the steps granted to this context but not taken to the shared step budget.
+   * Forks call this when they are done evaluating.
+   */
+  public void release() {
+    if (stepsBeforeCheck > 0) {
+      stepBudget.giveBack(stepsBeforeCheck);
+    }
+    stepsBeforeCheck = 0;
+  }
+
+  public EvaluationContext cancel() {
+    this.cancelled = true;
+    return this;
+  }
+
+  public boolean isCancelled() {
+    return cancelled || (parent != null && parent.isCancelled());
+  }
+
+  public EvaluationContext clearLimits() {
+    timeLimit = -1;
+    stepLimit = -1;
+    allocationLimit = -1;
+    cancelled = false;
+    hasDeadline = false;
+    deadline = 0;
+    stepBudget = new StepBudget(Long.MAX_VALUE);
+    stepsBeforeCheck = 0;
+    allocationBudget = null;
+    return this;
+  }
+
+  /**
+   * Marks the start of an evaluation. A top-level evaluation, one not nested in another
+   * evaluation on this context, re-arms the configured time, step and allocation limits,
+   * so each top-level evaluation gets the full limits. Deadlines set through
+   * {@link #setDeadline(long)} are absolute, and are not re-armed. Must be paired with {@link #exit()}.
+   */
+  public void enter() {
+    if (depth++ == 0) rearm();
+  }
+
+  public void exit() {
+    depth--;
+  }
+
+  private void rearm() {
+    if (timeLimit >= 0) {
+      hasDeadline = true;
+      deadline = System.nanoTime() + timeLimit * 1_000_000L;
+    }
+    stepBudget = new StepBudget(stepLimit >= 0 ? stepLimit : Long.MAX_VALUE);
+    stepsBeforeCheck = 0;
+    if (allocationLimit >= 0) {
+      allocationBudget = new AllocationBudget(allocationLimit);
+    }
+  }
+
+  public void step() {
+    if (--stepsBeforeCheck < 0) checkLimits();
+  }
+
+  private void checkLimits() {
+
+    if (isCancelled()) {
+      throw new LangException(LangError.EVALUATION_ABORTED, "evaluation cancelled");
+    }
+
+    if (Thread.currentThread().isInterrupted()) {
+      throw new LangException(LangError.EVALUATION_ABORTED, "evaluation interrupted");
+    }
+
+    if (hasDeadline && System.nanoTime() - deadline > 0) {
+      throw new LangException(LangError.EVALUATION_ABORTED, "evaluation time limit exceeded");
+    }
+
+    // grant the next slice of steps, the current step being the first of them
+    long slice = stepBudget.grant(CHECK_INTERVAL);
+    if (slice == 0) {
+      stepsBeforeCheck = 0;
+      throw new LangException(LangError.EVALUATION_ABORTED, "evaluation step limit of " + stepBudget.getLimit() + " exceeded");
+    }
+    stepsBeforeCheck = slice - 1;
+
+  }
+
 }
@@ -53,9 +53,15 @@ public class Interpreter {
 
   public static void evaluateSpace(MemorySpace space, EvaluationContext context) {
 
-    ConstShapeMap<Cell> cells = space.getCells();
-    for (Cell cell : cells.values()) {
-      evaluateCell(cell, new Stack(), context);
+    // all cells of the space are evaluated as one evaluation towards the limits
+    context.enter();
+    try {
+      ConstShapeMap<Cell> cells = space.getCells();
+      for (Cell cell : cells.values()) {
+        evaluateCell(cell, new Stack(), context);
+      }
+    } finally {
+      context.exit();
     }
 
   }
@@ -73,6 +79,20 @@ public class Interpreter {
 
     if (!cell.isDirty()) return;
 
+    context.enter();
+    AllocationBudget budget = context.getAllocationBudget();
+    AllocationBudget previous = Allocations.bind(budget);
+    try {
+      evaluateDirtyCell(cell, stack, context);
+    } finally {
+      Allocations.restore(budget, previous);
+      context.exit();
+    }
+
+  }
+
+  private static void evaluateDirtyCell(Cell cell, Stack stack, EvaluationContext context) {
+
     // variable cell
     if (cell.isVar()) {
 
@@ -85,7 +105,14 @@ public class Interpreter {
         // when referenced from other spaces
         stack.push(new StackEntry(targetNode, cell.getEnclosingSpace(), stack.peek().getClosures()));
         cell.setEvaluating(true);
-        cell.setValue(evaluateExpression(exp, stack, context));
+        try {
+          cell.setValue(evaluateExpression(exp, stack, context));
+        } catch (LangException e) {
+          // leave the cell ready for evaluation on next access
+          cell.setEvaluating(false);
+          context.getRecursiveDeferredClosures().remove(cell);
+          throw e;
+        }
         cell.setEvaluating(false);
         closeDeferredClosures(cell, context);
         stack.pop();
@@ -138,6 +165,8 @@ public class Interpreter {
 
     Value[] callArgs = Interpreter.argumentsForPositionalUserCall(args, userFunction.getSignature());
 
+    context.step();
+
     stack.push(new StackEntry(at, LocalMemorySpace.EMPTY, Collections.emptyMap()));
     CallContext userCallContext = new CallContext(stack, context);
 
@@ -171,41 +200,78 @@ public class Interpreter {
 
   public static Value evaluateStandardFunctionCall(CallNode node, StandardFunctionValue standardFunction, Arguments arguments, Stack stack, EvaluationContext context) {
 
-    ConstShapeMap<Cell> args = mapArgumentsIntoCellMap(
+    Value[] args = mapArgumentsIntoFrame(
         arguments,
         evalArguments(arguments, stack, context),
         standardFunction.getSignature()
     );
 
-    LocalMemorySpace argSpace = new LocalMemorySpace(
+    FrameMemorySpace argSpace = new FrameMemorySpace(
         stack.peek().getSpace(),
         standardFunction.getBody().getScope(),
-        MemorySpaceType.CALL_ARGUMENTS,
+        standardFunction.getSignature(),
         args
     );
 
+    context.step();
+
     // put all local closures into arg space
     stack.push(new StackEntry(node, argSpace, standardFunction.getClosures()));
     Value retValue = standardFunction.getBody().getOp().eval(stack, context);
     stack.pop();
 
+    if (stack.hasTailCall()) retValue = evaluateTailCalls(stack, context);
+
     return retValue;
 
   }
 
-  private static Value evaluateStandardFunctionCall(StandardFunctionValue standardFunction, ConstShapeMap<Cell> args, Node at, Stack stack, EvaluationContext context) {
+  private static Value evaluateStandardFunctionCall(StandardFunctionValue standardFunction, Value[] args, Node at, Stack stack, EvaluationContext context) {
 
-    LocalMemorySpace argSpace = new LocalMemorySpace(
+    FrameMemorySpace argSpace = new FrameMemorySpace(
         stack.peek().getSpace(),
         standardFunction.getBody().getScope(),
-        MemorySpaceType.CALL_ARGUMENTS,
+        standardFunction.getSignature(),
         args
     );
 
+    context.step();
+
     // put all local closures into arg space
     stack.push(new StackEntry(at, argSpace, standardFunction.getClosures()));
     Value retValue = standardFunction.getBody().getOp().eval(stack, context);
     stack.pop();
+
+    if (stack.hasTailCall()) retValue = evaluateTailCalls(stack, context);
+
+    return retValue;
+  }
+
+  public static Value evaluateTailCalls(Stack stack, EvaluationContext context) {
+
+    // function bodies leave calls in tail position pending on the stack
+    // they are run here, one after the other, in place of the frame that returned
+    Value retValue;
+    do {
+      StandardFunctionValue f = stack.getTailCallFunction();
+      Value[] args = stack.getTailCallArgs();
+      Node at = stack.getTailCallAt();
+      stack.clearTailCall();
+
+      FrameMemorySpace argSpace = new FrameMemorySpace(
+          stack.peek().getSpace(),
+          f.getBody().getScope(),
+          f.getSignature(),
+          args
+      );
+
+      context.step();
+      stack.push(new StackEntry(at, argSpace, f.getClosures()));
+      retValue = f.getBody().getOp().eval(stack, context);
+      stack.pop();
+
+    } while (stack.hasTailCall());
+
     return retValue;
   }
 
@@ -218,6 +284,8 @@ public class Interpreter {
     try {
       ret = evaluateExpression(tryExpression, stack, context);
     } catch (LangException e) {
+      // evaluation limits cannot be caught
+      if (e.getCode() == LangError.EVALUATION_ABORTED) throw e;
       // discard stack frames lost in unwinding
       while (stack.peek() != entryStackFrame) stack.pop();
       // process catch
@@ -360,10 +428,14 @@ public class Interpreter {
   }
 
   private static Value castArgumentValue(ArgumentNode node, FunctionParameter param, Value rawValue) {
+    return castArgumentValue(node, param.getDeclaredType(), rawValue);
+  }
+
+  // casts an argument to the declared type of its parameter, cast errors point at the argument node if given
+  public static Value castArgumentValue(ArgumentNode node, Type declaredType, Value rawValue) {
 
     if (rawValue == Values.NIL) return rawValue;
 
-    Type declaredType = param.getDeclaredType();
     if (declaredType == Types.ANY) return rawValue;
     if (declaredType == rawValue.type()) return rawValue;
 
@@ -371,37 +443,35 @@ public class Interpreter {
       return rawValue.castTo(declaredType);
     } catch (LangException e) {
       if (node != null) {
-        // "cannot cast " + rawValue.type().name() + " to " + param.getDeclaredType().name() + " for parameter " + param.getName(),
         e.setSourceInfo(node.getSourceInfo());
       }
       throw e;
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private static ConstShapeMap<Cell> mapArgumentsIntoCellMap(Arguments arguments, Value[] argumentValues, FunctionSignature signature) {
+  private static Value[] mapArgumentsIntoFrame(Arguments arguments, Value[] argumentValues, FunctionSignature signature) {
 
     if (argumentValues.length <= 3 && arguments.allPositional()) {
       switch (argumentValues.length) {
         case 0:
-          return mapArgumentsIntoCellMap(Collections.emptyList(), signature); // TODO: could be done with dedicated option
+          return mapArgumentsIntoFrame(Collections.emptyList(), signature); // TODO: could be done with dedicated option
         case 1:
-          return mapArguments1IntoCellMap(argumentValues[0], signature);
+          return mapArguments1IntoFrame(argumentValues[0], signature);
         case 2:
-          return mapArguments2IntoCellMap(argumentValues[0], argumentValues[1], signature);
+          return mapArguments2IntoFrame(argumentValues[0], argumentValues[1], signature);
         case 3:
-          return mapArguments3IntoCellMap(argumentValues[0], argumentValues[1], argumentValues[2], signature);
+          return mapArguments3IntoFrame(argumentValues[0], argumentValues[1], argumentValues[2], signature);
       }
     }
 
-    ConstShapeMap<Cell> args = new ConstShapeMap<>(signature.getParameterShapeMap());
+    Value[] args = new Value[signature.getParameterArray().length];
     Map<String, FunctionParameter> parameterMap = signature.getParameterMap();
     List<FunctionParameter> parameterList = signature.getParameterList();
     List<ArgumentNode> list = arguments.getList();
 
     // all arguments initialized with default values (could be done with a copy of on-demand map in function signature)
     for (FunctionParameter parameter : signature.getParameterList()) {
-      args.seta(parameter.getShapeAccessor(), new Cell().setValue(parameter.getDefaultValue()));
+      args[parameter.getIndex()] = parameter.getDefaultValue();
     }
 
     int currentPositional = 0;
@@ -429,7 +499,7 @@ public class Interpreter {
           );
         }
         FunctionParameter parameter = parameterList.get(index);
-        args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(argumentNode, parameter, argumentValues[i])));
+        args[parameter.getIndex()] = castArgumentValue(argumentNode, parameter, argumentValues[i]);
         currentPositional += 1;
       } else if (argumentNode.isNamed()) {
 
@@ -446,7 +516,7 @@ public class Interpreter {
           );
         }
 
-        args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(argumentNode, parameter, argumentValues[i])));
+        args[parameter.getIndex()] = castArgumentValue(argumentNode, parameter, argumentValues[i]);
       } else if (argumentNode.isSplat()) {
         SplatArgumentNode splatArgumentNode = (SplatArgumentNode) argumentNode;
         Value value = argumentValues[i];
@@ -468,7 +538,7 @@ public class Interpreter {
               );
             }
 
-            args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(argumentNode, parameter, splatMap.get(s))));
+            args[parameter.getIndex()] = castArgumentValue(argumentNode, parameter, splatMap.get(s));
           }
 
         } else if (value.isList()) {
@@ -495,7 +565,7 @@ public class Interpreter {
               );
             }
             FunctionParameter parameter = parameterList.get(index);
-            args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(argumentNode, parameter, listValue.get(j))));
+            args[parameter.getIndex()] = castArgumentValue(argumentNode, parameter, listValue.get(j));
             currentPositional += 1;
 
           }
@@ -680,6 +750,10 @@ public class Interpreter {
     return args;
   }
 
+  public static Value[] argumentsForStandardCall(Arguments arguments, Value[] argumentValues, FunctionSignature signature) {
+    return mapArgumentsIntoFrame(arguments, argumentValues, signature);
+  }
+
   @SuppressWarnings({"unchecked"})
   public static Value[] argumentsForUserCall(Arguments arguments, Value[] argumentValues, FunctionSignature signature) {
 
@@ -805,10 +879,9 @@ public class Interpreter {
     return args;
   }
 
-  @SuppressWarnings("unchecked")
-  private static ConstShapeMap<Cell> mapArgumentsIntoCellMap(List<Value> arguments, FunctionSignature parameters) {
+  private static Value[] mapArgumentsIntoFrame(List<Value> arguments, FunctionSignature parameters) {
 
-    ConstShapeMap<Cell> args = new ConstShapeMap<>(parameters.getParameterShapeMap());
+    Value[] args = new Value[parameters.getParameterArray().length];
     List<FunctionParameter> parameterList = parameters.getParameterList();
 
     int argumentsSize = arguments.size();
@@ -821,7 +894,7 @@ public class Interpreter {
       if (argumentsSize == 1) {
         Value argument = arguments.get(0);
         FunctionParameter parameter = parameterList.get(0);
-        args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, parameter, argument)));
+        args[parameter.getIndex()] = castArgumentValue(null, parameter, argument);
         return args;
       }
 
@@ -829,11 +902,11 @@ public class Interpreter {
       if (argumentsSize == 2) {
         Value a1 = arguments.get(0);
         FunctionParameter p1 = parameterList.get(0);
-        args.seta(p1.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p1, a1)));
+        args[p1.getIndex()] = castArgumentValue(null, p1, a1);
 
         Value a2 = arguments.get(1);
         FunctionParameter p2 = parameterList.get(1);
-        args.seta(p2.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p2, a2)));
+        args[p2.getIndex()] = castArgumentValue(null, p2, a2);
         return args;
       }
 
@@ -841,15 +914,15 @@ public class Interpreter {
       if (argumentsSize == 3) {
         Value a1 = arguments.get(0);
         FunctionParameter p1 = parameterList.get(0);
-        args.seta(p1.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p1, a1)));
+        args[p1.getIndex()] = castArgumentValue(null, p1, a1);
 
         Value a2 = arguments.get(1);
         FunctionParameter p2 = parameterList.get(1);
-        args.seta(p2.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p2, a2)));
+        args[p2.getIndex()] = castArgumentValue(null, p2, a2);
 
         Value a3 = arguments.get(2);
         FunctionParameter p3 = parameterList.get(2);
-        args.seta(p3.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p3, a3)));
+        args[p3.getIndex()] = castArgumentValue(null, p3, a3);
         return args;
       }
 
@@ -868,7 +941,7 @@ public class Interpreter {
 
       for (int a = argumentsSize; a < paramsSize; a++) {
         FunctionParameter param = parameterList.get(a);
-        args.seta(param.getShapeAccessor(), new Cell().setValue(param.getDefaultValue()));
+        args[param.getIndex()] = param.getDefaultValue();
       }
 
     }
@@ -877,7 +950,7 @@ public class Interpreter {
     for (int index = 0; index < argumentsSize; index++) {
       Value argument = arguments.get(index);
       FunctionParameter parameter = parameterList.get(index);
-      args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, parameter, argument)));
+      args[parameter.getIndex()] = castArgumentValue(null, parameter, argument);
     }
 
     return args;
@@ -921,10 +994,9 @@ public class Interpreter {
     return args;
   }
 
-  @SuppressWarnings("unchecked")
-  private static ConstShapeMap<Cell> mapArguments1IntoCellMap(Value arg1, FunctionSignature signature) {
+  private static Value[] mapArguments1IntoFrame(Value arg1, FunctionSignature signature) {
 
-    ConstShapeMap<Cell> args = new ConstShapeMap<>(signature.getParameterShapeMap());
+    Value[] args = new Value[signature.getParameterArray().length];
     FunctionParameter[] parameterArray = signature.getParameterArray();
 
     int paramsSize = parameterArray.length;
@@ -932,7 +1004,7 @@ public class Interpreter {
     // short circuit full argument list
     if (paramsSize == 1) {
       FunctionParameter parameter = parameterArray[0];
-      args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, parameter, arg1)));
+      args[parameter.getIndex()] = castArgumentValue(null, parameter, arg1);
       return args;
     }
 
@@ -948,13 +1020,13 @@ public class Interpreter {
 
     for (int a = 1; a < paramsSize; a++) {
       FunctionParameter param = parameterArray[a];
-      args.seta(param.getShapeAccessor(), new Cell().setValue(param.getDefaultValue()));
+      args[param.getIndex()] = param.getDefaultValue();
     }
 
 
     // arg given is cast
     FunctionParameter parameter = parameterArray[0];
-    args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, parameter, arg1)));
+    args[parameter.getIndex()] = castArgumentValue(null, parameter, arg1);
 
     return args;
   }
@@ -1006,10 +1078,9 @@ public class Interpreter {
     return args;
   }
 
-  @SuppressWarnings("unchecked")
-  private static ConstShapeMap<Cell> mapArguments2IntoCellMap(Value arg1, Value arg2, FunctionSignature parameters) {
+  private static Value[] mapArguments2IntoFrame(Value arg1, Value arg2, FunctionSignature parameters) {
 
-    ConstShapeMap<Cell> args = new ConstShapeMap<>(parameters.getParameterShapeMap());
+    Value[] args = new Value[parameters.getParameterArray().length];
     List<FunctionParameter> parameterList = parameters.getParameterList();
 
     int paramsSize = parameterList.size();
@@ -1017,10 +1088,10 @@ public class Interpreter {
     // short circuit full argument list
     if (paramsSize == 2) {
       FunctionParameter p1 = parameterList.get(0);
-      args.seta(p1.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p1, arg1)));
+      args[p1.getIndex()] = castArgumentValue(null, p1, arg1);
 
       FunctionParameter p2 = parameterList.get(1);
-      args.seta(p2.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p2, arg2)));
+      args[p2.getIndex()] = castArgumentValue(null, p2, arg2);
       return args;
     }
 
@@ -1036,19 +1107,19 @@ public class Interpreter {
 
     for (int a = 2; a < paramsSize; a++) {
       FunctionParameter param = parameterList.get(a);
-      args.seta(param.getShapeAccessor(), new Cell().setValue(param.getDefaultValue()));
+      args[param.getIndex()] = param.getDefaultValue();
     }
 
 
     // args given are cast
     FunctionParameter parameter = parameterList.get(0);
-    args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, parameter, arg1)));
+    args[parameter.getIndex()] = castArgumentValue(null, parameter, arg1);
 
     FunctionParameter p1 = parameterList.get(0);
-    args.seta(p1.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p1, arg1)));
+    args[p1.getIndex()] = castArgumentValue(null, p1, arg1);
 
     FunctionParameter p2 = parameterList.get(1);
-    args.seta(p2.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p2, arg2)));
+    args[p2.getIndex()] = castArgumentValue(null, p2, arg2);
 
     return args;
   }
@@ -1106,10 +1177,9 @@ public class Interpreter {
     return args;
   }
 
-  @SuppressWarnings("unchecked")
-  private static ConstShapeMap<Cell> mapArguments3IntoCellMap(Value arg1, Value arg2, Value arg3, FunctionSignature parameters) {
+  private static Value[] mapArguments3IntoFrame(Value arg1, Value arg2, Value arg3, FunctionSignature parameters) {
 
-    ConstShapeMap<Cell> args = new ConstShapeMap<>(parameters.getParameterShapeMap());
+    Value[] args = new Value[parameters.getParameterArray().length];
     List<FunctionParameter> parameterList = parameters.getParameterList();
 
     int paramsSize = parameterList.size();
@@ -1117,13 +1187,13 @@ public class Interpreter {
     // short circuit full argument list
     if (paramsSize == 3) {
       FunctionParameter p1 = parameterList.get(0);
-      args.seta(p1.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p1, arg1)));
+      args[p1.getIndex()] = castArgumentValue(null, p1, arg1);
 
       FunctionParameter p2 = parameterList.get(1);
-      args.seta(p2.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p2, arg2)));
+      args[p2.getIndex()] = castArgumentValue(null, p2, arg2);
 
       FunctionParameter p3 = parameterList.get(2);
-      args.seta(p3.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p3, arg3)));
+      args[p3.getIndex()] = castArgumentValue(null, p3, arg3);
       return args;
     }
 
@@ -1139,28 +1209,42 @@ public class Interpreter {
 
     for (int a = 3; a < paramsSize; a++) {
       FunctionParameter param = parameterList.get(a);
-      args.seta(param.getShapeAccessor(), new Cell().setValue(param.getDefaultValue()));
+      args[param.getIndex()] = param.getDefaultValue();
     }
 
 
     // args given are cast
     FunctionParameter parameter = parameterList.get(0);
-    args.seta(parameter.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, parameter, arg1)));
+    args[parameter.getIndex()] = castArgumentValue(null, parameter, arg1);
 
     FunctionParameter p1 = parameterList.get(0);
-    args.seta(p1.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p1, arg1)));
+    args[p1.getIndex()] = castArgumentValue(null, p1, arg1);
 
     FunctionParameter p2 = parameterList.get(1);
-    args.seta(p2.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p2, arg2)));
+    args[p2.getIndex()] = castArgumentValue(null, p2, arg2);
 
     FunctionParameter p3 = parameterList.get(2);
-    args.seta(p3.getShapeAccessor(), new Cell().setValue(castArgumentValue(null, p3, arg3)));
+    args[p3.getIndex()] = castArgumentValue(null, p3, arg3);
 
     return args;
   }
 
   static Value performUserCall(Value callableValue, Value[] args, Stack stack, EvaluationContext context) {
 
+    context.enter();
+    AllocationBudget budget = context.getAllocationBudget();
+    AllocationBudget previous = Allocations.bind(budget);
+    try {
+      return performBoundUserCall(callableValue, args, stack, context);
+    } finally {
+      Allocations.restore(budget, previous);
+      context.exit();
+    }
+
+  }
+
+  private static Value performBoundUserCall(Value callableValue, Value[] args, Stack stack, EvaluationContext context) {
+
     if (callableValue.type() != Types.FUNCTION) {
       throw new LangException(
           LangError.CANNOT_CALL,
@@ -1172,7 +1256,7 @@ public class Interpreter {
     if (function.isStandard()) {
       return evaluateStandardFunctionCall(
           (StandardFunctionValue) function,
-          mapArgumentsIntoCellMap(Arrays.asList(args), function.getSignature()),
+          mapArgumentsIntoFrame(Arrays.asList(args), function.getSignature()),
           stack.peek().getNode(),
           stack,
           context
@@ -24,7 +24,9 @@
 
 package com.twineworks.tweakflow.lang.interpreter;
 
+import com.twineworks.tweakflow.lang.ast.Node;
 import com.twineworks.tweakflow.lang.values.ListValue;
+import com.twineworks.tweakflow.lang.values.StandardFunctionValue;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
@@ -33,6 +35,11 @@ import java.util.stream.Collectors;
 
 public class Stack extends ArrayDeque<StackEntry> {
 
+  // call in tail position waiting to be run by the caller of the returning function
+  private StandardFunctionValue tailCallFunction;
+  private Value[] tailCallArgs;
+  private Node tailCallAt;
+
   public Stack copy(){
     Stack copy = new Stack();
     copy.addAll(this);
@@ -50,4 +57,32 @@ public class Stack extends ArrayDeque<StackEntry> {
     return Values.make(list);
   }
 
+  public void setTailCall(StandardFunctionValue f, Value[] args, Node at){
+    tailCallFunction = f;
+    tailCallArgs = args;
+    tailCallAt = at;
+  }
+
+  public boolean hasTailCall(){
+    return tailCallFunction != null;
+  }
+
+  public StandardFunctionValue getTailCallFunction() {
+    return tailCallFunction;
+  }
+
+  public Value[] getTailCallArgs() {
+    return tailCallArgs;
+  }
+
+  public Node getTailCallAt() {
+    return tailCallAt;
+  }
+
+  public void clearTailCall(){
+    tailCallFunction = null;
+    tailCallArgs = null;
+    tailCallAt = null;
+  }
+
 }
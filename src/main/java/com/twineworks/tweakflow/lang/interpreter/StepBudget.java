@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// steps an evaluation context and its forks may take, granted to them in slices
+final class StepBudget {
+
+  private final long limit;
+  private final AtomicLong granted = new AtomicLong();
+
+  StepBudget(long limit) {
+    this.limit = limit;
+  }
+
+  long getLimit() {
+    return limit;
+  }
+
+  long getGranted() {
+    return granted.get();
+  }
+
+  // grants up to max steps, 0 if the budget is exhausted
+  long grant(long max) {
+    while (true) {
+      long g = granted.get();
+      long remaining = limit - g;
+      if (remaining <= 0) return 0;
+      // leave steps for concurrently evaluating forks as the budget runs low
+      long slice = Math.min(max, Math.max(1, remaining / 8));
+      if (granted.compareAndSet(g, g + slice)) return slice;
+    }
+  }
+
+  // returns granted steps that were not taken
+  void giveBack(long steps) {
+    granted.addAndGet(-steps);
+  }
+
+}
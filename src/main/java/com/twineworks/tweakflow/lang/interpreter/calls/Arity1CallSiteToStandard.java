@@ -24,16 +24,14 @@
 
 package com.twineworks.tweakflow.lang.interpreter.calls;
 
-import com.twineworks.collections.shapemap.ConstShapeMap;
 import com.twineworks.tweakflow.lang.ast.Node;
 import com.twineworks.tweakflow.lang.types.Type;
 import com.twineworks.tweakflow.lang.values.*;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
 import com.twineworks.tweakflow.lang.interpreter.StackEntry;
-import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
-import com.twineworks.tweakflow.lang.interpreter.memory.LocalMemorySpace;
-import com.twineworks.tweakflow.lang.interpreter.memory.MemorySpaceType;
+import com.twineworks.tweakflow.lang.interpreter.memory.FrameMemorySpace;
 import com.twineworks.tweakflow.lang.interpreter.ops.ExpressionOp;
 
 public class Arity1CallSiteToStandard implements Arity1CallSite {
@@ -43,16 +41,12 @@ public class Arity1CallSiteToStandard implements Arity1CallSite {
   private final Stack stack;
   private final EvaluationContext context;
   private final ExpressionOp op;
-  private final ConstShapeMap<Cell> argsFrame;
 
-  private final ConstShapeMap.Accessor<Cell> p0a;
-  private final FunctionParameter p0;
   private final Type p0Type;
 
-  private final LocalMemorySpace argSpace;
+  private final FrameMemorySpace argSpace;
   private final StackEntry stackEntry;
 
-  @SuppressWarnings("unchecked")
   public Arity1CallSiteToStandard(StandardFunctionValue f, Node at, Stack stack, EvaluationContext context) {
     this.f = f;
     this.signature = f.getSignature();
@@ -61,22 +55,19 @@ public class Arity1CallSiteToStandard implements Arity1CallSite {
     this.op = f.getBody().getOp();
 
     // fill args frame with default values
-    this.argsFrame = new ConstShapeMap<>(signature.getParameterShapeMap());
     FunctionParameter[] parameterArray = signature.getParameterArray();
-    int paramsSize = parameterArray.length;
+    Value[] argsFrame = new Value[parameterArray.length];
 
     for (FunctionParameter param : parameterArray) {
-      argsFrame.seta(param.getShapeAccessor(), new Cell().setValue(param.getDefaultValue()));
+      argsFrame[param.getIndex()] = param.getDefaultValue();
     }
 
-    p0 = parameterArray[0];
-    p0a = p0.getShapeAccessor();
-    p0Type = p0.getDeclaredType();
+    p0Type = parameterArray[0].getDeclaredType();
 
-    argSpace = new LocalMemorySpace(
+    argSpace = new FrameMemorySpace(
         stack.peek().getSpace(),
         f.getBody().getScope(),
-        MemorySpaceType.CALL_ARGUMENTS,
+        signature,
         argsFrame
     );
 
@@ -84,15 +75,27 @@ public class Arity1CallSiteToStandard implements Arity1CallSite {
 
   }
 
-
   @Override
   public Value call(Value arg0) {
 
-    argsFrame.geta(p0a).setValue(arg0.castTo(p0Type));
+    argSpace.set(0, arg0.castTo(p0Type));
+
+    // call sites may be called directly by host code
+    context.enter();
+    AllocationBudget budget = context.getAllocationBudget();
+    AllocationBudget previous = Allocations.bind(budget);
+    Value retValue;
+    try {
+      context.step();
+      stack.push(stackEntry);
+      retValue = op.eval(stack, context);
+      stack.pop();
+      if (stack.hasTailCall()) retValue = Interpreter.evaluateTailCalls(stack, context);
+    } finally {
+      Allocations.restore(budget, previous);
+      context.exit();
+    }
 
-    stack.push(stackEntry);
-    Value retValue = op.eval(stack, context);
-    stack.pop();
     return retValue;
   }
 }
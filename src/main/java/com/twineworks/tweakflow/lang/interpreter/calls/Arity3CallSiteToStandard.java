@@ -24,16 +24,14 @@
 
 package com.twineworks.tweakflow.lang.interpreter.calls;
 
-import com.twineworks.collections.shapemap.ConstShapeMap;
 import com.twineworks.tweakflow.lang.ast.Node;
 import com.twineworks.tweakflow.lang.types.Type;
 import com.twineworks.tweakflow.lang.values.*;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
 import com.twineworks.tweakflow.lang.interpreter.StackEntry;
-import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
-import com.twineworks.tweakflow.lang.interpreter.memory.LocalMemorySpace;
-import com.twineworks.tweakflow.lang.interpreter.memory.MemorySpaceType;
+import com.twineworks.tweakflow.lang.interpreter.memory.FrameMemorySpace;
 import com.twineworks.tweakflow.lang.interpreter.ops.ExpressionOp;
 
 public class Arity3CallSiteToStandard implements Arity3CallSite {
@@ -43,22 +41,14 @@ public class Arity3CallSiteToStandard implements Arity3CallSite {
   private final Stack stack;
   private final EvaluationContext context;
   private final ExpressionOp op;
-  private final ConstShapeMap<Cell> argsFrame;
-
-  private final ConstShapeMap.Accessor<Cell> p0a;
-  private final FunctionParameter p0;
-  private final ConstShapeMap.Accessor<Cell> p1a;
-  private final FunctionParameter p1;
-  private final ConstShapeMap.Accessor<Cell> p2a;
-  private final FunctionParameter p2;
-  private final LocalMemorySpace argSpace;
-  private final StackEntry stackEntry;
 
   private final Type p0Type;
   private final Type p1Type;
   private final Type p2Type;
 
-  @SuppressWarnings("unchecked")
+  private final FrameMemorySpace argSpace;
+  private final StackEntry stackEntry;
+
   public Arity3CallSiteToStandard(StandardFunctionValue f, Node at, Stack stack, EvaluationContext context) {
     this.f = f;
     this.signature = f.getSignature();
@@ -67,30 +57,21 @@ public class Arity3CallSiteToStandard implements Arity3CallSite {
     this.op = f.getBody().getOp();
 
     // fill args frame with default values
-    this.argsFrame = new ConstShapeMap<>(signature.getParameterShapeMap());
     FunctionParameter[] parameterArray = signature.getParameterArray();
-    int paramsSize = parameterArray.length;
+    Value[] argsFrame = new Value[parameterArray.length];
 
     for (FunctionParameter param : parameterArray) {
-      argsFrame.seta(param.getShapeAccessor(), new Cell().setValue(param.getDefaultValue()));
+      argsFrame[param.getIndex()] = param.getDefaultValue();
     }
 
-    p0 = parameterArray[0];
-    p0a = p0.getShapeAccessor();
-    p0Type = p0.getDeclaredType();
+    p0Type = parameterArray[0].getDeclaredType();
+    p1Type = parameterArray[1].getDeclaredType();
+    p2Type = parameterArray[2].getDeclaredType();
 
-    p1 = parameterArray[1];
-    p1a = p1.getShapeAccessor();
-    p1Type = p1.getDeclaredType();
-
-    p2 = parameterArray[2];
-    p2a = p2.getShapeAccessor();
-    p2Type = p2.getDeclaredType();
-
-    argSpace = new LocalMemorySpace(
+    argSpace = new FrameMemorySpace(
         stack.peek().getSpace(),
         f.getBody().getScope(),
-        MemorySpaceType.CALL_ARGUMENTS,
+        signature,
         argsFrame
     );
 
@@ -101,13 +82,26 @@ public class Arity3CallSiteToStandard implements Arity3CallSite {
   @Override
   public Value call(Value arg0, Value arg1, Value arg2) {
 
-    argsFrame.geta(p0a).setValue(arg0.castTo(p0Type));
-    argsFrame.geta(p1a).setValue(arg1.castTo(p1Type));
-    argsFrame.geta(p2a).setValue(arg2.castTo(p2Type));
+    argSpace.set(0, arg0.castTo(p0Type));
+    argSpace.set(1, arg1.castTo(p1Type));
+    argSpace.set(2, arg2.castTo(p2Type));
+
+    // call sites may be called directly by host code
+    context.enter();
+    AllocationBudget budget = context.getAllocationBudget();
+    AllocationBudget previous = Allocations.bind(budget);
+    Value retValue;
+    try {
+      context.step();
+      stack.push(stackEntry);
+      retValue = op.eval(stack, context);
+      stack.pop();
+      if (stack.hasTailCall()) retValue = Interpreter.evaluateTailCalls(stack, context);
+    } finally {
+      Allocations.restore(budget, previous);
+      context.exit();
+    }
 
-    stack.push(stackEntry);
-    Value retValue = op.eval(stack, context);
-    stack.pop();
     return retValue;
   }
 }
@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.calls;
+
+import com.twineworks.tweakflow.lang.ast.Node;
+import com.twineworks.tweakflow.lang.ast.args.ArgumentNode;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.values.FunctionValue;
+import com.twineworks.tweakflow.lang.values.StandardFunctionValue;
+import com.twineworks.tweakflow.lang.values.UserFunctionValue;
+import com.twineworks.tweakflow.lang.values.Value;
+
+/**
+ * A call path prepared for a given callee and number of positional arguments.
+ * Call ops keep a few of these in an inline cache, so calls through dynamic
+ * callees do not re-resolve function kind and argument layout on every call.
+ * Instances are immutable and can be shared between threads.
+ */
+public abstract class CachedCallTarget {
+
+  // arguments are the positional argument nodes of the call site, cast errors point at them
+  public static CachedCallTarget create(FunctionValue f, ArgumentNode[] arguments){
+
+    // callers with too many arguments take the regular path, which reports the error
+    if (arguments.length > f.getSignature().getParameterArray().length) return null;
+
+    if (f.isStandard()){
+      return new CachedStandardCallTarget((StandardFunctionValue) f, arguments);
+    }
+    else {
+      return new CachedUserCallTarget((UserFunctionValue) f, arguments);
+    }
+  }
+
+  public abstract boolean matches(FunctionValue f);
+
+  public abstract Value call(FunctionValue f, Value[] args, Node at, Stack stack, EvaluationContext context);
+
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.calls;
+
+import com.twineworks.tweakflow.lang.scope.Scope;
+import com.twineworks.tweakflow.lang.ast.Node;
+import com.twineworks.tweakflow.lang.ast.args.ArgumentNode;
+import com.twineworks.tweakflow.lang.ast.expressions.ExpressionNode;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.StackEntry;
+import com.twineworks.tweakflow.lang.interpreter.memory.FrameMemorySpace;
+import com.twineworks.tweakflow.lang.types.Type;
+import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.*;
+
+public class CachedStandardCallTarget extends CachedCallTarget {
+
+  // all closures of a function node share body, signature and argument layout
+  private final ExpressionNode body;
+  private final Scope scope;
+  private final FunctionSignature signature;
+
+  private final ArgumentNode[] arguments;
+  private final int[] argIndexes;
+  private final Type[] argTypes;
+  private final Value[] defaultFrame;
+
+  CachedStandardCallTarget(StandardFunctionValue f, ArgumentNode[] arguments) {
+
+    body = f.getBody();
+    scope = body.getScope();
+    signature = f.getSignature();
+
+    FunctionParameter[] parameterArray = signature.getParameterArray();
+    defaultFrame = new Value[parameterArray.length];
+    for (FunctionParameter param : parameterArray) {
+      defaultFrame[param.getIndex()] = param.getDefaultValue();
+    }
+
+    this.arguments = arguments;
+    int argCount = arguments.length;
+    argIndexes = new int[argCount];
+    argTypes = new Type[argCount];
+    for (int i = 0; i < argCount; i++) {
+      FunctionParameter param = signature.getParameterList().get(i);
+      argIndexes[i] = param.getIndex();
+      argTypes[i] = param.getDeclaredType();
+    }
+
+  }
+
+  @Override
+  public boolean matches(FunctionValue f) {
+    return f.isStandard() && ((StandardFunctionValue) f).getBody() == body;
+  }
+
+  public Value[] frame(Value[] args) {
+
+    Value[] frame = defaultFrame.clone();
+    for (int i = 0; i < argIndexes.length; i++) {
+      Value arg = args[i];
+      Type argType = argTypes[i];
+      if (arg != Values.NIL && argType != Types.ANY && arg.type() != argType){
+        arg = Interpreter.castArgumentValue(arguments[i], argType, arg);
+      }
+      frame[argIndexes[i]] = arg;
+    }
+    return frame;
+  }
+
+  @Override
+  public Value call(FunctionValue f, Value[] args, Node at, Stack stack, EvaluationContext context) {
+
+    Value[] frame = frame(args);
+    FrameMemorySpace argSpace = new FrameMemorySpace(stack.peek().getSpace(), scope, signature, frame);
+    context.step();
+
+    stack.push(new StackEntry(at, argSpace, ((StandardFunctionValue) f).getClosures()));
+    Value retValue = body.getOp().eval(stack, context);
+    stack.pop();
+
+    if (stack.hasTailCall()) retValue = Interpreter.evaluateTailCalls(stack, context);
+
+    return retValue;
+  }
+
+}
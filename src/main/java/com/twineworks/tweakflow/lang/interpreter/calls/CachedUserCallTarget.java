@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.calls;
+
+import com.twineworks.tweakflow.lang.ast.Node;
+import com.twineworks.tweakflow.lang.ast.args.ArgumentNode;
+import com.twineworks.tweakflow.lang.interpreter.CallContext;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.StackEntry;
+import com.twineworks.tweakflow.lang.interpreter.memory.LocalMemorySpace;
+import com.twineworks.tweakflow.lang.types.Type;
+import com.twineworks.tweakflow.lang.values.*;
+
+import java.util.Collections;
+
+public class CachedUserCallTarget extends CachedCallTarget {
+
+  private final UserFunctionValue function;
+  private final UserFunction f;
+  private final Type[] paramTypes;
+  private final Value[] defaultArgs;
+  private final Type retType;
+  private final ArgumentNode[] arguments;
+  private final int argCount;
+
+  CachedUserCallTarget(UserFunctionValue function, ArgumentNode[] arguments) {
+
+    this.function = function;
+    this.f = function.getUserFunction();
+    this.arguments = arguments;
+    this.argCount = arguments.length;
+
+    FunctionParameter[] params = function.getSignature().getParameterArray();
+    paramTypes = new Type[params.length];
+    defaultArgs = new Value[params.length];
+    for (int i = 0; i < params.length; i++) {
+      paramTypes[i] = params[i].getDeclaredType();
+      defaultArgs[i] = params[i].getDefaultValue();
+    }
+
+    retType = function.getSignature().getReturnType();
+
+  }
+
+  @Override
+  public boolean matches(FunctionValue f) {
+    return f == function;
+  }
+
+  @Override
+  public Value call(FunctionValue fv, Value[] args, Node at, Stack stack, EvaluationContext context) {
+
+    Value[] callArgs;
+    if (argCount == defaultArgs.length){
+      callArgs = args;
+    }
+    else {
+      callArgs = defaultArgs.clone();
+    }
+
+    for (int i = 0; i < argCount; i++) {
+      callArgs[i] = Interpreter.castArgumentValue(arguments[i], paramTypes[i], args[i]);
+    }
+
+    context.step();
+
+    stack.push(new StackEntry(at, LocalMemorySpace.EMPTY, Collections.emptyMap()));
+    CallContext userCallContext = new CallContext(stack, context);
+
+    Value retValue;
+    switch (callArgs.length) {
+      case 0:
+        retValue = ((Arity0UserFunction) f).call(userCallContext).castTo(retType);
+        break;
+      case 1:
+        retValue = ((Arity1UserFunction) f).call(userCallContext, callArgs[0]).castTo(retType);
+        break;
+      case 2:
+        retValue = ((Arity2UserFunction) f).call(userCallContext, callArgs[0], callArgs[1]).castTo(retType);
+        break;
+      case 3:
+        retValue = ((Arity3UserFunction) f).call(userCallContext, callArgs[0], callArgs[1], callArgs[2]).castTo(retType);
+        break;
+      case 4:
+        retValue = ((Arity4UserFunction) f).call(userCallContext, callArgs[0], callArgs[1], callArgs[2], callArgs[3]).castTo(retType);
+        break;
+      default:
+        retValue = ((ArityNUserFunction) f).callVariadic(userCallContext, callArgs).castTo(retType);
+    }
+    stack.pop();
+    return retValue;
+
+  }
+
+}
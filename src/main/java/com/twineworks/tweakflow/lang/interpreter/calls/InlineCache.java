@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.calls;
+
+import com.twineworks.tweakflow.lang.ast.args.ArgumentNode;
+import com.twineworks.tweakflow.lang.values.FunctionValue;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inline cache of a call site with positional arguments. Remembers the
+ * prepared call paths of the first few callees seen. Call sites seeing more
+ * callees than that are megamorphic, and their callers use the regular call path.
+ */
+public final class InlineCache {
+
+  private static final int MAX_TARGETS = 4;
+  private static final CachedCallTarget[] NO_TARGETS = new CachedCallTarget[0];
+
+  private final ArgumentNode[] arguments;
+  private volatile CachedCallTarget[] targets = NO_TARGETS;
+
+  public InlineCache(List<ArgumentNode> arguments) {
+    this.arguments = arguments.toArray(new ArgumentNode[0]);
+  }
+
+  public CachedCallTarget lookup(FunctionValue f) {
+
+    CachedCallTarget[] current = targets;
+    for (CachedCallTarget target : current) {
+      if (target.matches(f)) return target;
+    }
+
+    if (current.length == MAX_TARGETS) return null;
+
+    CachedCallTarget target = CachedCallTarget.create(f, arguments);
+    if (target == null) return null;
+
+    // racing threads may drop each other's entries, which only costs a later re-lookup
+    CachedCallTarget[] updated = Arrays.copyOf(current, current.length + 1);
+    updated[current.length] = target;
+    targets = updated;
+    return target;
+  }
+
+  public int size() {
+    return targets.length;
+  }
+
+}
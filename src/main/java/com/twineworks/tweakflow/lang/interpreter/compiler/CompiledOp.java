@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.compiler;
+
+import com.twineworks.tweakflow.lang.interpreter.ops.ExpressionOp;
+
+/**
+ * Base class of ops generated by {@link OpCompiler}.
+ * <p>
+ * Generated subclasses implement <code>eval</code>. Any part of the op tree the compiler
+ * does not translate is kept in <code>ops</code> and evaluated by the interpreter.
+ */
+public abstract class CompiledOp implements ExpressionOp {
+
+  protected final ExpressionOp source;
+  protected final ExpressionOp[] ops;
+  protected final Object[] constants;
+
+  protected CompiledOp(ExpressionOp source, ExpressionOp[] ops, Object[] constants) {
+    this.source = source;
+    this.ops = ops;
+    this.constants = constants;
+  }
+
+  public ExpressionOp getSource() {
+    return source;
+  }
+
+  @Override
+  public boolean isConstant() {
+    return source.isConstant();
+  }
+
+  @Override
+  public ExpressionOp specialize() {
+    return this;
+  }
+
+  @Override
+  public ExpressionOp refresh() {
+    return source.refresh();
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.compiler;
+
+import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+
+/**
+ * Static implementations of op semantics, invoked from compiled ops.
+ * Each method mirrors the eval method of the op it replaces.
+ */
+public final class Kernels {
+
+  private Kernels(){}
+
+  // arithmetic, longs
+
+  public static Value plusLL(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.longNum() + right.longNum());
+  }
+
+  public static Value minusLL(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.longNum() - right.longNum());
+  }
+
+  public static Value multLL(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.longNum() * right.longNum());
+  }
+
+  public static Value divLL(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.longNum().doubleValue() / right.longNum().doubleValue());
+  }
+
+  // arithmetic, doubles
+
+  public static Value plusDD(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.doubleNum() + right.doubleNum());
+  }
+
+  public static Value minusDD(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.doubleNum() - right.doubleNum());
+  }
+
+  public static Value multDD(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.doubleNum() * right.doubleNum());
+  }
+
+  public static Value divDD(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.NIL;
+    return Values.make(left.doubleNum() / right.doubleNum());
+  }
+
+  // comparisons, longs
+
+  public static Value lessThanLL(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.FALSE;
+    return (left.longNum() < right.longNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  public static Value greaterThanLL(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.FALSE;
+    return (left.longNum() > right.longNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  public static Value lessThanOrEqualLL(Value left, Value right) {
+    if (left == Values.NIL) return right == Values.NIL ? Values.TRUE : Values.FALSE;
+    if (right == Values.NIL) return Values.FALSE;
+    return (left.longNum() <= right.longNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  public static Value greaterThanOrEqualLL(Value left, Value right) {
+    if (left == Values.NIL) return right == Values.NIL ? Values.TRUE : Values.FALSE;
+    if (right == Values.NIL) return Values.FALSE;
+    return (left.longNum() >= right.longNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  // comparisons, doubles
+
+  public static Value lessThanDD(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.FALSE;
+    return (left.doubleNum() < right.doubleNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  public static Value greaterThanDD(Value left, Value right) {
+    if (left == Values.NIL || right == Values.NIL) return Values.FALSE;
+    return (left.doubleNum() > right.doubleNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  public static Value lessThanOrEqualDD(Value left, Value right) {
+    if (left == Values.NIL) return right == Values.NIL ? Values.TRUE : Values.FALSE;
+    if (right == Values.NIL) return Values.FALSE;
+    return (left.doubleNum() <= right.doubleNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  public static Value greaterThanOrEqualDD(Value left, Value right) {
+    if (left == Values.NIL) return right == Values.NIL ? Values.TRUE : Values.FALSE;
+    if (right == Values.NIL) return Values.FALSE;
+    return (left.doubleNum() >= right.doubleNum()) ? Values.TRUE : Values.FALSE;
+  }
+
+  // logic
+
+  public static boolean isTrue(Value condition) {
+    return condition != Values.NIL && condition.bool();
+  }
+
+  public static boolean isNotFalse(Value value) {
+    Value b = value.castTo(Types.BOOLEAN);
+    return b != Values.FALSE && b != Values.NIL;
+  }
+
+  public static boolean isTrueBoolean(Value value) {
+    return value.castTo(Types.BOOLEAN) == Values.TRUE;
+  }
+
+  public static Value not(Value value) {
+    Value b = value.castTo(Types.BOOLEAN);
+    return (b == Values.FALSE || b == Values.NIL) ? Values.TRUE : Values.FALSE;
+  }
+
+}
@@ -0,0 +1,427 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.compiler;
+
+import com.twineworks.tweakflow.lang.ast.Node;
+import com.twineworks.tweakflow.lang.ast.expressions.*;
+import com.twineworks.tweakflow.lang.interpreter.DebugHandler;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.ops.*;
+import com.twineworks.tweakflow.lang.types.Type;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Translates op trees into generated JVM classes.
+ * <p>
+ * Every supported op becomes a private method of the generated class, so nested ops call each
+ * other through statically bound invocations instead of megamorphic <code>eval</code> call sites.
+ * Unsupported ops are kept as they are and invoked from the generated code.
+ * <p>
+ * Compilable expressions below unsupported ops are compiled on their own, and the unsupported
+ * ops above them are rebuilt to evaluate the compiled ops. Nested function bodies are left
+ * alone, they are compiled once they get hot themselves.
+ */
+public final class OpCompiler {
+
+  private static final AtomicLong classCounter = new AtomicLong();
+
+  private static final String OP = org.objectweb.asm.Type.getInternalName(ExpressionOp.class);
+  private static final String COMPILED_OP = org.objectweb.asm.Type.getInternalName(CompiledOp.class);
+  private static final String KERNELS = org.objectweb.asm.Type.getInternalName(Kernels.class);
+  private static final String VALUE = org.objectweb.asm.Type.getInternalName(Value.class);
+  private static final String VALUES = org.objectweb.asm.Type.getInternalName(Values.class);
+  private static final String TYPE = org.objectweb.asm.Type.getInternalName(Type.class);
+
+  private static final String VALUE_DESC = org.objectweb.asm.Type.getDescriptor(Value.class);
+  private static final String EVAL_DESC = "(" + org.objectweb.asm.Type.getDescriptor(Stack.class) + org.objectweb.asm.Type.getDescriptor(EvaluationContext.class) + ")" + VALUE_DESC;
+  private static final String BINARY_KERNEL_DESC = "(" + VALUE_DESC + VALUE_DESC + ")" + VALUE_DESC;
+  private static final String UNARY_KERNEL_DESC = "(" + VALUE_DESC + ")" + VALUE_DESC;
+  private static final String TEST_KERNEL_DESC = "(" + VALUE_DESC + ")Z";
+  private static final String INIT_DESC = "(" + org.objectweb.asm.Type.getDescriptor(ExpressionOp.class) + org.objectweb.asm.Type.getDescriptor(ExpressionOp[].class) + org.objectweb.asm.Type.getDescriptor(Object[].class) + ")V";
+
+  private static final class BinaryKernel {
+
+    private final String name;
+    // result when left operand is nil, in which case the right operand is not evaluated
+    private final String leftNilResult;
+
+    private BinaryKernel(String name, String leftNilResult) {
+      this.name = name;
+      this.leftNilResult = leftNilResult;
+    }
+  }
+
+  private static final Map<Class<? extends ExpressionOp>, BinaryKernel> binaryKernels = new HashMap<>();
+
+  static {
+    binaryKernels.put(PlusOpLL.class, new BinaryKernel("plusLL", "NIL"));
+    binaryKernels.put(PlusOpLCL.class, new BinaryKernel("plusLL", "NIL"));
+    binaryKernels.put(MinusOpLL.class, new BinaryKernel("minusLL", "NIL"));
+    binaryKernels.put(MinusOpLCL.class, new BinaryKernel("minusLL", "NIL"));
+    binaryKernels.put(MultOpLL.class, new BinaryKernel("multLL", "NIL"));
+    binaryKernels.put(DivOpLL.class, new BinaryKernel("divLL", "NIL"));
+
+    binaryKernels.put(PlusOpDD.class, new BinaryKernel("plusDD", "NIL"));
+    binaryKernels.put(MinusOpDD.class, new BinaryKernel("minusDD", "NIL"));
+    binaryKernels.put(MultOpDD.class, new BinaryKernel("multDD", "NIL"));
+    binaryKernels.put(DivOpDD.class, new BinaryKernel("divDD", "NIL"));
+
+    binaryKernels.put(LessThanOpLL.class, new BinaryKernel("lessThanLL", "FALSE"));
+    binaryKernels.put(GreaterThanOpLL.class, new BinaryKernel("greaterThanLL", "FALSE"));
+    binaryKernels.put(LessThanOrEqualOpLL.class, new BinaryKernel("lessThanOrEqualLL", null));
+    binaryKernels.put(GreaterThanOrEqualOpLL.class, new BinaryKernel("greaterThanOrEqualLL", null));
+
+    binaryKernels.put(LessThanOpDD.class, new BinaryKernel("lessThanDD", "FALSE"));
+    binaryKernels.put(GreaterThanOpDD.class, new BinaryKernel("greaterThanDD", "FALSE"));
+    binaryKernels.put(LessThanOrEqualOpDD.class, new BinaryKernel("lessThanOrEqualDD", null));
+    binaryKernels.put(GreaterThanOrEqualOpDD.class, new BinaryKernel("greaterThanOrEqualDD", null));
+  }
+
+  private final String className;
+  private final DebugHandler debugHandler;
+  private final ClassWriter cw;
+  private final ArrayList<ExpressionOp> ops = new ArrayList<>();
+  private final ArrayList<Object> constants = new ArrayList<>();
+  private int methodCount = 0;
+
+  private OpCompiler(String className, DebugHandler debugHandler) {
+    this.className = className;
+    this.debugHandler = debugHandler;
+    // all locals of generated methods hold exactly one type at branch targets,
+    // so frames never need the common super class of two generated types
+    this.cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+      @Override
+      protected String getCommonSuperClass(String type1, String type2) {
+        return "java/lang/Object";
+      }
+    };
+  }
+
+  /**
+   * Compiles the op of given node. If the op cannot be translated, compilable expressions below it
+   * are, and a rebuilt op evaluating them is returned. Returns null if the op tree contains nothing
+   * the compiler can translate, or compilation fails. Failures are reported to the debug handler.
+   * The caller keeps using the given op in that case.
+   */
+  public static ExpressionOp compile(ExpressionNode node, ExpressionOp op, DebugHandler debugHandler) {
+
+    if (isCompilable(node, op)) return compileTree(node, op, debugHandler);
+    if (compileSubtrees(node, debugHandler)) return op.refresh();
+    return null;
+
+  }
+
+  private static ExpressionOp compileTree(ExpressionNode node, ExpressionOp op, DebugHandler debugHandler) {
+
+    try {
+      String packageName = CompiledOp.class.getPackage().getName();
+      String name = packageName + ".Compiled$" + classCounter.incrementAndGet();
+      OpCompiler compiler = new OpCompiler(name.replace('.', '/'), debugHandler);
+      byte[] bytes = compiler.generate(node, op);
+
+      Class<?> clazz = new OpClassLoader(CompiledOp.class.getClassLoader()).define(name, bytes);
+      Constructor<?> constructor = clazz.getConstructor(ExpressionOp.class, ExpressionOp[].class, Object[].class);
+      return (ExpressionOp) constructor.newInstance(
+          op,
+          compiler.ops.toArray(new ExpressionOp[0]),
+          compiler.constants.toArray()
+      );
+    } catch (Exception | LinkageError e) {
+      debugHandler.debug(Values.make("could not compile expression at " + node.getSourceInfo() + ": " + e));
+      return null;
+    }
+
+  }
+
+  // compiles the topmost compilable expressions below given node, and rebuilds the ops on the
+  // way down to them, returns true if any op below the node changed
+  private static boolean compileSubtrees(Node node, DebugHandler debugHandler) {
+
+    boolean changed = false;
+    for (Node child : node.getChildren()) {
+      if (child instanceof ExpressionNode) {
+        if (compileExpression((ExpressionNode) child, debugHandler)) changed = true;
+      } else if (compileSubtrees(child, debugHandler)) {
+        changed = true;
+      }
+    }
+
+    return changed;
+  }
+
+  // returns true if the op of given node changed
+  private static boolean compileExpression(ExpressionNode node, DebugHandler debugHandler) {
+
+    // function bodies are compiled separately once hot
+    if (node instanceof FunctionNode) return false;
+
+    ExpressionOp op = node.getOp();
+    if (op == null || op.isConstant() || op instanceof CompiledOp || op instanceof TieredOp) return false;
+
+    // specialized casts that do not need to cast anything use the op of their expression
+    if (node instanceof CastNode && !(op instanceof CastOp)) {
+      ExpressionNode exp = ((CastNode) node).getExpression();
+      if (exp.getOp() != op || !compileExpression(exp, debugHandler)) return false;
+      node.setOp(exp.getOp());
+      return true;
+    }
+
+    if (isCompilable(node, op)) {
+      ExpressionOp compiled = compileTree(node, op, debugHandler);
+      if (compiled == null) return false;
+      node.setOp(compiled);
+      return true;
+    }
+
+    if (!compileSubtrees(node, debugHandler)) return false;
+    node.setOp(op.refresh());
+    return true;
+  }
+
+  private static boolean isCompilable(ExpressionNode node, ExpressionOp op) {
+    if (op instanceof CastOp) return node instanceof CastNode;
+    if (binaryKernels.containsKey(op.getClass())) return isBinaryNode(node);
+    if (op instanceof IfOp) return node instanceof IfNode;
+    if (op instanceof AndOp) return node instanceof AndNode;
+    if (op instanceof OrOp) return node instanceof OrNode;
+    if (op instanceof NotOp) return node instanceof NotNode;
+    return false;
+  }
+
+  private static boolean isBinaryNode(ExpressionNode node) {
+    return node instanceof PlusNode
+        || node instanceof MinusNode
+        || node instanceof MultNode
+        || node instanceof DivNode
+        || node instanceof LessThanNode
+        || node instanceof LessThanOrEqualNode
+        || node instanceof GreaterThanNode
+        || node instanceof GreaterThanOrEqualNode;
+  }
+
+  private byte[] generate(ExpressionNode node, ExpressionOp op) {
+
+    cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, COMPILED_OP, null);
+
+    // constructor delegates to super
+    MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", INIT_DESC, null, null);
+    init.visitCode();
+    init.visitVarInsn(ALOAD, 0);
+    init.visitVarInsn(ALOAD, 1);
+    init.visitVarInsn(ALOAD, 2);
+    init.visitVarInsn(ALOAD, 3);
+    init.visitMethodInsn(INVOKESPECIAL, COMPILED_OP, "<init>", INIT_DESC, false);
+    init.visitInsn(RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    // eval delegates to root method
+    String root = compileMethod(node, op);
+    MethodVisitor eval = cw.visitMethod(ACC_PUBLIC | ACC_FINAL, "eval", EVAL_DESC, null, null);
+    eval.visitCode();
+    invokeMethod(eval, root);
+    eval.visitInsn(ARETURN);
+    eval.visitMaxs(0, 0);
+    eval.visitEnd();
+
+    cw.visitEnd();
+    return cw.toByteArray();
+  }
+
+  // places the value of given node on the operand stack
+  private void emit(MethodVisitor mv, ExpressionNode node, ExpressionOp op) {
+
+    // specialized casts that do not need to cast anything are replaced by their expression op
+    if (node instanceof CastNode && !(op instanceof CastOp)) {
+      emit(mv, ((CastNode) node).getExpression(), op);
+      return;
+    }
+
+    if (op instanceof ConstantOp) {
+      loadConstant(mv, ((ConstantOp) op).getValue(), VALUE);
+    } else if (isCompilable(node, op)) {
+      invokeMethod(mv, compileMethod(node, op));
+    } else {
+      // interpreted op, with any compilable expressions below it compiled on their own
+      if (op == node.getOp() && compileSubtrees(node, debugHandler)) {
+        op = op.refresh();
+        node.setOp(op);
+      }
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitFieldInsn(GETFIELD, className, "ops", "[" + org.objectweb.asm.Type.getDescriptor(ExpressionOp.class));
+      pushInt(mv, ops.size());
+      mv.visitInsn(AALOAD);
+      mv.visitVarInsn(ALOAD, 1);
+      mv.visitVarInsn(ALOAD, 2);
+      mv.visitMethodInsn(INVOKEINTERFACE, OP, "eval", EVAL_DESC, true);
+      ops.add(op);
+    }
+  }
+
+  private void emit(MethodVisitor mv, ExpressionNode node) {
+    emit(mv, node, node.getOp());
+  }
+
+  // generates a method evaluating given node, and returns its name
+  private String compileMethod(ExpressionNode node, ExpressionOp op) {
+
+    String name = "op" + (methodCount++);
+    MethodVisitor mv = cw.visitMethod(ACC_PRIVATE | ACC_FINAL, name, EVAL_DESC, null, null);
+    mv.visitCode();
+
+    if (op instanceof CastOp) {
+      CastNode castNode = (CastNode) node;
+      emit(mv, castNode.getExpression());
+      loadConstant(mv, castNode.getTargetType(), TYPE);
+      mv.visitMethodInsn(INVOKEVIRTUAL, VALUE, "castTo", "(" + org.objectweb.asm.Type.getDescriptor(Type.class) + ")" + VALUE_DESC, false);
+      mv.visitInsn(ARETURN);
+    } else if (op instanceof IfOp) {
+      IfNode ifNode = (IfNode) node;
+      Label elseLabel = new Label();
+      emit(mv, ifNode.getCondition());
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, "isTrue", TEST_KERNEL_DESC, false);
+      mv.visitJumpInsn(IFEQ, elseLabel);
+      emit(mv, ifNode.getThenExpression());
+      mv.visitInsn(ARETURN);
+      mv.visitLabel(elseLabel);
+      emit(mv, ifNode.getElseExpression());
+      mv.visitInsn(ARETURN);
+    } else if (op instanceof AndOp) {
+      AndNode andNode = (AndNode) node;
+      Label rightLabel = new Label();
+      Label trueLabel = new Label();
+      emit(mv, andNode.getLeftExpression());
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, "isNotFalse", TEST_KERNEL_DESC, false);
+      mv.visitJumpInsn(IFNE, rightLabel);
+      loadValuesConstant(mv, "FALSE");
+      mv.visitInsn(ARETURN);
+      mv.visitLabel(rightLabel);
+      emit(mv, andNode.getRightExpression());
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, "isNotFalse", TEST_KERNEL_DESC, false);
+      mv.visitJumpInsn(IFNE, trueLabel);
+      loadValuesConstant(mv, "FALSE");
+      mv.visitInsn(ARETURN);
+      mv.visitLabel(trueLabel);
+      loadValuesConstant(mv, "TRUE");
+      mv.visitInsn(ARETURN);
+    } else if (op instanceof OrOp) {
+      OrNode orNode = (OrNode) node;
+      Label rightLabel = new Label();
+      Label falseLabel = new Label();
+      emit(mv, orNode.getLeftExpression());
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, "isTrueBoolean", TEST_KERNEL_DESC, false);
+      mv.visitJumpInsn(IFEQ, rightLabel);
+      loadValuesConstant(mv, "TRUE");
+      mv.visitInsn(ARETURN);
+      mv.visitLabel(rightLabel);
+      emit(mv, orNode.getRightExpression());
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, "isTrueBoolean", TEST_KERNEL_DESC, false);
+      mv.visitJumpInsn(IFEQ, falseLabel);
+      loadValuesConstant(mv, "TRUE");
+      mv.visitInsn(ARETURN);
+      mv.visitLabel(falseLabel);
+      loadValuesConstant(mv, "FALSE");
+      mv.visitInsn(ARETURN);
+    } else if (op instanceof NotOp) {
+      emit(mv, ((NotNode) node).getExpression());
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, "not", UNARY_KERNEL_DESC, false);
+      mv.visitInsn(ARETURN);
+    } else {
+      BinaryKernel kernel = binaryKernels.get(op.getClass());
+      ExpressionNode left = (ExpressionNode) node.getChildren().get(0);
+      ExpressionNode right = (ExpressionNode) node.getChildren().get(1);
+
+      emit(mv, left);
+      mv.visitVarInsn(ASTORE, 3);
+
+      if (kernel.leftNilResult != null) {
+        Label evalRight = new Label();
+        mv.visitVarInsn(ALOAD, 3);
+        loadValuesConstant(mv, "NIL");
+        mv.visitJumpInsn(IF_ACMPNE, evalRight);
+        loadValuesConstant(mv, kernel.leftNilResult);
+        mv.visitInsn(ARETURN);
+        mv.visitLabel(evalRight);
+      }
+
+      emit(mv, right);
+      mv.visitVarInsn(ASTORE, 4);
+      mv.visitVarInsn(ALOAD, 3);
+      mv.visitVarInsn(ALOAD, 4);
+      mv.visitMethodInsn(INVOKESTATIC, KERNELS, kernel.name, BINARY_KERNEL_DESC, false);
+      mv.visitInsn(ARETURN);
+    }
+
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+    return name;
+  }
+
+  private void invokeMethod(MethodVisitor mv, String name) {
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitVarInsn(ALOAD, 1);
+    mv.visitVarInsn(ALOAD, 2);
+    mv.visitMethodInsn(INVOKESPECIAL, className, name, EVAL_DESC, false);
+  }
+
+  private void loadConstant(MethodVisitor mv, Object constant, String type) {
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitFieldInsn(GETFIELD, className, "constants", "[Ljava/lang/Object;");
+    pushInt(mv, constants.size());
+    mv.visitInsn(AALOAD);
+    mv.visitTypeInsn(CHECKCAST, type);
+    constants.add(constant);
+  }
+
+  private void loadValuesConstant(MethodVisitor mv, String name) {
+    mv.visitFieldInsn(GETSTATIC, VALUES, name, VALUE_DESC);
+  }
+
+  private void pushInt(MethodVisitor mv, int i) {
+    if (i <= 5) {
+      mv.visitInsn(ICONST_0 + i);
+    } else if (i <= Byte.MAX_VALUE) {
+      mv.visitIntInsn(BIPUSH, i);
+    } else if (i <= Short.MAX_VALUE) {
+      mv.visitIntInsn(SIPUSH, i);
+    } else {
+      mv.visitLdcInsn(i);
+    }
+  }
+
+}
@@ -44,6 +44,10 @@ public class Cell implements MemorySpace, ValueProvider {
   private boolean dirty = true;
   private boolean evaluating = false;
 
+  // set if the cell keeps its value per thread, see ThreadLocalCells
+  private ThreadLocalCells locals;
+  private int localIndex;
+
   public Symbol getSymbol() {
     return symbol;
   }
@@ -85,14 +89,28 @@ public class Cell implements MemorySpace, ValueProvider {
   }
 
   public boolean isEvaluating() {
+    if (locals != null) return locals.state().evaluating[localIndex];
     return evaluating;
   }
 
   public Cell setEvaluating(boolean evaluating) {
+    if (locals != null){
+      locals.state().evaluating[localIndex] = evaluating;
+      return this;
+    }
     this.evaluating = evaluating;
     return this;
   }
 
+  void makeThreadLocal(ThreadLocalCells locals, int localIndex) {
+    this.locals = locals;
+    this.localIndex = localIndex;
+  }
+
+  public boolean isThreadLocal() {
+    return locals != null;
+  }
+
 //  public MemorySpace getSpace() {
 //    return space;
 //  }
@@ -161,20 +179,32 @@ public class Cell implements MemorySpace, ValueProvider {
 
   @Override
   public Value getValue() {
+    if (locals != null) return locals.state().values[localIndex];
     return value;
   }
 
   public Cell setValue(Value value) {
+    if (locals != null){
+      ThreadLocalCells.State state = locals.state();
+      state.values[localIndex] = value;
+      state.dirty[localIndex] = false;
+      return this;
+    }
     this.value = value;
     dirty = false;
     return this;
   }
 
   public boolean isDirty() {
+    if (locals != null) return locals.state().dirty[localIndex];
     return dirty;
   }
 
   public Cell setDirty(boolean dirty) {
+    if (locals != null){
+      locals.state().dirty[localIndex] = dirty;
+      return this;
+    }
     this.dirty = dirty;
     return this;
   }
@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.memory;
+
+import com.twineworks.collections.shapemap.ConstShapeMap;
+import com.twineworks.tweakflow.lang.scope.Scope;
+import com.twineworks.tweakflow.lang.values.FunctionParameter;
+import com.twineworks.tweakflow.lang.values.FunctionSignature;
+import com.twineworks.tweakflow.lang.values.Value;
+
+/**
+ * Call arguments of a standard function held in a flat frame indexed by parameter index.
+ * <p>
+ * References to parameters read their slot directly. The cell map view is only built on demand,
+ * for generic name resolution and inspection.
+ */
+public class FrameMemorySpace implements MemorySpace {
+
+  private final FunctionSignature signature;
+  private final Value[] slots;
+  private final Scope scope;
+  private MemorySpace enclosingSpace;
+  private ConstShapeMap<Cell> cells;
+
+  public FrameMemorySpace(MemorySpace enclosingSpace, Scope scope, FunctionSignature signature, Value[] slots) {
+    this.enclosingSpace = enclosingSpace;
+    this.scope = scope;
+    this.signature = signature;
+    this.slots = slots;
+  }
+
+  public Value get(int slot) {
+    return slots[slot];
+  }
+
+  public FrameMemorySpace set(int slot, Value value) {
+    slots[slot] = value;
+    cells = null;
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public ConstShapeMap<Cell> getCells() {
+    if (cells == null) {
+      ConstShapeMap<Cell> c = new ConstShapeMap<>(signature.getParameterShapeMap());
+      for (FunctionParameter parameter : signature.getParameterArray()) {
+        c.seta(parameter.getShapeAccessor(), new Cell().setValue(slots[parameter.getIndex()]));
+      }
+      cells = c;
+    }
+    return cells;
+  }
+
+  @Override
+  public MemorySpace getEnclosingSpace() {
+    return enclosingSpace;
+  }
+
+  @Override
+  public FrameMemorySpace setEnclosingSpace(MemorySpace space) {
+    this.enclosingSpace = space;
+    return this;
+  }
+
+  @Override
+  public Scope getScope() {
+    return scope;
+  }
+
+  @Override
+  public MemorySpaceType getMemorySpaceType() {
+    return MemorySpaceType.CALL_ARGUMENTS;
+  }
+
+}
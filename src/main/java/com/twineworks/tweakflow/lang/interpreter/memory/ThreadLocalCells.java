@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.memory;
+
+import com.twineworks.tweakflow.lang.values.Value;
+
+import java.util.List;
+
+/**
+ * Holds the state of cells that cannot be shared between threads, because their values
+ * depend on provided vars. Each thread starts out with the state the cells had when
+ * they were made thread-local.
+ */
+public class ThreadLocalCells {
+
+  static final class State {
+    final Value[] values;
+    final boolean[] dirty;
+    final boolean[] evaluating;
+
+    State(Value[] values, boolean[] dirty) {
+      this.values = values.clone();
+      this.dirty = dirty.clone();
+      this.evaluating = new boolean[values.length];
+    }
+  }
+
+  private final Value[] initialValues;
+  private final boolean[] initialDirty;
+  private final ThreadLocal<State> state;
+
+  public ThreadLocalCells(List<Cell> cells) {
+
+    int size = cells.size();
+    initialValues = new Value[size];
+    initialDirty = new boolean[size];
+
+    for (int i = 0; i < size; i++) {
+      Cell cell = cells.get(i);
+      initialValues[i] = cell.getValue();
+      initialDirty[i] = cell.isDirty();
+    }
+
+    state = ThreadLocal.withInitial(() -> new State(initialValues, initialDirty));
+
+    for (int i = 0; i < size; i++) {
+      cells.get(i).makeThreadLocal(this, i);
+    }
+
+  }
+
+  public int size() {
+    return initialValues.length;
+  }
+
+  State state() {
+    return state.get();
+  }
+
+}
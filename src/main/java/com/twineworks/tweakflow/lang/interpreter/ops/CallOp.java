@@ -31,6 +31,8 @@ import com.twineworks.tweakflow.lang.errors.LangException;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
 import com.twineworks.tweakflow.lang.interpreter.Interpreter;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.calls.CachedCallTarget;
+import com.twineworks.tweakflow.lang.interpreter.calls.InlineCache;
 import com.twineworks.tweakflow.lang.types.Types;
 import com.twineworks.tweakflow.lang.values.FunctionValue;
 import com.twineworks.tweakflow.lang.values.StandardFunctionValue;
@@ -43,10 +45,12 @@ final public class CallOp implements ExpressionOp {
 
   private final CallNode node;
   private final ExpressionOp callableOp;
+  private final InlineCache cache;
 
   public CallOp(CallNode node) {
     this.node = node;
     callableOp = node.getExpression().getOp();
+    cache = node.getArguments().allPositional() ? new InlineCache(node.getArguments().getList()) : null;
   }
 
   @Override
@@ -60,6 +64,13 @@ final public class CallOp implements ExpressionOp {
     FunctionValue function = callableValue.function();
     Arguments arguments = node.getArguments();
 
+    if (cache != null){
+      CachedCallTarget target = cache.lookup(function);
+      if (target != null){
+        return target.call(function, evalArguments(arguments, stack, context), node, stack, context);
+      }
+    }
+
     if (function.isStandard()){
       return evaluateStandard((StandardFunctionValue) function, arguments, stack, context);
     }
@@ -32,50 +32,55 @@ import com.twineworks.tweakflow.lang.errors.LangException;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
 import com.twineworks.tweakflow.lang.interpreter.Interpreter;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.values.DictShape;
 import com.twineworks.tweakflow.lang.values.DictValue;
-import com.twineworks.tweakflow.lang.values.TransientDictValue;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
-import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Map;
+import java.util.LinkedHashSet;
 
 final public class ConstantKeysDictOp implements ExpressionOp {
 
   private final DictNode node;
-  private final ExpressionOp[] valueOps;
+  private final DictShape shape;
+  private final Value[] constSlots;
   private final ExpressionOp[] nonConstValueOps;
-  private final Map.Entry<String, Value>[] entries;
-  private final Map.Entry<String, Value>[] nonConstEntries;
+  private final int[] nonConstSlots;
   private final int nonConstSize;
-  private final int size;
-  private final int constSize;
-  private final DictValue constEntries;
 
-  @SuppressWarnings("unchecked")
   public ConstantKeysDictOp(DictNode dictNode) {
     this.node = dictNode;
-    size = dictNode.getEntries().size();
-    valueOps = new ExpressionOp[size];
-    entries = new Map.Entry[size];
-    int nonConst = 0;
+    int size = dictNode.getEntries().size();
 
-    int i=0;
-    ArrayList<Map.Entry<String, Value>> nonConstEntriesList = new ArrayList<>(size);
-    ArrayList<ExpressionOp> nonConstOpsList = new ArrayList<>(size);
-    TransientDictValue c = new TransientDictValue();
+    String[] keys = new String[size];
+    ExpressionOp[] valueOps = new ExpressionOp[size];
+    LinkedHashSet<String> keySet = new LinkedHashSet<>();
 
+    int i=0;
     for (DictEntryNode entryNode : dictNode.getEntries()) {
       ExpressionNode keyExp = entryNode.getKey();
       ExpressionOp keyOp = keyExp.getOp();
 
       String key = Interpreter.evaluateInEmptyScope(keyOp).string();
       if (key == null) throw new LangException(LangError.NIL_ERROR, "dict key cannot be nil", keyExp.getSourceInfo());
-      entries[i] = new AbstractMap.SimpleEntry<String, Value>(key, Values.NIL);
+      keys[i] = key;
+      keySet.add(key);
       valueOps[i] = entryNode.getValue().getOp();
+      i+=1;
+    }
+
+    // all dicts of this literal are records of the same shape
+    shape = DictShape.of(keySet);
+    constSlots = new Value[shape.size()];
+
+    ArrayList<ExpressionOp> nonConstOpsList = new ArrayList<>(size);
+    ArrayList<Integer> nonConstSlotsList = new ArrayList<>(size);
+
+    for (i = 0; i < size; i++) {
 
       ExpressionOp valueOp = valueOps[i];
+      int slot = shape.slotOf(keys[i]);
       Value v = null;
 
       if (valueOp.isConstant()){
@@ -86,44 +91,32 @@ final public class ConstantKeysDictOp implements ExpressionOp {
       }
 
       if (v != null){
-        entries[i].setValue(v);
-        c.put(key, v);
+        constSlots[slot] = v;
       }
       else{
-        nonConstEntriesList.add(entries[i]);
-        nonConstOpsList.add(valueOps[i]);
-        nonConst++;
+        nonConstOpsList.add(valueOp);
+        nonConstSlotsList.add(slot);
       }
-      i+=1;
     }
-    nonConstSize = nonConst;
-    nonConstEntries = nonConstEntriesList.toArray(new Map.Entry[0]);
+
+    nonConstSize = nonConstOpsList.size();
     nonConstValueOps = nonConstOpsList.toArray(new ExpressionOp[0]);
-    constEntries = c.persistent();
-    constSize = constEntries.size();
+    nonConstSlots = new int[nonConstSize];
+    for (i = 0; i < nonConstSize; i++) {
+      nonConstSlots[i] = nonConstSlotsList.get(i);
+    }
   }
 
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
+    // non-constant values take precedence over constant values of the same key
+    Value[] slots = constSlots.clone();
     for (int i = 0; i < nonConstSize; i++) {
-      nonConstEntries[i].setValue(nonConstValueOps[i].eval(stack, context));
-    }
-
-    Value ret;
-    if (constSize == 0){
-      ret = Values.make(new DictValue(nonConstEntries));
-    }
-    else{
-      ret = Values.make(constEntries.putAll(new DictValue(nonConstEntries)));
-    }
-
-    // aggressively clear non-constants from memory
-    for (int i = 0; i < nonConstSize; i++) {
-      nonConstEntries[i].setValue(null);
+      slots[nonConstSlots[i]] = nonConstValueOps[i].eval(stack, context);
     }
 
-    return ret;
+    return Values.make(DictValue.record(shape, slots));
 
   }
 
@@ -42,6 +42,9 @@ final public class DivOp implements ExpressionOp {
   private final DivNode node;
   private final ExpressionOp leftOp;
   private final ExpressionOp rightOp;
+
+  // observed operand types, see TypeFeedback
+  private int feedback = TypeFeedback.UNINITIALIZED;
   private final static RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
   private final static int DEFAULT_SCALE = 20;
 
@@ -57,6 +60,15 @@ final public class DivOp implements ExpressionOp {
     Value left = leftOp.eval(stack, context);
     Value right = rightOp.eval(stack, context);
 
+    int f = feedback;
+    if (f == TypeFeedback.LONG_LONG && left.type() == Types.LONG && right.type() == Types.LONG) {
+      return Values.make(left.longNum().doubleValue() / right.longNum().doubleValue());
+    }
+    if (f == TypeFeedback.DOUBLE_DOUBLE && left.type() == Types.DOUBLE && right.type() == Types.DOUBLE) {
+      return Values.make(left.doubleNum() / right.doubleNum());
+    }
+    if (f != TypeFeedback.GENERIC) feedback = TypeFeedback.record(f, left, right);
+
     ensureValidTypes(left, right, stack);
 
     if (left == Values.NIL) return Values.NIL;
@@ -30,7 +30,7 @@ import com.twineworks.tweakflow.lang.interpreter.Stack;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
-final public class DivOpLL implements ExpressionOp {
+final public class DivOpLL implements DoubleOp {
 
   private final DivNode node;
   private final ExpressionOp leftOp;
@@ -46,14 +46,17 @@ final public class DivOpLL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.NIL;
+    try {
+      return Values.make(evalDouble(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    Value right = rightOp.eval(stack, context);
-    if (right == Values.NIL) return Values.NIL;
-
-    return Values.make(left.longNum().doubleValue() / right.longNum().doubleValue());
+  }
 
+  @Override
+  public double evalDouble(Stack stack, EvaluationContext context) {
+    return (double) Unboxed.evalLong(leftOp, stack, context) / (double) Unboxed.evalLong(rightOp, stack, context);
   }
 
   @Override
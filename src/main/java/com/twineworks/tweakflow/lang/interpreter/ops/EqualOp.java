@@ -25,6 +25,7 @@
 package com.twineworks.tweakflow.lang.interpreter.ops;
 
 import com.twineworks.tweakflow.lang.ast.expressions.EqualNode;
+import com.twineworks.tweakflow.lang.types.Types;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
@@ -36,6 +37,9 @@ final public class EqualOp implements ExpressionOp {
   private final ExpressionOp leftOp;
   private final ExpressionOp rightOp;
 
+  // observed operand types, see TypeFeedback
+  private int feedback = TypeFeedback.UNINITIALIZED;
+
   public EqualOp(EqualNode equalNode) {
     this.node = equalNode;
     leftOp = equalNode.getLeftExpression().getOp();
@@ -47,6 +51,16 @@ final public class EqualOp implements ExpressionOp {
 
     Value left = leftOp.eval(stack, context);
     Value right = rightOp.eval(stack, context);
+
+    int f = feedback;
+    if (f == TypeFeedback.LONG_LONG && left.type() == Types.LONG && right.type() == Types.LONG) {
+      return (left.longNum().longValue() == right.longNum().longValue()) ? Values.TRUE : Values.FALSE;
+    }
+    if (f == TypeFeedback.DOUBLE_DOUBLE && left.type() == Types.DOUBLE && right.type() == Types.DOUBLE) {
+      return (left.doubleNum().doubleValue() == right.doubleNum().doubleValue()) ? Values.TRUE : Values.FALSE;
+    }
+    if (f != TypeFeedback.GENERIC) feedback = TypeFeedback.record(f, left, right);
+
     if (left.valueEquals(right)) return Values.TRUE;
 
     return Values.FALSE;
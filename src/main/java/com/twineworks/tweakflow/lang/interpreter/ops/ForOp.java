@@ -33,7 +33,7 @@ import com.twineworks.tweakflow.lang.ast.structure.ForHead;
 import com.twineworks.tweakflow.lang.ast.structure.GeneratorNode;
 import com.twineworks.tweakflow.lang.ast.structure.VarDefNode;
 import com.twineworks.tweakflow.lang.types.Types;
-import com.twineworks.tweakflow.lang.values.ListValue;
+import com.twineworks.tweakflow.lang.values.TransientListValue;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
@@ -89,33 +89,35 @@ final public class ForOp implements ExpressionOp {
 
   }
 
-  private ListValue processGenerator(GeneratorNode gen, int i, Cell[] cells, ListValue list, Stack stack, EvaluationContext context){
+  private boolean processGenerator(GeneratorNode gen, int i, Cell[] cells, TransientListValue list, Stack stack, EvaluationContext context){
 
     Value iteration = gen.getValueExpression().getOp().eval(stack, context).castTo(Types.LIST);
-    if (iteration == Values.NIL) return null;
+    if (iteration == Values.NIL) return false;
 
+    // the list iterator does not materialize virtual ranges and repeats
     for (Value it : iteration.list()) {
+      context.step();
       cells[i].setValue(it);
-      list = processElement(i+1, cells, list, stack, context);
-      if (list == null) return null;
+      if (!processElement(i+1, cells, list, stack, context)) return false;
     }
 
-    return list;
+    return true;
   }
 
-  private ListValue processLocal(VarDefNode def, int i, Cell[] cells, ListValue list, Stack stack, EvaluationContext context){
+  private boolean processLocal(VarDefNode def, int i, Cell[] cells, TransientListValue list, Stack stack, EvaluationContext context){
     Value value = def.getValueExpression().getOp().eval(stack, context);
     cells[i].setValue(value);
     return processElement(i+1, cells, list, stack, context);
   }
 
-  private ListValue processPredicate(ExpressionOp op, int i, Cell[] cells, ListValue list, Stack stack, EvaluationContext context){
+  private boolean processPredicate(ExpressionOp op, int i, Cell[] cells, TransientListValue list, Stack stack, EvaluationContext context){
     Value value = op.eval(stack, context).castTo(Types.BOOLEAN);
     if (value == Values.TRUE) return processElement(i+1, cells, list, stack, context);
-    return list;
+    return true;
   }
 
-  private ListValue processElement(int i, Cell[] cells, ListValue list, Stack stack, EvaluationContext context){
+  // appends results to list, returns false if a generator evaluates to nil
+  private boolean processElement(int i, Cell[] cells, TransientListValue list, Stack stack, EvaluationContext context){
 
     if (i < elements.length){
       ForHeadElementNode element = elements[i];
@@ -133,7 +135,8 @@ final public class ForOp implements ExpressionOp {
       }
     }
     else{
-      return list.append(expressionOp.eval(stack, context));
+      list.append(expressionOp.eval(stack, context));
+      return true;
     }
 
   }
@@ -180,15 +183,15 @@ final public class ForOp implements ExpressionOp {
       }
     }
 
-    ListValue list = Values.EMPTY_LIST.list();
+    TransientListValue list = new TransientListValue();
 
-    list = processElement(0, cells, list, stack, context);
+    boolean complete = processElement(0, cells, list, stack, context);
 
     stack.pop();
 
-    if (list == null) return Values.NIL;
+    if (!complete) return Values.NIL;
 
-    return Values.make(list);
+    return Values.make(list.persistent());
   }
 
   @Override
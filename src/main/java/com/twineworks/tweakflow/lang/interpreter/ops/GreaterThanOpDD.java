@@ -45,11 +45,15 @@ final public class GreaterThanOpDD implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Double left = leftOp.eval(stack, context).doubleNum();
-    if (left == null) return Values.FALSE;
+    double left;
+    double right;
 
-    Double right = rightOp.eval(stack, context).doubleNum();
-    if (right == null) return Values.FALSE;
+    try {
+      left = Unboxed.evalDouble(leftOp, stack, context);
+      right = Unboxed.evalDouble(rightOp, stack, context);
+    } catch (NilOperand e) {
+      return Values.FALSE;
+    }
 
     return (left > right) ? Values.TRUE : Values.FALSE;
 
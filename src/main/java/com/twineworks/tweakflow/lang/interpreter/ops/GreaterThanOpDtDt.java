@@ -54,7 +54,7 @@ final public class GreaterThanOpDtDt implements ExpressionOp {
     DateTimeValue right = rightOp.eval(stack, context).dateTime();
     if (right == null) return Values.FALSE;
 
-    return (left.getInstant().compareTo(right.getInstant()) > 0) ? Values.TRUE : Values.FALSE;
+    return (left.compareInstant(right) > 0) ? Values.TRUE : Values.FALSE;
 
   }
 
@@ -45,11 +45,15 @@ final public class GreaterThanOpLL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Long left = leftOp.eval(stack, context).longNum();
-    if (left == null) return Values.FALSE;
+    long left;
+    long right;
 
-    Long right = rightOp.eval(stack, context).longNum();
-    if (right == null) return Values.FALSE;
+    try {
+      left = Unboxed.evalLong(leftOp, stack, context);
+      right = Unboxed.evalLong(rightOp, stack, context);
+    } catch (NilOperand e) {
+      return Values.FALSE;
+    }
 
     return (left > right) ? Values.TRUE : Values.FALSE;
 
@@ -42,6 +42,9 @@ final public class GreaterThanOrEqualOp implements ExpressionOp {
   private final ExpressionOp leftOp;
   private final ExpressionOp rightOp;
 
+  // observed operand types, see TypeFeedback
+  private int feedback = TypeFeedback.UNINITIALIZED;
+
   public GreaterThanOrEqualOp(GreaterThanOrEqualNode node) {
     this.node = node;
     leftOp = node.getLeftExpression().getOp();
@@ -55,6 +58,15 @@ final public class GreaterThanOrEqualOp implements ExpressionOp {
     Value left = leftOp.eval(stack, context);
     Value right = rightOp.eval(stack, context);
 
+    int f = feedback;
+    if (f == TypeFeedback.LONG_LONG && left.type() == Types.LONG && right.type() == Types.LONG) {
+      return (left.longNum() >= right.longNum()) ? Values.TRUE : Values.FALSE;
+    }
+    if (f == TypeFeedback.DOUBLE_DOUBLE && left.type() == Types.DOUBLE && right.type() == Types.DOUBLE) {
+      return (left.doubleNum() >= right.doubleNum()) ? Values.TRUE : Values.FALSE;
+    }
+    if (f != TypeFeedback.GENERIC) feedback = TypeFeedback.record(f, left, right);
+
     ensureValidTypes(left, right, stack);
 
     if (left == Values.NIL) return right == Values.NIL ? Values.TRUE : Values.FALSE;
@@ -109,7 +121,7 @@ final public class GreaterThanOrEqualOp implements ExpressionOp {
       }
     }
     else if (leftType == Types.DATETIME && rightType == Types.DATETIME){
-      return (left.dateTime().getInstant().compareTo(right.dateTime().getInstant()) >= 0) ? Values.TRUE : Values.FALSE;
+      return (left.dateTime().compareInstant(right.dateTime()) >= 0) ? Values.TRUE : Values.FALSE;
     }
     throw new LangException(LangError.CAST_ERROR, "cannot compare types: "+leftType.name()+" and "+rightType.name(), stack, node.getSourceInfo());
 
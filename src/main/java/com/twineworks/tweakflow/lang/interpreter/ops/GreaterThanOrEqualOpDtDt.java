@@ -54,7 +54,7 @@ final public class GreaterThanOrEqualOpDtDt implements ExpressionOp {
     if (left == null) return right == null ? Values.TRUE : Values.FALSE;
     if (right == null) return Values.FALSE;
 
-    return (left.getInstant().compareTo(right.getInstant()) >= 0) ? Values.TRUE : Values.FALSE;
+    return (left.compareInstant(right) >= 0) ? Values.TRUE : Values.FALSE;
 
   }
 
@@ -45,13 +45,17 @@ final public class LessThanOpDD implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.FALSE;
+    double left;
+    double right;
 
-    Value right = rightOp.eval(stack, context);
-    if (right == Values.NIL) return Values.FALSE;
+    try {
+      left = Unboxed.evalDouble(leftOp, stack, context);
+      right = Unboxed.evalDouble(rightOp, stack, context);
+    } catch (NilOperand e) {
+      return Values.FALSE;
+    }
 
-    return (left.doubleNum() < right.doubleNum()) ? Values.TRUE : Values.FALSE;
+    return (left < right) ? Values.TRUE : Values.FALSE;
 
   }
 
@@ -51,7 +51,7 @@ final public class LessThanOpDtDt implements ExpressionOp {
     Value right = rightOp.eval(stack, context);
     if (right == Values.NIL) return Values.FALSE;
 
-    return (left.dateTime().getInstant().isBefore(right.dateTime().getInstant())) ? Values.TRUE : Values.FALSE;
+    return (left.dateTime().compareInstant(right.dateTime()) < 0) ? Values.TRUE : Values.FALSE;
 
   }
 
@@ -45,13 +45,17 @@ final public class LessThanOpLL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.FALSE;
+    long left;
+    long right;
 
-    Value right = rightOp.eval(stack, context);
-    if (right == Values.NIL) return Values.FALSE;
+    try {
+      left = Unboxed.evalLong(leftOp, stack, context);
+      right = Unboxed.evalLong(rightOp, stack, context);
+    } catch (NilOperand e) {
+      return Values.FALSE;
+    }
 
-    return (left.longNum() < right.longNum()) ? Values.TRUE : Values.FALSE;
+    return (left < right) ? Values.TRUE : Values.FALSE;
 
   }
 
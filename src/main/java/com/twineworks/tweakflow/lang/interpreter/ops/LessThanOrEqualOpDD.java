@@ -45,11 +45,21 @@ final public class LessThanOrEqualOpDD implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Double left = leftOp.eval(stack, context).doubleNum();
-    Double right = rightOp.eval(stack, context).doubleNum();
+    double left;
+    double right;
 
-    if (left == null) return right == null ? Values.TRUE : Values.FALSE;
-    if (right == null) return Values.FALSE;
+    try {
+      left = Unboxed.evalDouble(leftOp, stack, context);
+    } catch (NilOperand e) {
+      // nil is equal to nil
+      return (rightOp.eval(stack, context) == Values.NIL) ? Values.TRUE : Values.FALSE;
+    }
+
+    try {
+      right = Unboxed.evalDouble(rightOp, stack, context);
+    } catch (NilOperand e) {
+      return Values.FALSE;
+    }
 
     return (left <= right) ? Values.TRUE : Values.FALSE;
 
@@ -45,11 +45,21 @@ final public class LessThanOrEqualOpLL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Long left = leftOp.eval(stack, context).longNum();
-    Long right = rightOp.eval(stack, context).longNum();
+    long left;
+    long right;
 
-    if (left == null) return right == null ? Values.TRUE : Values.FALSE;
-    if (right == null) return Values.FALSE;
+    try {
+      left = Unboxed.evalLong(leftOp, stack, context);
+    } catch (NilOperand e) {
+      // nil is equal to nil
+      return (rightOp.eval(stack, context) == Values.NIL) ? Values.TRUE : Values.FALSE;
+    }
+
+    try {
+      right = Unboxed.evalLong(rightOp, stack, context);
+    } catch (NilOperand e) {
+      return Values.FALSE;
+    }
 
     return (left <= right) ? Values.TRUE : Values.FALSE;
 
@@ -31,11 +31,11 @@ import com.twineworks.tweakflow.lang.ast.expressions.MinusNode;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
-final public class MinusOpLCL implements ExpressionOp {
+final public class MinusOpLCL implements LongOp {
 
   private final MinusNode node;
   private final ExpressionOp leftOp;
-  private final Long right;
+  private final long right;
 
   public MinusOpLCL(MinusNode node) {
     this.node = node;
@@ -46,11 +46,17 @@ final public class MinusOpLCL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.NIL;
+    try {
+      return Values.make(evalLong(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    return Values.make(left.longNum() - right);
+  }
 
+  @Override
+  public long evalLong(Stack stack, EvaluationContext context) {
+    return Unboxed.evalLong(leftOp, stack, context) - right;
   }
 
   @Override
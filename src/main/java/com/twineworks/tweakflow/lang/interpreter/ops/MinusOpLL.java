@@ -30,25 +30,32 @@ import com.twineworks.tweakflow.lang.values.Values;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
 
-final public class MinusOpLL implements ExpressionOp {
+final public class MinusOpLL implements LongOp {
 
   private final MinusNode node;
+  private final ExpressionOp leftOp;
+  private final ExpressionOp rightOp;
 
   public MinusOpLL(MinusNode node) {
     this.node = node;
+    leftOp = node.getLeftExpression().getOp();
+    rightOp = node.getRightExpression().getOp();
   }
 
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = node.getLeftExpression().getOp().eval(stack, context);
-    if (left == Values.NIL) return Values.NIL;
+    try {
+      return Values.make(evalLong(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    Value right = node.getRightExpression().getOp().eval(stack, context);
-    if (right == Values.NIL) return Values.NIL;
-
-    return Values.make(left.longNum() - right.longNum());
+  }
 
+  @Override
+  public long evalLong(Stack stack, EvaluationContext context) {
+    return Unboxed.evalLong(leftOp, stack, context) - Unboxed.evalLong(rightOp, stack, context);
   }
 
   @Override
@@ -30,7 +30,7 @@ import com.twineworks.tweakflow.lang.interpreter.Stack;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
-final public class MultOpLL implements ExpressionOp {
+final public class MultOpLL implements LongOp {
 
   private final MultNode node;
   private final ExpressionOp leftOp;
@@ -45,14 +45,17 @@ final public class MultOpLL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.NIL;
+    try {
+      return Values.make(evalLong(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    Value right = rightOp.eval(stack, context);
-    if (right == Values.NIL) return Values.NIL;
-
-    return Values.make(left.longNum() * right.longNum());
+  }
 
+  @Override
+  public long evalLong(Stack stack, EvaluationContext context) {
+    return Unboxed.evalLong(leftOp, stack, context) * Unboxed.evalLong(rightOp, stack, context);
   }
 
   @Override
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.collections.shapemap.ConstShapeMap.Accessor;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
+import com.twineworks.tweakflow.lang.interpreter.memory.FrameMemorySpace;
+import com.twineworks.tweakflow.lang.interpreter.memory.MemorySpace;
+import com.twineworks.tweakflow.lang.values.Value;
+
+import static com.twineworks.collections.shapemap.ConstShapeMap.accessor;
+import static com.twineworks.tweakflow.lang.interpreter.Interpreter.evaluateCell;
+
+final public class ParentSlotReferenceOp implements ExpressionOp {
+
+  private final Accessor<Cell> name;
+  private final int slot;
+
+  public ParentSlotReferenceOp(String name, int slot) {
+    this.name = accessor(name);
+    this.slot = slot;
+  }
+
+  @Override
+  public Value eval(Stack stack, EvaluationContext context) {
+    MemorySpace space = stack.peek().getSpace().getEnclosingSpace();
+    if (space instanceof FrameMemorySpace) {
+      return ((FrameMemorySpace) space).get(slot);
+    }
+    Cell cell = name.get(space.getCells());
+    if (cell.isDirty()) evaluateCell(cell, stack, context);
+    return cell.getValue();
+  }
+
+  @Override
+  public boolean isConstant() {
+    return false;
+  }
+
+  @Override
+  public ExpressionOp specialize() {
+    return this;
+  }
+
+  @Override
+  public ExpressionOp refresh() {
+    return this;
+  }
+
+}
@@ -30,7 +30,7 @@ import com.twineworks.tweakflow.lang.values.Values;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
 
-final public class PlusOpDD implements ExpressionOp {
+final public class PlusOpDD implements DoubleOp {
 
   private final PlusNode node;
   private final ExpressionOp leftOp;
@@ -45,14 +45,17 @@ final public class PlusOpDD implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.NIL;
+    try {
+      return Values.make(evalDouble(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    Value right = rightOp.eval(stack, context);
-    if (right == Values.NIL) return Values.NIL;
-
-    return Values.make(left.doubleNum() + right.doubleNum());
+  }
 
+  @Override
+  public double evalDouble(Stack stack, EvaluationContext context) {
+    return Unboxed.evalDouble(leftOp, stack, context) + Unboxed.evalDouble(rightOp, stack, context);
   }
 
   @Override
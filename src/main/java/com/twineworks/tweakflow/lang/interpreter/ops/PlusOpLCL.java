@@ -31,10 +31,10 @@ import com.twineworks.tweakflow.lang.ast.expressions.PlusNode;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
 
-final public class PlusOpLCL implements ExpressionOp {
+final public class PlusOpLCL implements LongOp {
 
   private final PlusNode node;
-  private final Long right;
+  private final long right;
   private final ExpressionOp leftOp;
 
   public PlusOpLCL(PlusNode node) {
@@ -46,11 +46,17 @@ final public class PlusOpLCL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Value left = leftOp.eval(stack, context);
-    if (left == Values.NIL) return Values.NIL;
+    try {
+      return Values.make(evalLong(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    return Values.make(left.longNum() + right);
+  }
 
+  @Override
+  public long evalLong(Stack stack, EvaluationContext context) {
+    return Unboxed.evalLong(leftOp, stack, context) + right;
   }
 
   @Override
@@ -30,7 +30,7 @@ import com.twineworks.tweakflow.lang.values.Values;
 import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
 
-final public class PlusOpLL implements ExpressionOp {
+final public class PlusOpLL implements LongOp {
 
   private final PlusNode node;
   private final ExpressionOp leftOp;
@@ -45,14 +45,17 @@ final public class PlusOpLL implements ExpressionOp {
   @Override
   public Value eval(Stack stack, EvaluationContext context) {
 
-    Long left = leftOp.eval(stack, context).longNum();
-    if (left == null) return Values.NIL;
+    try {
+      return Values.make(evalLong(stack, context));
+    } catch (NilOperand e) {
+      return Values.NIL;
+    }
 
-    Long right = rightOp.eval(stack, context).longNum();
-    if (right == null) return Values.NIL;
-
-    return Values.make(left + right);
+  }
 
+  @Override
+  public long evalLong(Stack stack, EvaluationContext context) {
+    return Unboxed.evalLong(leftOp, stack, context) + Unboxed.evalLong(rightOp, stack, context);
   }
 
   @Override
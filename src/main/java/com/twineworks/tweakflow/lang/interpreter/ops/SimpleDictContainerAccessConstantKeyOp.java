@@ -27,6 +27,7 @@ package com.twineworks.tweakflow.lang.interpreter.ops;
 import com.twineworks.tweakflow.lang.interpreter.Interpreter;
 import com.twineworks.tweakflow.lang.ast.expressions.ContainerAccessNode;
 import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.DictShape;
 import com.twineworks.tweakflow.lang.values.DictValue;
 import com.twineworks.tweakflow.lang.values.Value;
 import com.twineworks.tweakflow.lang.values.Values;
@@ -39,6 +40,19 @@ final public class SimpleDictContainerAccessConstantKeyOp implements ExpressionO
   private final String key;
   private final ContainerAccessNode node;
 
+  // slot of key in the last record shape seen
+  private SlotCache cache;
+
+  private static final class SlotCache {
+    private final DictShape shape;
+    private final int slot;
+
+    private SlotCache(DictShape shape, int slot) {
+      this.shape = shape;
+      this.slot = slot;
+    }
+  }
+
   public SimpleDictContainerAccessConstantKeyOp(ContainerAccessNode node) {
     this.node = node;
     containerOp = node.getContainerExpression().getOp();
@@ -49,7 +63,18 @@ final public class SimpleDictContainerAccessConstantKeyOp implements ExpressionO
   public Value eval(Stack stack, EvaluationContext context) {
     DictValue xs = containerOp.eval(stack, context).dict();
     if (xs == null) return Values.NIL;
-    return xs.get(key);
+
+    DictShape shape = xs.shape();
+    if (shape == null) return xs.get(key);
+
+    SlotCache c = cache;
+    if (c == null || c.shape != shape){
+      c = new SlotCache(shape, shape.slotOf(key));
+      cache = c;
+    }
+
+    if (c.slot < 0) return Values.NIL;
+    return xs.valueAt(c.slot);
   }
 
   @Override
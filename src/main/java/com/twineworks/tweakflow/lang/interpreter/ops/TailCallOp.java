@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.ast.args.Arguments;
+import com.twineworks.tweakflow.lang.ast.expressions.CallNode;
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.calls.CachedCallTarget;
+import com.twineworks.tweakflow.lang.interpreter.calls.CachedStandardCallTarget;
+import com.twineworks.tweakflow.lang.interpreter.calls.InlineCache;
+import com.twineworks.tweakflow.lang.types.Type;
+import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.FunctionValue;
+import com.twineworks.tweakflow.lang.values.StandardFunctionValue;
+import com.twineworks.tweakflow.lang.values.UserFunctionValue;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+
+import static com.twineworks.tweakflow.lang.interpreter.Interpreter.evalArguments;
+
+final public class TailCallOp implements ExpressionOp {
+
+  private final CallNode node;
+  private final ExpressionOp callableOp;
+  private final Type returnType;
+  private final InlineCache cache;
+
+  public TailCallOp(CallNode node) {
+    this.node = node;
+    callableOp = node.getExpression().getOp();
+    returnType = node.getTailCallReturnType();
+    cache = node.getArguments().allPositional() ? new InlineCache(node.getArguments().getList()) : null;
+  }
+
+  @Override
+  public Value eval(Stack stack, EvaluationContext context) {
+
+    Value callableValue = callableOp.eval(stack, context);
+
+    if (callableValue.type() != Types.FUNCTION){
+      throw new LangException(LangError.CANNOT_CALL, "Cannot call "+callableValue.toString()+". Not a function.", stack, node.getSourceInfo());
+    }
+    FunctionValue function = callableValue.function();
+    Arguments arguments = node.getArguments();
+
+    if (cache != null){
+      CachedCallTarget target = cache.lookup(function);
+      if (target != null){
+        Value[] argValues = evalArguments(arguments, stack, context);
+        if (function.isStandard() && isTailCallTo((StandardFunctionValue) function)){
+          stack.setTailCall((StandardFunctionValue) function, ((CachedStandardCallTarget) target).frame(argValues), node);
+          return Values.NIL;
+        }
+        return target.call(function, argValues, node, stack, context);
+      }
+    }
+
+    if (function.isStandard()){
+      StandardFunctionValue standardFunction = (StandardFunctionValue) function;
+
+      if (isTailCallTo(standardFunction)){
+        Value[] args = Interpreter.argumentsForStandardCall(arguments, evalArguments(arguments, stack, context), standardFunction.getSignature());
+        // the caller of the current function runs the call once the current frame is gone
+        stack.setTailCall(standardFunction, args, node);
+        return Values.NIL;
+      }
+
+      return Interpreter.evaluateStandardFunctionCall(node, standardFunction, arguments, stack, context);
+    }
+    else{
+      return evaluateUser((UserFunctionValue) function, arguments, stack, context);
+    }
+  }
+
+  private boolean isTailCallTo(StandardFunctionValue f) {
+    // the callee's result must not need the cast the current function would apply on return
+    return returnType == Types.ANY || returnType == f.getSignature().getReturnType();
+  }
+
+  private Value evaluateUser(UserFunctionValue userFunction, Arguments arguments, Stack stack, EvaluationContext context) {
+
+    Value[] argValues = evalArguments(arguments, stack, context);
+    if (arguments.allPositional()){
+      return Interpreter.evaluateUserFunctionCall(userFunction, Interpreter.argumentsForPositionalUserCall(argValues, userFunction.getSignature()), node, stack, context);
+    }
+    else {
+      return Interpreter.evaluateUserFunctionCall(userFunction, Interpreter.argumentsForUserCall(arguments, argValues, userFunction.getSignature()), node, stack, context);
+    }
+
+  }
+
+  @Override
+  public boolean isConstant() {
+    return false;
+  }
+
+  @Override
+  public ExpressionOp specialize() {
+    return new TailCallOp(node);
+  }
+
+  @Override
+  public ExpressionOp refresh() {
+    return new TailCallOp(node);
+  }
+
+}
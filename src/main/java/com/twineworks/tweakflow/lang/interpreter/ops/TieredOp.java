@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.ast.expressions.ExpressionNode;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.compiler.OpCompiler;
+import com.twineworks.tweakflow.lang.values.Value;
+
+final public class TieredOp implements ExpressionOp {
+
+  private final ExpressionNode node;
+  private final ExpressionOp op;
+  private volatile ExpressionOp compiled;
+  private int evaluations;
+  private boolean attempted;
+
+  public TieredOp(ExpressionNode node, ExpressionOp op) {
+    this.node = node;
+    this.op = op;
+  }
+
+  @Override
+  public Value eval(Stack stack, EvaluationContext context) {
+
+    ExpressionOp c = compiled;
+    if (c != null) return c.eval(stack, context);
+
+    if (!attempted) {
+      int threshold = context.getCompileThreshold();
+      if (threshold > 0 && ++evaluations >= threshold) {
+        compile(context);
+      }
+    }
+
+    return op.eval(stack, context);
+  }
+
+  private synchronized void compile(EvaluationContext context) {
+    if (attempted) return;
+    attempted = true;
+    compiled = OpCompiler.compile(node, op, context.getDebugHandler());
+  }
+
+  public boolean isCompiled() {
+    return compiled != null;
+  }
+
+  @Override
+  public boolean isConstant() {
+    return op.isConstant();
+  }
+
+  @Override
+  public ExpressionOp specialize() {
+    return new TieredOp(node, op.specialize());
+  }
+
+  @Override
+  public ExpressionOp refresh() {
+    return new TieredOp(node, op.refresh());
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.Value;
+
+/**
+ * Operand type profile of generic binary ops.
+ * <p>
+ * A generic op starts out {@link #UNINITIALIZED}, records the operand types it sees first, and
+ * takes a fast path as long as operands keep matching. Any other combination moves it to
+ * {@link #GENERIC} permanently, so polymorphic sites do not flip back and forth.
+ */
+final class TypeFeedback {
+
+  static final int UNINITIALIZED = 0;
+  static final int LONG_LONG = 1;
+  static final int DOUBLE_DOUBLE = 2;
+  static final int GENERIC = 3;
+
+  private TypeFeedback() {
+  }
+
+  static int of(Value left, Value right) {
+    if (left.type() == Types.LONG && right.type() == Types.LONG) return LONG_LONG;
+    if (left.type() == Types.DOUBLE && right.type() == Types.DOUBLE) return DOUBLE_DOUBLE;
+    return GENERIC;
+  }
+
+  // the feedback after operands did not take the fast path of feedback
+  static int record(int feedback, Value left, Value right) {
+    return feedback == UNINITIALIZED ? of(left, right) : GENERIC;
+  }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.runtime;
+
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.StackEntry;
+import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
+import com.twineworks.tweakflow.lang.scope.Symbol;
+import com.twineworks.tweakflow.lang.values.Value;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Re-evaluates the dependants of a set of provided vars after they change. Dependants are
+ * evaluated in dependency order. A dependant is only re-evaluated if a var it references
+ * directly changed its value, so changes absorbed by intermediate vars do not propagate.
+ *
+ * Mutually recursive vars form a group that is re-evaluated as a whole.
+ */
+final class IncrementalUpdate {
+
+  private final Cell[] dependants;
+
+  // groups of dependants in evaluation order
+  private final Cell[][] groups;
+  private final StackEntry[][] entries;
+
+  // per group, the nodes it depends on: inputs are nodes 0..n-1, groups follow at n+i
+  private final int[][] groupDependencies;
+
+  private final int inputCount;
+
+  IncrementalUpdate(Cell[] inputs, Collection<Cell> dependants, IdentityHashMap<Symbol, LinkedHashSet<Symbol>> varDependencies, Function<Symbol, Cell> varCells) {
+
+    this.inputCount = inputs.length;
+    this.dependants = dependants.toArray(new Cell[0]);
+
+    IdentityHashMap<Cell, Integer> inputIndexes = new IdentityHashMap<>();
+    for (int i = 0; i < inputs.length; i++) {
+      inputIndexes.put(inputs[i], i);
+    }
+
+    // direct dependencies between dependants and on inputs
+    IdentityHashMap<Cell, List<Cell>> edges = new IdentityHashMap<>();
+    for (Cell cell : this.dependants) {
+      edges.put(cell, new ArrayList<>());
+    }
+
+    for (Cell cell : this.dependants) {
+      LinkedHashSet<Symbol> deps = varDependencies == null ? null : varDependencies.get(cell.getSymbol());
+      List<Cell> cellEdges = edges.get(cell);
+      if (deps == null){
+        // no dependency information, assume the cell depends on all inputs
+        cellEdges.addAll(Arrays.asList(inputs));
+        continue;
+      }
+      for (Symbol dep : deps) {
+        Cell depCell = varCells.apply(dep);
+        if (edges.containsKey(depCell) || inputIndexes.containsKey(depCell)){
+          cellEdges.add(depCell);
+        }
+      }
+    }
+
+    List<List<Cell>> components = StronglyConnectedCells.components(edges);
+
+    groups = new Cell[components.size()][];
+    entries = new StackEntry[components.size()][];
+    groupDependencies = new int[components.size()][];
+
+    IdentityHashMap<Cell, Integer> groupIndexes = new IdentityHashMap<>();
+    for (int g = 0; g < components.size(); g++) {
+
+      List<Cell> component = components.get(g);
+      groups[g] = component.toArray(new Cell[0]);
+      entries[g] = new StackEntry[groups[g].length];
+      for (int i = 0; i < groups[g].length; i++) {
+        Cell cell = groups[g][i];
+        entries[g][i] = new StackEntry(cell.getSymbol().getNode(), cell, Collections.emptyMap());
+      }
+
+      for (Cell cell : component) {
+        groupIndexes.put(cell, g);
+      }
+
+      LinkedHashSet<Integer> nodes = new LinkedHashSet<>();
+      for (Cell cell : component) {
+        for (Cell dep : edges.get(cell)) {
+          Integer input = inputIndexes.get(dep);
+          if (input != null){
+            nodes.add(input);
+          }
+          else {
+            int depGroup = groupIndexes.get(dep);
+            if (depGroup != g) nodes.add(inputCount + depGroup);
+          }
+        }
+      }
+
+      int[] deps = new int[nodes.size()];
+      int i = 0;
+      for (Integer node : nodes) {
+        deps[i++] = node;
+      }
+      groupDependencies[g] = deps;
+    }
+
+  }
+
+  Cell[] getDependants() {
+    return dependants;
+  }
+
+  void markDirty() {
+    for (Cell dependant : dependants) {
+      dependant.setDirty(true);
+    }
+  }
+
+  /**
+   * Re-evaluates dependants affected by inputs flagged as changed.
+   * If an evaluation fails, all dependants not yet evaluated are left dirty.
+   */
+  void evaluate(boolean[] changedInputs, EvaluationContext context) {
+    new Evaluator(context).evaluate(changedInputs);
+  }
+
+  /**
+   * Holds the working state of evaluations, so it can be reused by repeated evaluations on one thread.
+   */
+  final class Evaluator {
+
+    private final EvaluationContext context;
+    private final Stack stack = new Stack();
+    private final boolean[] changed = new boolean[inputCount + groups.length];
+    private final Value[] previous;
+
+    Evaluator(EvaluationContext context) {
+      this.context = context;
+      int maxGroupSize = 0;
+      for (Cell[] group : groups) {
+        maxGroupSize = Math.max(maxGroupSize, group.length);
+      }
+      this.previous = new Value[maxGroupSize];
+    }
+
+    void evaluate(boolean[] changedInputs) {
+
+      // re-evaluating all affected dependants counts as one evaluation towards the limits
+      context.enter();
+      try {
+        evaluateGroups(changedInputs);
+      } finally {
+        context.exit();
+      }
+
+    }
+
+    private void evaluateGroups(boolean[] changedInputs) {
+
+      System.arraycopy(changedInputs, 0, changed, 0, inputCount);
+      Arrays.fill(changed, inputCount, changed.length, false);
+
+      for (int g = 0; g < groups.length; g++) {
+
+        Cell[] group = groups[g];
+
+        boolean affected = false;
+        for (int dep : groupDependencies[g]) {
+          if (changed[dep]){
+            affected = true;
+            break;
+          }
+        }
+
+        for (Cell cell : group) {
+          if (cell.isDirty()) affected = true;
+        }
+
+        if (!affected) continue;
+
+        for (int i = 0; i < group.length; i++) {
+          Cell cell = group[i];
+          previous[i] = cell.isDirty() ? null : cell.getValue();
+          cell.setDirty(true);
+        }
+
+        StackEntry[] groupEntries = entries[g];
+        try {
+          for (int i = 0; i < group.length; i++) {
+            stack.push(groupEntries[i]);
+            Interpreter.evaluateCell(group[i], stack, context);
+            stack.pop();
+          }
+        }
+        catch (RuntimeException e) {
+          stack.clear();
+          stack.clearTailCall();
+          for (int i = g; i < groups.length; i++) {
+            for (Cell cell : groups[i]) {
+              cell.setDirty(true);
+            }
+          }
+          throw e;
+        }
+
+        for (int i = 0; i < group.length; i++) {
+          Value value = group[i].getValue();
+          if (previous[i] == null || !previous[i].equals(value)){
+            changed[inputCount + g] = true;
+          }
+          previous[i] = null;
+        }
+
+      }
+
+    }
+  }
+
+}
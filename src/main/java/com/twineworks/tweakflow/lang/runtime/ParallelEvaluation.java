@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.runtime;
+
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.interpreter.EvaluationContext;
+import com.twineworks.tweakflow.lang.interpreter.Interpreter;
+import com.twineworks.tweakflow.lang.interpreter.Stack;
+import com.twineworks.tweakflow.lang.interpreter.StackEntry;
+import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
+import com.twineworks.tweakflow.lang.scope.Symbol;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Evaluates dirty library vars on an executor. Each group of mutually dependent vars is
+ * evaluated as one task, which is submitted as soon as all groups it references are evaluated.
+ * Independent vars are therefore evaluated concurrently.
+ *
+ * Each task evaluates in its own fork of the calling context. The first failing task cancels
+ * all other tasks, and its error is thrown once all running tasks have finished.
+ */
+final class ParallelEvaluation {
+
+  private final Cell[][] groups;
+
+  // per group, the amount of groups it waits for, and the groups waiting for it
+  private final int[] dependencyCounts;
+  private final int[][] dependants;
+
+  // evaluation state, guarded by this, an instance is evaluated once
+  private int[] pending;
+  private int scheduled;
+  private int finished;
+  private RuntimeException failure;
+
+  ParallelEvaluation(Collection<Cell> cells, IdentityHashMap<Symbol, LinkedHashSet<Symbol>> varDependencies, Function<Symbol, Cell> varCells) {
+
+    // dirty vars to evaluate and their dirty dependencies
+    IdentityHashMap<Cell, List<Cell>> edges = new IdentityHashMap<>();
+    ArrayDeque<Cell> queue = new ArrayDeque<>();
+    for (Cell cell : cells) {
+      if (cell.isDirty() && varDependencies.containsKey(cell.getSymbol()) && !edges.containsKey(cell)){
+        edges.put(cell, new ArrayList<>());
+        queue.add(cell);
+      }
+    }
+
+    while (!queue.isEmpty()){
+      Cell cell = queue.poll();
+      List<Cell> cellEdges = edges.get(cell);
+      for (Symbol dep : varDependencies.get(cell.getSymbol())) {
+        Cell depCell = varCells.apply(dep);
+        if (!depCell.isDirty()) continue;
+        cellEdges.add(depCell);
+        if (!edges.containsKey(depCell)){
+          edges.put(depCell, new ArrayList<>());
+          queue.add(depCell);
+        }
+      }
+    }
+
+    List<List<Cell>> components = StronglyConnectedCells.components(edges);
+
+    groups = new Cell[components.size()][];
+    dependencyCounts = new int[components.size()];
+
+    IdentityHashMap<Cell, Integer> groupIndexes = new IdentityHashMap<>();
+    for (int g = 0; g < components.size(); g++) {
+      groups[g] = components.get(g).toArray(new Cell[0]);
+      for (Cell cell : groups[g]) {
+        groupIndexes.put(cell, g);
+      }
+    }
+
+    List<List<Integer>> waiting = new ArrayList<>();
+    for (int g = 0; g < groups.length; g++) {
+      waiting.add(new ArrayList<>());
+    }
+
+    for (int g = 0; g < groups.length; g++) {
+      LinkedHashSet<Integer> deps = new LinkedHashSet<>();
+      for (Cell cell : groups[g]) {
+        for (Cell dep : edges.get(cell)) {
+          int depGroup = groupIndexes.get(dep);
+          if (depGroup != g) deps.add(depGroup);
+        }
+      }
+      dependencyCounts[g] = deps.size();
+      for (int depGroup : deps) {
+        waiting.get(depGroup).add(g);
+      }
+    }
+
+    dependants = new int[groups.length][];
+    for (int g = 0; g < groups.length; g++) {
+      List<Integer> w = waiting.get(g);
+      dependants[g] = new int[w.size()];
+      for (int i = 0; i < dependants[g].length; i++) {
+        dependants[g][i] = w.get(i);
+      }
+    }
+
+  }
+
+  synchronized void evaluate(Executor executor, EvaluationContext context) {
+
+    if (groups.length == 0) return;
+
+    // cancelling the shared parent aborts all running tasks
+    EvaluationContext parent = context.fork();
+
+    pending = dependencyCounts.clone();
+    List<Integer> ready = new ArrayList<>();
+    for (int g = 0; g < groups.length; g++) {
+      if (pending[g] == 0) ready.add(g);
+    }
+    scheduled = ready.size();
+    submit(ready, executor, parent);
+
+    boolean interrupted = false;
+    while (finished < scheduled || (failure == null && finished < groups.length)){
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+        fail(new LangException(LangError.EVALUATION_ABORTED, "evaluation interrupted"), parent);
+      }
+    }
+
+    if (interrupted) Thread.currentThread().interrupt();
+    if (failure != null) throw failure;
+
+  }
+
+  // submits groups already counted as scheduled
+  private void submit(List<Integer> ready, Executor executor, EvaluationContext parent) {
+
+    for (int i = 0; i < ready.size(); i++) {
+      int g = ready.get(i);
+      try {
+        executor.execute(() -> run(g, executor, parent));
+      } catch (RuntimeException e) {
+        synchronized (this){
+          fail(e, parent);
+          finished += ready.size() - i;
+          notifyAll();
+        }
+        return;
+      }
+    }
+
+  }
+
+  private void run(int g, Executor executor, EvaluationContext parent) {
+
+    RuntimeException error = null;
+    EvaluationContext context = parent.fork();
+    try {
+      for (Cell cell : groups[g]) {
+        Stack stack = new Stack();
+        stack.push(new StackEntry(cell.getSymbol().getNode(), cell.getEnclosingSpace(), Collections.emptyMap()));
+        Interpreter.evaluateCell(cell, stack, context);
+      }
+    } catch (RuntimeException e) {
+      error = e;
+    } finally {
+      context.release();
+    }
+
+    List<Integer> ready = new ArrayList<>();
+    synchronized (this){
+      if (error != null){
+        fail(error, parent);
+      }
+      else if (failure == null){
+        for (int d : dependants[g]) {
+          if (--pending[d] == 0) ready.add(d);
+        }
+        scheduled += ready.size();
+      }
+      finished++;
+      notifyAll();
+    }
+
+    submit(ready, executor, parent);
+
+  }
+
+  // records the first failure and cancels all running tasks, guarded by this
+  private void fail(RuntimeException e, EvaluationContext parent) {
+    if (failure == null){
+      failure = e;
+      parent.cancel();
+    }
+  }
+
+}
@@ -42,6 +42,7 @@ import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
 import com.twineworks.tweakflow.lang.interpreter.memory.LocalMemorySpace;
 import com.twineworks.tweakflow.lang.interpreter.memory.MemorySpace;
 import com.twineworks.tweakflow.lang.interpreter.memory.Spaces;
+import com.twineworks.tweakflow.lang.interpreter.memory.ThreadLocalCells;
 import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
 import com.twineworks.tweakflow.lang.load.loadpath.LoadPathLocation;
 import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
@@ -52,6 +53,9 @@ import com.twineworks.tweakflow.lang.types.Type;
 import com.twineworks.tweakflow.lang.values.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class Runtime {
@@ -336,6 +340,11 @@ public class Runtime {
       Interpreter.evaluateCell(cell, new Stack(), runtime.getEvaluationContext());
     }
 
+    public void evaluate(Executor executor){
+      runtime.evaluateParallel(cell, executor);
+      evaluate();
+    }
+
     @Override
     public Value getMeta() {
       SymbolNode targetNode = cell.getSymbol().getTargetNode();
@@ -465,6 +474,11 @@ public class Runtime {
       Interpreter.evaluateCell(cell, new Stack(), runtime.getEvaluationContext());
     }
 
+    public void evaluate(Executor executor){
+      runtime.evaluateParallel(cell, executor);
+      evaluate();
+    }
+
     @Override
     public Value getMeta() {
       SymbolNode targetNode = cell.getSymbol().getTargetNode();
@@ -516,10 +530,7 @@ public class Runtime {
       this.declaredType = varDefNode.getDeclaredType();
       this.name = varDefNode.getSymbolName();
 
-      RuntimeSet runtimeSet = runtime.getRuntimeSet();
-      LocalMemorySpace unitSpace = runtimeSet.getGlobalMemorySpace().getUnitSpace();
-
-      IdentityHashMap<Symbol, LinkedHashSet<Symbol>> allDependants = runtimeSet.getAnalysisSet().getDependants();
+      IdentityHashMap<Symbol, LinkedHashSet<Symbol>> allDependants = runtime.getRuntimeSet().getAnalysisSet().getDependants();
 
       Symbol symbol = cell.getSymbol();
 
@@ -529,12 +540,7 @@ public class Runtime {
       if (dependantSymbols != null){
         // collect dirties for re-evaluation
         for (Symbol dep : dependantSymbols) {
-          String modulePath = dep.getNode().getSourceInfo().getParseUnit().getPath();
-          MemorySpace moduleSpace = unitSpace.getCells().gets(modulePath);
-          String libraryName = ((Symbol)dep.getScope()).getNode().getSymbolName();
-          String varName = dep.getName();
-          Cell depCell = moduleSpace.getCells().gets(libraryName).getCells().gets(varName);
-          dependants.add(depCell);
+          dependants.add(runtime.varCell(dep));
         }
       }
 
@@ -648,14 +654,16 @@ public class Runtime {
   public static class UpdateBatch {
 
     private final Var[] vars;
-    private final Cell[] dependants;
+    private final IncrementalUpdate dependants;
     private final EvaluationContext context;
-    private final Stack stack = new Stack();
+    private final boolean[] changed;
 
-    UpdateBatch (Var[] vars, Cell[] dependants, EvaluationContext context){
+    UpdateBatch (Var[] vars, IncrementalUpdate dependants, EvaluationContext context){
       this.vars = vars;
       this.dependants = dependants;
       this.context = context;
+      this.changed = new boolean[vars.length];
+      Arrays.fill(changed, true);
     }
 
     public void update(ValueProvider[] valueProviders){
@@ -666,17 +674,8 @@ public class Runtime {
         var.cell.setValue(value.castTo(var.getDeclaredType()));
       }
 
-      for (Cell dependant : dependants) {
-        dependant.setDirty(true);
-      }
-
-      for (Cell dependant : dependants) {
-        if (dependant.isDirty()){
-          stack.push(new StackEntry(dependant.getSymbol().getNode(), dependant, Collections.emptyMap()));
-          Interpreter.evaluateCell(dependant, stack, context);
-          stack.pop();
-        }
-      }
+      // provided vars count as changed, dependants returning unchanged values cut off re-evaluation
+      dependants.evaluate(changed, context);
     }
 
     public void set(ValueProvider[] valueProviders){
@@ -687,9 +686,7 @@ public class Runtime {
         var.cell.setValue(value.castTo(var.getDeclaredType()));
       }
 
-      for (Cell dependant : dependants) {
-        dependant.setDirty(true);
-      }
+      dependants.markDirty();
 
     }
   }
@@ -698,40 +695,33 @@ public class Runtime {
 
     private final Var[] vars;
     private final HashSet<Cell> dependants;
+    private final IncrementalUpdate update;
     private final EvaluationContext context;
-    private final Stack stack = new Stack();
+    private final boolean[] changed;
 
-    ChangeSensitiveUpdateBatch(Var[] vars, EvaluationContext context){
+    ChangeSensitiveUpdateBatch(Var[] vars, IncrementalUpdate update, EvaluationContext context){
       this.vars = vars;
       this.dependants = new HashSet<>();
+      this.update = update;
       this.context = context;
+      this.changed = new boolean[vars.length];
     }
 
     public void update(ValueProvider[] valueProviders){
 
-      dependants.clear();
+      boolean anyChanged = false;
       for (int i = 0; i < valueProviders.length; i++) {
         Var var = vars[i];
         Value value = valueProviders[i].getValue().castTo(var.getDeclaredType());
         Value existing = var.getValue();
-        if (!existing.equals(value)){
+        changed[i] = !existing.equals(value);
+        if (changed[i]){
           var.cell.setValue(value);
-          dependants.addAll(var.dependants);
+          anyChanged = true;
         }
       }
 
-      for (Cell dependant : dependants) {
-        dependant.setDirty(true);
-      }
-
-      for (Cell dependant : dependants) {
-        if (dependant.isDirty()){
-          stack.push(new StackEntry(dependant.getSymbol().getNode(), dependant, Collections.emptyMap()));
-          Interpreter.evaluateCell(dependant, stack, context);
-          stack.pop();
-        }
-      }
-      dependants.clear();
+      if (anyChanged) update.evaluate(changed, context);
     }
 
     public void set(ValueProvider[] valueProviders){
@@ -755,9 +745,127 @@ public class Runtime {
     }
   }
 
+  public static class BatchEvaluation {
+
+    private final Var[] inputs;
+    private final Type[] inputTypes;
+    private final Var[] outputs;
+    private final IncrementalUpdate.Evaluator evaluator;
+    private final EvaluationContext context;
+    private final boolean[] changed;
+
+    BatchEvaluation(Var[] inputs, Var[] outputs, IncrementalUpdate update, EvaluationContext context){
+      this.context = context;
+      this.inputs = inputs;
+      this.outputs = outputs;
+      this.inputTypes = new Type[inputs.length];
+      for (int i = 0; i < inputs.length; i++) {
+        inputTypes[i] = inputs[i].getDeclaredType();
+      }
+      this.evaluator = update.new Evaluator(context);
+      this.changed = new boolean[inputs.length];
+    }
+
+    // columns[i] holds the values of input i for each row, the result holds a column per output
+    public Value[][] evaluateColumns(Value[][] columns){
+
+      Objects.requireNonNull(columns, "columns cannot be null");
+      if (columns.length != inputs.length){
+        throw new IllegalArgumentException("expected "+inputs.length+" columns, found: "+columns.length);
+      }
+
+      int rows = inputs.length == 0 ? 0 : columns[0].length;
+      for (int i = 0; i < columns.length; i++) {
+        Objects.requireNonNull(columns[i], "index: "+i+" column cannot be null");
+        if (columns[i].length != rows) throw new IllegalArgumentException("index: "+i+" column must have "+rows+" rows");
+      }
+
+      Value[][] results = new Value[outputs.length][rows];
+      Value[] row = new Value[inputs.length];
+
+      for (int r = 0; r < rows; r++) {
+        for (int i = 0; i < row.length; i++) {
+          row[i] = columns[i][r];
+        }
+        evaluateRow(row, r);
+        for (int o = 0; o < outputs.length; o++) {
+          results[o][r] = outputs[o].getValue();
+        }
+      }
+
+      return results;
+    }
+
+    // each row holds a value per input, results receives a value per output for each row
+    public void evaluateRows(Iterator<Value[]> rows, Consumer<Value[]> results){
+
+      Objects.requireNonNull(rows, "rows cannot be null");
+      Objects.requireNonNull(results, "results cannot be null");
+
+      long r = 0;
+      while (rows.hasNext()){
+        Value[] row = rows.next();
+        Objects.requireNonNull(row, "row: "+r+" cannot be null");
+        if (row.length != inputs.length){
+          throw new IllegalArgumentException("row: "+r+" expected "+inputs.length+" values, found: "+row.length);
+        }
+        evaluateRow(row, r);
+        Value[] result = new Value[outputs.length];
+        for (int o = 0; o < outputs.length; o++) {
+          result[o] = outputs[o].getValue();
+        }
+        results.accept(result);
+        r++;
+      }
+    }
+
+    // each row counts as one evaluation towards the limits
+    private void evaluateRow(Value[] row, long index){
+
+      context.enter();
+      try {
+        boolean anyChanged = false;
+        for (int i = 0; i < row.length; i++) {
+          Value value = row[i];
+          if (value == null) throw new NullPointerException("row: "+index+" index: "+i+" value cannot be null, use Values.NIL instead");
+          value = value.castTo(inputTypes[i]);
+          Cell cell = inputs[i].cell;
+          changed[i] = !value.equals(cell.getValue());
+          if (changed[i]){
+            cell.setValue(value);
+            anyChanged = true;
+          }
+        }
+
+        // only dependants of changed inputs are re-evaluated
+        if (anyChanged) evaluator.evaluate(changed);
+
+        // outputs independent of inputs are evaluated once
+        for (Var output : outputs) {
+          if (output.isDirty()) output.evaluate();
+        }
+      }
+      catch (LangException e){
+        e.put("row", index);
+        throw e;
+      }
+      finally {
+        context.exit();
+      }
+
+    }
+  }
+
   private final RuntimeSet runtimeSet;
   private final EvaluationContext context;
 
+  // dependency ordered re-evaluation plans, keyed by the cells of the provided vars they update
+  private static final int MAX_CACHED_UPDATES = 256;
+  private final Map<List<Cell>, IncrementalUpdate> incrementalUpdates = new ConcurrentHashMap<>();
+
+  // set once the runtime is shared between threads, each thread evaluates in its own context
+  private volatile ThreadLocal<EvaluationContext> threadContexts;
+
   public Runtime(RuntimeSet runtimeSet) {
     this(runtimeSet, new SimpleDebugHandler());
   }
@@ -769,16 +877,126 @@ public class Runtime {
 
   public Runtime copy(){
     RuntimeSet rs = runtimeSet.copy();
-    return new Runtime(rs, getDebugHandler());
+    return new Runtime(rs, getDebugHandler()).setCompileThreshold(getCompileThreshold());
   }
 
   public Runtime copy(DebugHandler debugHandler){
     RuntimeSet rs = runtimeSet.copy();
-    return new Runtime(rs, debugHandler);
+    return new Runtime(rs, debugHandler).setCompileThreshold(getCompileThreshold());
   }
 
   public void evaluate(){
-    Interpreter.evaluateSpace(runtimeSet.getGlobalMemorySpace().getUnitSpace(), context);
+    Interpreter.evaluateSpace(runtimeSet.getGlobalMemorySpace().getUnitSpace(), getEvaluationContext());
+  }
+
+  /**
+   * Evaluates all units, evaluating independent library vars concurrently on the given executor.
+   * Vars are scheduled once all vars they reference are evaluated, so long running vars do not
+   * hold up vars that do not depend on them. The calling thread waits for evaluation to finish.
+   *
+   * Each task evaluates in its own context, sharing the time limit, the step limit and the
+   * allocation limit of the runtime. Steps taken by tasks are added to {@link #getStepsTaken()}.
+   * Cancelling the runtime cancels all running tasks. If a var fails to evaluate, pending vars
+   * are not scheduled, and the error is thrown once all running tasks have finished.
+   *
+   * Shared runtimes hold var values per thread, and are evaluated on the calling thread.
+   */
+  public void evaluate(Executor executor){
+    // the parallel and the remaining sequential evaluation count as one evaluation towards the limits
+    EvaluationContext context = getEvaluationContext();
+    context.enter();
+    try {
+      evaluateParallel(runtimeSet.getGlobalMemorySpace().getUnitSpace(), executor);
+      evaluate();
+    } finally {
+      context.exit();
+    }
+  }
+
+  private void evaluateParallel(MemorySpace space, Executor executor){
+
+    Objects.requireNonNull(executor, "executor cannot be null");
+
+    IdentityHashMap<Symbol, LinkedHashSet<Symbol>> varDependencies = getAnalysisSet().getVarDependencies();
+    if (varDependencies == null || isShared()) return;
+
+    Set<Cell> varCells = Collections.newSetFromMap(new IdentityHashMap<>());
+    collectVarCells(space, varCells, Collections.newSetFromMap(new IdentityHashMap<>()));
+    new ParallelEvaluation(varCells, varDependencies, this::varCell).evaluate(executor, getEvaluationContext());
+
+  }
+
+  /**
+   * Prepares the runtime for concurrent use by multiple threads, as an alternative to giving each
+   * thread its own {@link #copy()}.
+   *
+   * All vars are evaluated. Vars that are independent of provided vars are shared read-only
+   * by all threads. Provided vars, and vars depending on them, hold their values per thread. Each
+   * thread starts out with the values present at the time of sharing, and updates of provided vars
+   * are only visible to the updating thread. Each thread evaluates in its own context, so evaluation
+   * limits apply to the calling thread only. Cancelling the runtime cancels evaluations on all threads.
+   * Update batches must be used on the thread that created them.
+   *
+   * Must be called before the runtime is made available to other threads. Has no effect
+   * if the runtime is already shared.
+   */
+  public synchronized Runtime share(){
+
+    if (threadContexts != null) return this;
+
+    Set<Cell> varCells = Collections.newSetFromMap(new IdentityHashMap<>());
+    collectVarCells(runtimeSet.getGlobalMemorySpace().getUnitSpace(), varCells, Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    for (Cell cell : varCells) {
+      if (!cell.isDirty()) continue;
+      Stack stack = new Stack();
+      stack.push(new StackEntry(cell.getSymbol().getNode(), cell.getEnclosingSpace(), Collections.emptyMap()));
+      try {
+        Interpreter.evaluateCell(cell, stack, context);
+      } catch (LangException ignored) {
+        // failing vars stay dirty, and fail on each thread that evaluates them
+      }
+    }
+
+    Set<Cell> localCells = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Cell cell : varCells) {
+      if (cell.isDirty()){
+        localCells.add(cell);
+      }
+      else if (((VarDefNode) cell.getSymbol().getNode()).isDeclaredProvided()){
+        localCells.add(cell);
+        localCells.addAll(new Var(this, cell).getDependants());
+      }
+    }
+
+    new ThreadLocalCells(new ArrayList<>(localCells));
+
+    // thread contexts are children of the runtime context, so cancelling the runtime cancels all of them
+    threadContexts = ThreadLocal.withInitial(context::child);
+
+    return this;
+  }
+
+  public boolean isShared(){
+    return threadContexts != null;
+  }
+
+  private static void collectVarCells(MemorySpace space, Set<Cell> varCells, Set<MemorySpace> visited){
+
+    if (!visited.add(space)) return;
+
+    ConstShapeMap<Cell> cells = space.getCells();
+    if (cells == null) return;
+
+    for (Cell cell : cells.values()) {
+      if (cell == null) continue;
+      if (cell.isVar()){
+        varCells.add(cell);
+      }
+      else {
+        collectVarCells(cell, varCells, visited);
+      }
+    }
   }
 
   public String unitKey(String path){
@@ -878,7 +1096,63 @@ public class Runtime {
     return context.getDebugHandler();
   }
 
+  public int getCompileThreshold(){
+    return getEvaluationContext().getCompileThreshold();
+  }
+
+  public Runtime setCompileThreshold(int compileThreshold){
+    getEvaluationContext().setCompileThreshold(compileThreshold);
+    return this;
+  }
+
+  // evaluations exceeding any limit fail with EVALUATION_ABORTED
+  // limits apply to each top-level evaluation: evaluating the runtime, a module or a var,
+  // calling a var, an update, an update batch, or a row of a batch evaluation
+  // the time limit counts from the start of each evaluation
+  public Runtime setTimeLimit(long millis){
+    getEvaluationContext().setTimeLimit(millis);
+    return this;
+  }
+
+  // steps are function calls and iterations of for loops
+  public Runtime setStepLimit(long steps){
+    getEvaluationContext().setStepLimit(steps);
+    return this;
+  }
+
+  // estimated bytes allocated for strings, binaries, lists and dicts
+  public Runtime setAllocationLimit(long bytes){
+    getEvaluationContext().setAllocationLimit(bytes);
+    return this;
+  }
+
+  // bytes allocated and steps taken by the current or last evaluation
+  public long getBytesAllocated(){
+    return getEvaluationContext().getBytesAllocated();
+  }
+
+  public long getStepsTaken(){
+    return getEvaluationContext().getStepsTaken();
+  }
+
+  // can be called from any thread, evaluations fail until limits are cleared
+  // on shared runtimes, cancels evaluations on all threads
+  public Runtime cancel(){
+    context.cancel();
+    return this;
+  }
+
+  // on shared runtimes, clears the limits of the calling thread and a cancellation of the runtime
+  public Runtime clearLimits(){
+    EvaluationContext evaluationContext = getEvaluationContext();
+    evaluationContext.clearLimits();
+    if (evaluationContext != context) context.clearLimits();
+    return this;
+  }
+
   private EvaluationContext getEvaluationContext() {
+    ThreadLocal<EvaluationContext> contexts = threadContexts;
+    if (contexts != null) return contexts.get();
     return context;
   }
 
@@ -922,7 +1196,7 @@ public class Runtime {
       throw new IllegalArgumentException("vars and values must have same length");
     }
 
-    HashSet<Cell> dependants = new HashSet<>();
+    ArrayList<Var> changed = new ArrayList<>();
     for (int i = 0; i < vars.length; i++) {
       Var var = vars[i];
       Objects.requireNonNull(var, "index: "+i+" var cannot be null");
@@ -935,18 +1209,10 @@ public class Runtime {
       Value existing = var.cell.getValue();
       if (value.equals(existing)) continue;
       var.cell.setValue(value.castTo(var.getDeclaredType()));
-      dependants.addAll(var.dependants);
+      changed.add(var);
     }
 
-    for (Cell dependant : dependants) {
-      dependant.setDirty(true);
-    }
-
-    for (Cell dependant : dependants) {
-      Stack stack = new Stack();
-      stack.push(new StackEntry(dependant.getSymbol().getNode(), dependant, Collections.emptyMap()));
-      Interpreter.evaluateCell(dependant, stack, getEvaluationContext());
-    }
+    evaluateDependants(changed);
 
   }
 
@@ -958,7 +1224,7 @@ public class Runtime {
       throw new IllegalArgumentException("vars and values must come in pairs");
     }
 
-    HashSet<Cell> dependants = new HashSet<>();
+    ArrayList<Var> changed = new ArrayList<>();
     for (int i = 0; i < varsAndValuesInPairs.length; i+=2) {
       Var var = (Var) varsAndValuesInPairs[i];
       Objects.requireNonNull(var, "index: "+i+" var cannot be null");
@@ -971,18 +1237,10 @@ public class Runtime {
       Value existing = var.cell.getValue();
       if (value.equals(existing)) continue;
       var.cell.setValue(value.castTo(var.getDeclaredType()));
-      dependants.addAll(var.dependants);
+      changed.add(var);
     }
 
-    for (Cell dependant : dependants) {
-      dependant.setDirty(true);
-    }
-
-    for (Cell dependant : dependants) {
-      Stack stack = new Stack();
-      stack.push(new StackEntry(dependant.getSymbol().getNode(), dependant, Collections.emptyMap()));
-      Interpreter.evaluateCell(dependant, stack, getEvaluationContext());
-    }
+    evaluateDependants(changed);
 
   }
 
@@ -995,7 +1253,7 @@ public class Runtime {
       throw new IllegalArgumentException("vars and values must have same size");
     }
 
-    HashSet<Cell> dependants = new HashSet<>();
+    ArrayList<Var> changed = new ArrayList<>();
     for (int i = 0; i < vars.size(); i++) {
       Var var = vars.get(i);
       Objects.requireNonNull(var, "index: "+i+" var cannot be null");
@@ -1008,18 +1266,10 @@ public class Runtime {
       Value existing = var.cell.getValue();
       if (value.equals(existing)) continue;
       var.cell.setValue(value.castTo(var.getDeclaredType()));
-      dependants.addAll(var.dependants);
+      changed.add(var);
     }
 
-    for (Cell dependant : dependants) {
-      dependant.setDirty(true);
-    }
-
-    for (Cell dependant : dependants) {
-      Stack stack = new Stack();
-      stack.push(new StackEntry(dependant.getSymbol().getNode(), dependant, Collections.emptyMap()));
-      Interpreter.evaluateCell(dependant, stack, getEvaluationContext());
-    }
+    evaluateDependants(changed);
 
   }
 
@@ -1034,16 +1284,48 @@ public class Runtime {
 
     var.cell.setValue(value.castTo(var.getDeclaredType()));
 
-    for (Cell dependant : var.dependants) {
-      dependant.setDirty(true);
+    evaluateDependants(Collections.singletonList(var));
+
+  }
+
+  // re-evaluates dependants of changed provided vars
+  private void evaluateDependants(List<Var> changed){
+
+    if (changed.isEmpty()) return;
+
+    boolean[] changedInputs = new boolean[changed.size()];
+    Arrays.fill(changedInputs, true);
+    incrementalUpdate(changed).evaluate(changedInputs, getEvaluationContext());
+
+  }
+
+  private IncrementalUpdate incrementalUpdate(List<Var> vars){
+
+    Cell[] inputs = new Cell[vars.size()];
+    LinkedHashSet<Cell> dependants = new LinkedHashSet<>();
+    for (int i = 0; i < inputs.length; i++) {
+      Var var = vars.get(i);
+      inputs[i] = var.cell;
+      dependants.addAll(var.dependants);
     }
 
-    for (Cell dependant : var.dependants) {
-      Stack stack = new Stack();
-      stack.push(new StackEntry(dependant.getSymbol().getNode(), dependant, Collections.emptyMap()));
-      Interpreter.evaluateCell(dependant, stack, getEvaluationContext());
+    List<Cell> key = Arrays.asList(inputs);
+    IncrementalUpdate update = incrementalUpdates.get(key);
+    if (update != null) return update;
+
+    update = new IncrementalUpdate(inputs, dependants, getAnalysisSet().getVarDependencies(), this::varCell);
+    if (incrementalUpdates.size() < MAX_CACHED_UPDATES){
+      incrementalUpdates.put(key, update);
     }
+    return update;
+  }
 
+  private Cell varCell(Symbol symbol){
+    LocalMemorySpace unitSpace = runtimeSet.getGlobalMemorySpace().getUnitSpace();
+    String modulePath = symbol.getNode().getSourceInfo().getParseUnit().getPath();
+    MemorySpace moduleSpace = unitSpace.getCells().gets(modulePath);
+    String libraryName = ((Symbol) symbol.getScope()).getNode().getSymbolName();
+    return moduleSpace.getCells().gets(libraryName).getCells().gets(symbol.getName());
   }
 
   private void setVar(Runtime.Var var, Value value){
@@ -1065,13 +1347,30 @@ public class Runtime {
   }
 
   public UpdateBatch createUpdateBatch(Runtime.Var[] vars){
-    HashSet<Cell> dependants = new HashSet<>();
     for (int i = 0; i < vars.length; i++) {
       Var var = vars[i];
       if (!var.isProvided()) throw new UnsupportedOperationException("index: "+i+" only vars declared as provided can change.");
-      dependants.addAll(var.dependants);
     }
-    return new UpdateBatch(vars, dependants.toArray(new Cell[0]), getEvaluationContext());
+    return new UpdateBatch(vars, incrementalUpdate(Arrays.asList(vars)), getEvaluationContext());
+  }
+
+  // evaluates outputs for many rows of provided input values, reusing evaluation state between rows
+  public BatchEvaluation createBatchEvaluation(Runtime.Var[] inputs, Runtime.Var[] outputs){
+
+    Objects.requireNonNull(inputs, "inputs cannot be null");
+    Objects.requireNonNull(outputs, "outputs cannot be null");
+
+    for (int i = 0; i < inputs.length; i++) {
+      Var var = inputs[i];
+      Objects.requireNonNull(var, "index: "+i+" input cannot be null");
+      if (!var.isProvided()) throw new UnsupportedOperationException("index: "+i+" only vars declared as provided can be inputs.");
+    }
+
+    for (int i = 0; i < outputs.length; i++) {
+      Objects.requireNonNull(outputs[i], "index: "+i+" output cannot be null");
+    }
+
+    return new BatchEvaluation(inputs, outputs, incrementalUpdate(Arrays.asList(inputs)), getEvaluationContext());
   }
 
   public ChangeSensitiveUpdateBatch createChangeSensitiveUpdateBatch(Runtime.Var[] vars){
@@ -1080,7 +1379,7 @@ public class Runtime {
       Var var = vars[i];
       if (!var.isProvided()) throw new UnsupportedOperationException("index: "+i+" only vars declared as provided can change.");
     }
-    return new ChangeSensitiveUpdateBatch(vars, getEvaluationContext());
+    return new ChangeSensitiveUpdateBatch(vars, incrementalUpdate(Arrays.asList(vars)), getEvaluationContext());
   }
 
 }
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.runtime;
+
+import com.twineworks.tweakflow.lang.interpreter.memory.Cell;
+
+import java.util.*;
+
+/**
+ * Finds groups of mutually dependent cells using Tarjan's algorithm. Groups are returned
+ * after all groups they depend on. Edges to cells outside of the graph are ignored.
+ */
+final class StronglyConnectedCells {
+
+  private final IdentityHashMap<Cell, List<Cell>> edges;
+  private final IdentityHashMap<Cell, Integer> index = new IdentityHashMap<>();
+  private final IdentityHashMap<Cell, Integer> lowLink = new IdentityHashMap<>();
+  private final Set<Cell> onStack = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final ArrayDeque<Cell> stack = new ArrayDeque<>();
+  private final List<List<Cell>> components = new ArrayList<>();
+
+  private StronglyConnectedCells(IdentityHashMap<Cell, List<Cell>> edges) {
+    this.edges = edges;
+  }
+
+  static List<List<Cell>> components(IdentityHashMap<Cell, List<Cell>> edges) {
+    StronglyConnectedCells scc = new StronglyConnectedCells(edges);
+    for (Cell cell : edges.keySet()) {
+      if (!scc.index.containsKey(cell)) scc.visit(cell);
+    }
+    return scc.components;
+  }
+
+  private void visit(Cell cell) {
+
+    int i = index.size();
+    index.put(cell, i);
+    lowLink.put(cell, i);
+    stack.push(cell);
+    onStack.add(cell);
+
+    for (Cell dep : edges.get(cell)) {
+      if (!edges.containsKey(dep)) continue;
+
+      if (!index.containsKey(dep)){
+        visit(dep);
+        lowLink.put(cell, Math.min(lowLink.get(cell), lowLink.get(dep)));
+      }
+      else if (onStack.contains(dep)){
+        lowLink.put(cell, Math.min(lowLink.get(cell), index.get(dep)));
+      }
+    }
+
+    if (lowLink.get(cell).equals(index.get(cell))){
+      List<Cell> component = new ArrayList<>();
+      Cell member;
+      do {
+        member = stack.pop();
+        onStack.remove(member);
+        component.add(member);
+      } while (member != cell);
+      components.add(component);
+    }
+
+  }
+}
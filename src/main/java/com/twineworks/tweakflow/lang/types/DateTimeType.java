@@ -210,7 +210,7 @@ final public class DateTimeType implements Type {
 
     //  comparing to a datetime?
     if (o.type() == this) {
-      return x.dateTime().getInstant().equals(o.dateTime().getInstant());
+      return x.dateTime().isSameInstant(o.dateTime());
     }
 
     // anything else cannot be equal
@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimated amount of bytes an evaluation may allocate for strings, binaries, lists and dicts.
+ * Allocations are accounted through {@link Allocations} on the threads the budget is bound to.
+ * A budget may be bound to several threads at once, as is the case for parallel evaluation.
+ */
+public class AllocationBudget {
+
+  private final long limit;
+  private final AtomicLong allocated = new AtomicLong();
+
+  public AllocationBudget(long limit) {
+    if (limit < 0) throw new IllegalArgumentException("allocation limit cannot be negative");
+    this.limit = limit;
+  }
+
+  public long getLimit() {
+    return limit;
+  }
+
+  public long getAllocated() {
+    return allocated.get();
+  }
+
+  void allocate(long bytes) {
+    if (allocated.addAndGet(bytes) > limit) {
+      throw new LangException(LangError.EVALUATION_ABORTED, "evaluation allocation limit of " + limit + " bytes exceeded");
+    }
+  }
+
+}
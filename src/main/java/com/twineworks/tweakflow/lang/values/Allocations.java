@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accounts estimated allocations of values to the {@link AllocationBudget} bound to the current thread.
+ * Estimates reflect the size of new data, not the garbage persistent updates leave behind.
+ * As long as no budget is bound on any thread, accounting costs a single volatile read.
+ */
+public final class Allocations {
+
+  // estimated sizes in bytes
+  static final long VALUE = 16;
+  static final long STRING = 40;
+  static final long BINARY = 16;
+  static final long LIST_ITEM = 8;
+  static final long DICT_ENTRY = 32;
+
+  private static final ThreadLocal<AllocationBudget> current = new ThreadLocal<>();
+  private static final AtomicInteger boundThreads = new AtomicInteger();
+
+  private Allocations(){}
+
+  /**
+   * Binds the given budget to the current thread, and returns the budget previously bound.
+   * Does nothing if budget is null.
+   */
+  public static AllocationBudget bind(AllocationBudget budget) {
+    if (budget == null) return null;
+    AllocationBudget previous = current.get();
+    if (previous != budget) {
+      current.set(budget);
+      if (previous == null) boundThreads.incrementAndGet();
+    }
+    return previous;
+  }
+
+  /**
+   * Reverts a {@link #bind(AllocationBudget)} call.
+   */
+  public static void restore(AllocationBudget budget, AllocationBudget previous) {
+    if (budget == null || budget == previous) return;
+    if (previous == null) {
+      current.remove();
+      boundThreads.decrementAndGet();
+    }
+    else {
+      current.set(previous);
+    }
+  }
+
+  static void account(long bytes) {
+    if (boundThreads.get() == 0) return;
+    AllocationBudget budget = current.get();
+    if (budget != null) budget.allocate(bytes);
+  }
+
+  static void accountString(String s) {
+    account(STRING + 2L * s.length());
+  }
+
+  static void accountBinary(byte[] bin) {
+    account(BINARY + bin.length);
+  }
+
+  static void accountListItems(long n) {
+    account(VALUE + n * LIST_ITEM);
+  }
+
+  static void accountDictEntries(long n) {
+    account(VALUE + n * DICT_ENTRY);
+  }
+
+}
@@ -29,14 +29,30 @@ import com.twineworks.tweakflow.util.LangUtil;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
-import java.util.Objects;
 
+/**
+ * A point in time at a time zone.
+ *
+ * Values are held as seconds and nanoseconds since the epoch plus the time zone. The zoned date time
+ * is derived when first needed and cached. Other views are derived from it on access. Comparisons
+ * and time-line arithmetic work on the compact form directly.
+ */
 public class DateTimeValue {
 
-  private final Instant instant;
-  private final LocalDateTime local;
-  private final OffsetDateTime offset;
-  private final ZonedDateTime zoned;
+  private static final ZoneId UTC = ZoneId.of("UTC");
+
+  // epoch seconds that are valid local date times at any offset
+  private static final long MIN_SAFE_SECOND = LocalDateTime.MIN.toEpochSecond(ZoneOffset.MIN);
+  private static final long MAX_SAFE_SECOND = LocalDateTime.MAX.toEpochSecond(ZoneOffset.MAX);
+
+  private static final int NANOS_PER_SECOND = 1_000_000_000;
+
+  private final long epochSecond;
+  private final int nano;
+  private final ZoneId zone;
+
+  // zoned date time, derived on first use
+  private volatile ZonedDateTime zoned;
 
   private static final DateTimeFormatter leadFormatter = new DateTimeFormatterBuilder()
         .append(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
@@ -47,48 +63,119 @@ public class DateTimeValue {
       .appendZoneId()
       .toFormatter();
 
+  private DateTimeValue(long epochSecond, int nano, ZoneId zone) {
+    this.epochSecond = epochSecond;
+    this.nano = nano;
+    this.zone = zone;
+  }
+
   public DateTimeValue(Instant instant) {
-    this.instant = instant;
-    zoned = instant.atZone(ZoneId.of("UTC"));
-    offset = zoned.toOffsetDateTime();
-    local = zoned.toLocalDateTime();
+    this(instant.getEpochSecond(), instant.getNano(), UTC);
   }
 
   public DateTimeValue(LocalDateTime local) {
-    this.local = local;
-    this.zoned = local.atZone(ZoneId.of("UTC"));
-    this.instant = zoned.toInstant();
-    this.offset = zoned.toOffsetDateTime();
+    this(local.toEpochSecond(ZoneOffset.UTC), local.getNano(), UTC);
   }
 
   public DateTimeValue(OffsetDateTime offset) {
-    this.offset = offset;
-    this.local = offset.toLocalDateTime();
-    this.instant = offset.toInstant();
-    this.zoned = offset.toZonedDateTime();
+    this(offset.toEpochSecond(), offset.getNano(), offset.getOffset());
   }
 
   public DateTimeValue(ZonedDateTime zoned) {
-    this.zoned = zoned;
-    this.offset = zoned.toOffsetDateTime();
-    this.local = zoned.toLocalDateTime();
-    this.instant = zoned.toInstant();
+    this(zoned.toEpochSecond(), zoned.getNano(), zoned.getZone());
+  }
+
+  // the instant at epochSecond and nano in zone, throws DateTimeException if it is out of range
+  public static DateTimeValue ofEpochSecond(long epochSecond, int nano, ZoneId zone) {
+    if (nano < 0 || nano >= NANOS_PER_SECOND || epochSecond < MIN_SAFE_SECOND || epochSecond > MAX_SAFE_SECOND){
+      // validates, or normalizes nanos
+      return new DateTimeValue(ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), zone));
+    }
+    return new DateTimeValue(epochSecond, nano, zone);
+  }
+
+  public long getEpochSecond() {
+    return epochSecond;
+  }
+
+  public int getNano() {
+    return nano;
+  }
+
+  public ZoneId getZone() {
+    return zone;
   }
 
   public Instant getInstant() {
-    return instant;
+    return Instant.ofEpochSecond(epochSecond, nano);
   }
 
   public LocalDateTime getLocal() {
-    return local;
+    return getZoned().toLocalDateTime();
   }
 
   public OffsetDateTime getOffset() {
-    return offset;
+    return getZoned().toOffsetDateTime();
   }
 
   public ZonedDateTime getZoned() {
-    return zoned;
+    ZonedDateTime ret = zoned;
+    if (ret == null){
+      ret = ZonedDateTime.ofInstant(getInstant(), zone);
+      zoned = ret;
+    }
+    return ret;
+  }
+
+  // compares the instants of this and other
+  public int compareInstant(DateTimeValue other) {
+    int cmp = Long.compare(epochSecond, other.epochSecond);
+    if (cmp != 0) return cmp;
+    return nano - other.nano;
+  }
+
+  public boolean isSameInstant(DateTimeValue other) {
+    return epochSecond == other.epochSecond && nano == other.nano;
+  }
+
+  // whole seconds from this to end, truncated towards zero, as ChronoUnit.SECONDS.between would
+  public long secondsUntil(DateTimeValue end) {
+    long secs = Math.subtractExact(end.epochSecond, epochSecond);
+    int nanos = end.nano - nano;
+    if (secs > 0 && nanos < 0){
+      secs--;
+    }
+    else if (secs < 0 && nanos > 0){
+      secs++;
+    }
+    return secs;
+  }
+
+  public Duration durationUntil(DateTimeValue end) {
+    return Duration.ofSeconds(Math.subtractExact(end.epochSecond, epochSecond), end.nano - nano);
+  }
+
+  public long toEpochMilli() {
+    return getInstant().toEpochMilli();
+  }
+
+  // this moved along the time-line, in the same zone, throws DateTimeException if out of range
+  public DateTimeValue plus(long seconds, long nanos) {
+    long secs = epochSecond + seconds + nanos / NANOS_PER_SECOND;
+    if (Math.abs(seconds) < MAX_SAFE_SECOND && secs > MIN_SAFE_SECOND && secs < MAX_SAFE_SECOND){
+      long n = nano + nanos % NANOS_PER_SECOND;
+      if (n < 0){
+        secs--;
+        n += NANOS_PER_SECOND;
+      }
+      else if (n >= NANOS_PER_SECOND){
+        secs++;
+        n -= NANOS_PER_SECOND;
+      }
+      return new DateTimeValue(secs, (int) n, zone);
+    }
+    // out of range, or close to it
+    return new DateTimeValue(getZoned().plusSeconds(seconds).plusNanos(nanos));
   }
 
   @Override
@@ -96,16 +183,19 @@ public class DateTimeValue {
     if (this == o) return true;
     if (o == null || getClass() != o.getClass()) return false;
     DateTimeValue that = (DateTimeValue) o;
-    return Objects.equals(zoned, that.zoned);
+    return epochSecond == that.epochSecond && nano == that.nano && zone.equals(that.zone);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(zoned);
+    int h = Long.hashCode(epochSecond);
+    h = 31 * h + nano;
+    return 31 * h + zone.hashCode();
   }
 
   @Override
   public String toString() {
+    ZonedDateTime zoned = getZoned();
     String lead = leadFormatter.format(zoned);
     String offset = zoneIdFormatter.format(zoned);
     return lead+"@"+LangUtil.escapeTimeZoneIdentifier(offset);
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import com.twineworks.collections.champ.TransientChampMap;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * The key set of record dicts. Records with the same keys share a shape, and hold their values in
+ * slots ordered like the keys of the shape. Keys are ordered as a hash map of the same keys would
+ * iterate them, so records and hash map dicts list their entries in the same order.
+ */
+final public class DictShape {
+
+  // shapes by key set, guarded by itself
+  // shapes reference their key set in the table, so an entry is dropped once its shape is no longer in use
+  private static final WeakHashMap<Set<String>, WeakReference<DictShape>> shapes = new WeakHashMap<>();
+
+  private final Set<String> tableKey;
+  private final String[] keys;
+  private final HashMap<String, Integer> slots;
+  private final Set<String> keySet;
+
+  private DictShape(Set<String> keys) {
+
+    this.tableKey = keys;
+
+    TransientChampMap<String, Value> t = new TransientChampMap<>();
+    for (String key : keys) {
+      t.set(key, Values.NIL);
+    }
+
+    this.keys = new String[keys.size()];
+    this.slots = new HashMap<>();
+
+    Iterator<String> iter = t.freeze().keyIterator();
+    int i = 0;
+    while (iter.hasNext()){
+      String key = iter.next();
+      this.keys[i] = key;
+      slots.put(key, i);
+      i++;
+    }
+
+    keySet = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(this.keys)));
+  }
+
+  // the shape of records with given keys
+  public static DictShape of(Collection<String> keys) {
+    Set<String> keySet = new HashSet<>(keys);
+    synchronized (shapes) {
+      WeakReference<DictShape> ref = shapes.get(keySet);
+      DictShape shape = ref == null ? null : ref.get();
+      if (shape == null) {
+        shape = new DictShape(keySet);
+        // put keeps an existing key, which may belong to a collected shape
+        shapes.remove(keySet);
+        shapes.put(keySet, new WeakReference<>(shape));
+      }
+      return shape;
+    }
+  }
+
+  // a shape that is not shared with other dicts of the same keys
+  public static DictShape unshared(Collection<String> keys) {
+    return new DictShape(new HashSet<>(keys));
+  }
+
+  public int size() {
+    return keys.length;
+  }
+
+  // slot of key, or -1 if the shape does not have the key
+  public int slotOf(String key) {
+    Integer slot = slots.get(key);
+    if (slot == null) return -1;
+    return slot;
+  }
+
+  public String keyAt(int slot) {
+    return keys[slot];
+  }
+
+  public Set<String> keys() {
+    return keySet;
+  }
+
+}
@@ -30,13 +30,44 @@ import com.twineworks.collections.champ.ChampMap;
 import com.twineworks.collections.champ.TransientChampMap;
 
 import java.util.*;
+import java.util.function.IntFunction;
 
+/**
+ * A persistent dict of string keys to values.
+ *
+ * Dicts built from literals with constant keys are records: they share a {@link DictShape} with
+ * all records of the same keys, and hold their values in a flat array of slots. Replacing the value
+ * of an existing key keeps the shape. Other changes, like adding or removing keys, turn the record
+ * into a hash map. Lazy dicts are records that load the value of a slot on first access, and keep
+ * it once loaded. All representations compare equal and behave the same.
+ */
 final public class DictValue {
 
-  final ChampMap<String, Value> map;
+  // entries, null if the dict is a record
+  private final ChampMap<String, Value> map;
+
+  // record values, ordered like the keys of shape
+  private final DictShape shape;
+  private final Value[] slots;
+
+  // loads values of empty slots of lazy records, null otherwise
+  private final IntFunction<Value> loader;
+
+  // entries of a record, created on first structural change
+  private volatile ChampMap<String, Value> boxed;
 
   DictValue(ChampMap<String, Value> map) {
     this.map = map;
+    this.shape = null;
+    this.slots = null;
+    this.loader = null;
+  }
+
+  private DictValue(DictShape shape, Value[] slots, IntFunction<Value> loader) {
+    this.map = null;
+    this.shape = shape;
+    this.slots = slots;
+    this.loader = loader;
   }
 
   public DictValue() {
@@ -44,36 +75,110 @@ final public class DictValue {
   }
 
   public DictValue(Map<String, Value> in) {
+    Allocations.accountDictEntries(in.size());
     TransientChampMap<String, Value> t = new TransientChampMap<>();
     t.setAll(in);
     map = t.freeze();
+    shape = null;
+    slots = null;
+    loader = null;
   }
 
   public DictValue(Map.Entry<String, Value>[] entries) {
+    Allocations.accountDictEntries(entries.length);
     TransientChampMap<String, Value> t = new TransientChampMap<>();
     t.setAll(Arrays.asList(entries));
     map = t.freeze();
+    shape = null;
+    slots = null;
+    loader = null;
+  }
+
+  // a record of shape holding values in slots, takes ownership of slots
+  public static DictValue record(DictShape shape, Value[] slots) {
+    if (shape.size() == 0) return new DictValue();
+    Allocations.accountDictEntries(slots.length);
+    return new DictValue(shape, slots, null);
+  }
+
+  // a dict of keys, loading the value of keys[i] through values.apply(i) on first access
+  // values must return the same value for the same index, and may be called concurrently
+  public static DictValue lazy(String[] keys, IntFunction<Value> values) {
+    if (keys.length == 0) return new DictValue();
+    DictShape shape = DictShape.unshared(Arrays.asList(keys));
+    int[] sources = new int[shape.size()];
+    for (int i = 0; i < keys.length; i++) {
+      sources[shape.slotOf(keys[i])] = i;
+    }
+    return new DictValue(shape, new Value[shape.size()], (slot) -> values.apply(sources[slot]));
+  }
+
+  // the shape of a record, null if the dict is not a record
+  public DictShape shape() {
+    return shape;
+  }
+
+  // value in slot of a record, no bounds checks
+  public Value valueAt(int slot) {
+    Value ret = slots[slot];
+    if (ret == null){
+      ret = loader.apply(slot);
+      slots[slot] = ret;
+    }
+    return ret;
+  }
+
+  // value in slot of a record, lazy records load it without keeping it
+  private Value peekAt(int slot) {
+    Value ret = slots[slot];
+    return ret == null ? loader.apply(slot) : ret;
+  }
+
+  private boolean isRecord() {
+    return map == null;
+  }
+
+  ChampMap<String, Value> champ() {
+    if (map != null) return map;
+    ChampMap<String, Value> ret = boxed;
+    if (ret == null){
+      TransientChampMap<String, Value> t = new TransientChampMap<>();
+      for (int i = 0; i < slots.length; i++) {
+        t.set(shape.keyAt(i), valueAt(i));
+      }
+      ret = t.freeze();
+      boxed = ret;
+    }
+    return ret;
   }
 
   public int size() {
+    if (isRecord()) return slots.length;
     return map.size();
   }
 
   public boolean isEmpty() {
-    return map.isEmpty();
+    return size() == 0;
   }
 
   public boolean containsKey(String key) {
+    if (isRecord()) return shape.slotOf(key) >= 0;
     return map.containsKey(key);
   }
 
   public boolean containsValue(Value value) {
+    if (isRecord()){
+      for (int i = 0; i < slots.length; i++) {
+        if (valueAt(i).equals(value)) return true;
+      }
+      return false;
+    }
     return map.containsValue(value);
   }
 
   public HashMap<String, Value> toHashMap() {
     HashMap<String, Value> ret = new HashMap<>();
-    Iterator<Map.Entry<String, Value>> iter = map.entryIterator();
+    Iterator<Map.Entry<String, Value>> iter = entryIterator();
     while(iter.hasNext()){
       Map.Entry<String, Value> e = iter.next();
       ret.put(e.getKey(), e.getValue());
@@ -82,20 +187,34 @@ final public class DictValue {
   }
 
   public DictValue put(String key, Value value) {
-    return new DictValue(map.set(key, value));
+    Allocations.accountDictEntries(1);
+    if (isRecord()){
+      int slot = shape.slotOf(key);
+      if (slot >= 0){
+        Allocations.accountDictEntries(slots.length - 1);
+        Value[] ret = slots.clone();
+        ret[slot] = value;
+        return new DictValue(shape, ret, loader);
+      }
+    }
+    return new DictValue(champ().set(key, value));
   }
 
   public DictValue putAll(Map<String, Value> entries) {
-    return new DictValue(map.setAll(entries));
+    Allocations.accountDictEntries(entries.size());
+    return new DictValue(champ().setAll(entries));
   }
 
   public DictValue delete(String key) {
-    return new DictValue(map.remove(key));
+    Allocations.account(Allocations.VALUE);
+    if (!containsKey(key)) return this;
+    return new DictValue(champ().remove(key));
   }
 
   public DictValue deleteAll(Iterable<? extends String> keys) {
 
-    TransientChampMap<String, Value> t = new TransientChampMap<>(map);
+    Allocations.account(Allocations.VALUE);
+    TransientChampMap<String, Value> t = new TransientChampMap<>(champ());
     for (String key : keys) {
       t.remove(key);
     }
@@ -104,28 +223,47 @@ final public class DictValue {
   }
 
   public DictValue deleteAll(DictValue dict) {
-    return new DictValue(map.removeAll(dict.keys()));
+    Allocations.account(Allocations.VALUE);
+    return new DictValue(champ().removeAll(dict.keys()));
   }
 
   public DictValue putAll(DictValue dict) {
-    return new DictValue(map.setAll(dict.map));
+    Allocations.accountDictEntries(dict.size());
+    if (dict.isEmpty()) return this;
+    if (isEmpty()) return dict;
+    return new DictValue(champ().setAll(dict.champ()));
   }
 
   public Value get(String key) {
+    if (isRecord()){
+      int slot = shape.slotOf(key);
+      if (slot < 0) return Values.NIL;
+      return valueAt(slot);
+    }
     Value v = map.get(key);
     if (v == null) return Values.NIL;
     return v;
   }
 
   public ListValue values() {
+    if (loader != null) return ListValue.lazy(slots.length, this::valueAt);
+    if (isRecord()) return new ListValue(slots);
     return new ListValue(map.values().toArray());
   }
 
   public Set<String> keys() {
+    if (isRecord()) return shape.keys();
     return map.keySet();
   }
 
   public void getAll(String[] keys, Value[] values){
+    if (isRecord()){
+      for (int i = 0; i < slots.length; i++) {
+        keys[i] = shape.keyAt(i);
+        values[i] = valueAt(i);
+      }
+      return;
+    }
     Iterator<ChampEntry<String, Value>> iter = map.champEntryIterator();
     int i=0;
     while(iter.hasNext()){
@@ -137,14 +275,36 @@ final public class DictValue {
   }
 
   public Iterator<Map.Entry<String, Value>> entryIterator(){
+
+    if (isRecord()){
+      return new Iterator<Map.Entry<String, Value>>() {
+
+        private int i = 0;
+
+        public boolean hasNext() {
+          return i < slots.length;
+        }
+
+        public Map.Entry<String, Value> next() {
+          if (i >= slots.length) throw new NoSuchElementException();
+          Map.Entry<String, Value> ret = new AbstractMap.SimpleImmutableEntry<>(shape.keyAt(i), valueAt(i));
+          i++;
+          return ret;
+        }
+      };
+    }
+
     return map.entryIterator();
   }
 
   public Iterator<String> keyIterator(){
+    if (isRecord()) return shape.keys().iterator();
     return map.keyIterator();
   }
 
   public Iterator<Value> valueIterator(){
+    if (loader != null) return values().iterator();
+    if (isRecord()) return Arrays.asList(slots).iterator();
     return map.valueIterator();
   }
 
@@ -154,7 +314,28 @@ final public class DictValue {
     if (o == null) return false;
     if (o.getClass() == getClass()) {
       DictValue that = (DictValue) o;
-      return map.equals(that.map);
+
+      if (!isRecord() && !that.isRecord()){
+        return map.equals(that.map);
+      }
+
+      if (shape == that.shape){
+        for (int i = 0; i < slots.length; i++) {
+          if (!valueAt(i).equals(that.valueAt(i))) return false;
+        }
+        return true;
+      }
+
+      if (size() != that.size()) return false;
+
+      Iterator<Map.Entry<String, Value>> iter = entryIterator();
+      while (iter.hasNext()){
+        Map.Entry<String, Value> e = iter.next();
+        if (!that.containsKey(e.getKey())) return false;
+        if (!e.getValue().equals(that.get(e.getKey()))) return false;
+      }
+      return true;
+
     } else {
       return false;
     }
@@ -162,6 +343,24 @@ final public class DictValue {
   }
 
   public int hashCode() {
-    return map.hashCode();
+
+    // hashes must match across representations, so all of them sum entry hashes
+    // the way java.util.Map does, records without turning into a hash map
+    // lazy records do not keep values loaded for hashing
+    int h = 0;
+
+    if (isRecord()){
+      for (int i = 0; i < slots.length; i++) {
+        h += shape.keyAt(i).hashCode() ^ peekAt(i).hashCode();
+      }
+      return h;
+    }
+
+    Iterator<Map.Entry<String, Value>> iter = map.entryIterator();
+    while (iter.hasNext()){
+      Map.Entry<String, Value> e = iter.next();
+      h += e.getKey().hashCode() ^ e.getValue().hashCode();
+    }
+    return h;
   }
 }
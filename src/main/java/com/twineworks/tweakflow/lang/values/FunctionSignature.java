@@ -95,7 +95,7 @@ public class FunctionSignature {
     if (value == null){
       TransientDictValue dict = new TransientDictValue();
       dict.put("return_type", Values.make(returnType.name()));
-      ListValue paramList = new ListValue();
+      TransientListValue paramList = new TransientListValue(parameterList.size());
 
       for (FunctionParameter parameter : parameterList) {
         TransientDictValue paramDict = new TransientDictValue();
@@ -103,10 +103,10 @@ public class FunctionSignature {
         paramDict.put("index", Values.make(parameter.getIndex()));
         paramDict.put("declared_type", Values.make(parameter.getDeclaredType().name()));
         paramDict.put("default_value", parameter.getDefaultValue());
-        paramList = paramList.append(Values.make(paramDict.persistent()));
+        paramList.append(Values.make(paramDict.persistent()));
       }
 
-      dict.put("parameters", Values.make(paramList));
+      dict.put("parameters", Values.make(paramList.persistent()));
       value = Values.make(dict.persistent());
     }
     return value;
@@ -24,41 +24,304 @@
 
 package com.twineworks.tweakflow.lang.values;
 
-import com.twineworks.collections.trie.TrieList;
 import com.twineworks.tweakflow.lang.errors.LangError;
 import com.twineworks.tweakflow.lang.errors.LangException;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
 
+/**
+ * A persistent list of values.
+ *
+ * Boxed values are held in an {@link RrbList}, which concatenates, slices, inserts and deletes in
+ * logarithmic time.
+ *
+ * Lists of longs or doubles may be held as a range of a primitive array instead of boxed values.
+ * Ranges of consecutive longs and repetitions of a single value are virtual, and compute their
+ * elements from their bounds. Elements of such compact lists are boxed on access. Slicing a compact
+ * list shares its storage. Appending or setting a number of the same type keeps a primitive list
+ * primitive. Other structural changes return a boxed list, and leave the compact list as it is.
+ * Lazy lists load their elements through a function on first access, and keep them once loaded.
+ * All representations compare equal and behave the same.
+ */
 final public class ListValue implements Iterable<Value> {
 
-  private final TrieList vec;
+  // primitive lists with fewer elements are kept boxed
+  static final int MIN_PRIMITIVE_SIZE = 32;
+
+  // boxed values, null if the list is compact
+  private final RrbList vec;
+
+  // primitive values in [offset, offset+size) of either array
+  private final long[] longs;
+  private final double[] doubles;
+
+  // end of the used part of an array with room to grow, null if the array is full
+  // a list ending there appends in place by moving the end, other lists copy the array
+  private final AtomicInteger fill;
+
+  // virtual lists: the longs start+offset to start+offset+size-1, or repeated size times
+  private final boolean range;
+  private final long start;
+  private final Value repeated;
+
+  // lazy lists: elements are loaded on first access and kept in loaded
+  private final IntFunction<Value> loader;
+  private final Value[] loaded;
+
+  private final int offset;
+  private final int size;
+
+  private ListValue(RrbList vec) {
+    this(vec, null, null, null, false, 0L, null, null, null, 0, 0);
+  }
 
-  private ListValue(TrieList vec) {
+  private ListValue(long[] longs, double[] doubles, int offset, int size) {
+    this(longs, doubles, null, offset, size);
+  }
+
+  private ListValue(long[] longs, double[] doubles, AtomicInteger fill, int offset, int size) {
+    this(null, longs, doubles, fill, false, 0L, null, null, null, offset, size);
+  }
+
+  private ListValue(RrbList vec, long[] longs, double[] doubles, AtomicInteger fill, boolean range, long start, Value repeated, IntFunction<Value> loader, Value[] loaded, int offset, int size) {
     this.vec = vec;
+    this.longs = longs;
+    this.doubles = doubles;
+    this.fill = fill;
+    this.range = range;
+    this.start = start;
+    this.repeated = repeated;
+    this.loader = loader;
+    this.loaded = loaded;
+    this.offset = offset;
+    this.size = size;
   }
 
   public ListValue() {
-    this(TrieList.empty());
+    this(RrbList.empty());
   }
 
   public ListValue(List<Value> values) {
-    this.vec = TrieList.empty().addAll(values.toArray());
+    this(build(values.toArray()));
   }
 
   public ListValue(Value[] values) {
-    this.vec = TrieList.empty().addAll(values);
+    this(build(values));
   }
 
   ListValue(Object[] values) {
-    this.vec = TrieList.empty().addAll(values);
+    this(build(values));
   }
 
   public ListValue(Collection<Value> values) {
-    this.vec = TrieList.empty().addAll(values.toArray());
+    this(build(values.toArray()));
+  }
+
+  private static RrbList build(Object[] values) {
+    Allocations.accountListItems(values.length);
+    return RrbList.empty().addAll(values);
+  }
+
+  // a list of longs computed by f for indexes 0 to size-1, in order
+  public static ListValue ofLongs(int size, IntToLongFunction f) {
+    Allocations.accountListItems(size);
+    if (size <= 0) return new ListValue();
+    long[] items = new long[size];
+    for (int i = 0; i < size; i++) {
+      items[i] = f.applyAsLong(i);
+    }
+    if (size < MIN_PRIMITIVE_SIZE) return new ListValue(boxAll(items));
+    return new ListValue(items, null, 0, size);
+  }
+
+  // a list of doubles computed by f for indexes 0 to size-1, in order
+  public static ListValue ofDoubles(int size, IntToDoubleFunction f) {
+    Allocations.accountListItems(size);
+    if (size <= 0) return new ListValue();
+    double[] items = new double[size];
+    for (int i = 0; i < size; i++) {
+      items[i] = f.applyAsDouble(i);
+    }
+    if (size < MIN_PRIMITIVE_SIZE) return new ListValue(boxAll(items));
+    return new ListValue(null, items, 0, size);
+  }
+
+  // the size longs from start to start+size-1, computed on access
+  public static ListValue range(long start, int size) {
+    if (size <= 0) return new ListValue();
+    return new ListValue(null, null, null, null, true, start, null, null, null, 0, size);
+  }
+
+  // x repeated size times, computed on access
+  public static ListValue repeat(int size, Value x) {
+    if (size <= 0) return new ListValue();
+    return new ListValue(null, null, null, null, false, 0L, x, null, null, 0, size);
+  }
+
+  // the size values items.apply(0) to items.apply(size-1), each loaded on first access
+  // items must return the same value for the same index, and may be called concurrently
+  public static ListValue lazy(int size, IntFunction<Value> items) {
+    if (size <= 0) return new ListValue();
+    return new ListValue(null, null, null, null, false, 0L, null, items, new Value[size], 0, size);
+  }
+
+  private static RrbList boxAll(long[] items) {
+    Object[] ret = new Object[items.length];
+    for (int i = 0; i < items.length; i++) {
+      ret[i] = Values.make(items[i]);
+    }
+    return RrbList.empty().addAll(ret);
+  }
+
+  private static RrbList boxAll(double[] items) {
+    Object[] ret = new Object[items.length];
+    for (int i = 0; i < items.length; i++) {
+      ret[i] = Values.make(items[i]);
+    }
+    return RrbList.empty().addAll(ret);
+  }
+
+  // returns a primitive list of the first count items if all of them are longs or all are doubles, null otherwise
+  // items are accounted for already
+  static ListValue primitiveOf(Value[] items, int count) {
+
+    if (count < MIN_PRIMITIVE_SIZE || items[0] == null) return null;
+
+    if (items[0].isLongNum()){
+      long[] ret = new long[count];
+      for (int i = 0; i < count; i++) {
+        Value item = items[i];
+        if (item == null || !item.isLongNum()) return null;
+        ret[i] = item.longNum();
+      }
+      return new ListValue(ret, null, 0, count);
+    }
+
+    if (items[0].isDoubleNum()){
+      double[] ret = new double[count];
+      for (int i = 0; i < count; i++) {
+        Value item = items[i];
+        if (item == null || !item.isDoubleNum()) return null;
+        ret[i] = item.doubleNum();
+      }
+      return new ListValue(null, ret, 0, count);
+    }
+
+    return null;
+  }
+
+  public boolean isLongList() {
+    return longs != null || range;
+  }
+
+  public boolean isDoubleList() {
+    return doubles != null;
+  }
+
+  // element at index of a long list, no bounds checks
+  public long longAt(int index) {
+    if (range) return start + offset + index;
+    return longs[offset + index];
+  }
+
+  // element at index of a double list, no bounds checks
+  public double doubleAt(int index) {
+    return doubles[offset + index];
+  }
+
+  private boolean isCompact() {
+    return vec == null;
+  }
+
+  private boolean isVirtual() {
+    return range || repeated != null || loader != null;
+  }
+
+  private Value boxedAt(int index) {
+    if (repeated != null) return repeated;
+    if (loader != null){
+      Value ret = loaded[offset + index];
+      if (ret == null){
+        ret = loader.apply(offset + index);
+        loaded[offset + index] = ret;
+      }
+      return ret;
+    }
+    if (doubles != null) return Values.make(doubles[offset + index]);
+    return Values.make(longAt(index));
+  }
+
+  // element at index, lazy lists load it without keeping it
+  private Value peekAt(int index) {
+    if (loader != null){
+      Value ret = loaded[offset + index];
+      return ret == null ? loader.apply(offset + index) : ret;
+    }
+    return boxedAt(index);
+  }
+
+  // boxed values for a structural change, compact lists box their elements into a new tree
+  // the tree is not kept, so a compact list does not hold its elements twice
+  private RrbList tree() {
+    if (vec != null) return vec;
+    // virtual lists allocate their items only now
+    if (isVirtual()) Allocations.accountListItems(size);
+    Object[] items = new Object[size];
+    for (int i = 0; i < size; i++) {
+      items[i] = boxedAt(i);
+    }
+    return RrbList.empty().addAll(items);
+  }
+
+  private static int grown(int size) {
+    return size + (size >> 1) + 1;
+  }
+
+  // a long list with x appended, in place if this list ends where its array is filled
+  private ListValue appendLong(long x) {
+    int end = offset + size;
+    if (longs != null && fill != null && end < longs.length && fill.compareAndSet(end, end + 1)){
+      longs[end] = x;
+      return new ListValue(longs, null, fill, offset, size + 1);
+    }
+    long[] ret = new long[grown(size)];
+    for (int i = 0; i < size; i++) {
+      ret[i] = longAt(i);
+    }
+    ret[size] = x;
+    return new ListValue(ret, null, new AtomicInteger(size + 1), 0, size + 1);
+  }
+
+  // a double list with x appended, in place if this list ends where its array is filled
+  private ListValue appendDouble(double x) {
+    int end = offset + size;
+    if (fill != null && end < doubles.length && fill.compareAndSet(end, end + 1)){
+      doubles[end] = x;
+      return new ListValue(null, doubles, fill, offset, size + 1);
+    }
+    double[] ret = Arrays.copyOfRange(doubles, offset, offset + grown(size));
+    ret[size] = x;
+    return new ListValue(null, ret, new AtomicInteger(size + 1), 0, size + 1);
+  }
+
+  // a compact list of [from, to), sharing the storage
+  private ListValue view(int from, int to) {
+    if (from == 0 && to == size) return this;
+    if (from >= to) return new ListValue(RrbList.empty());
+    return new ListValue(null, longs, doubles, fill, range, start, repeated, loader, loaded, offset + from, to - from);
   }
 
   public Value get(long index) {
+
+    if (isCompact()){
+      if (index >= 0 && index < size) return boxedAt((int) index);
+      return Values.NIL;
+    }
+
     if (index >= 0 && index < vec.size()){
       Value value = (Value) vec.get((int)index);
       if (value == null) return Values.NIL;
@@ -72,152 +335,338 @@ final public class ListValue implements Iterable<Value> {
 
     if (index > Integer.MAX_VALUE || index < 0L) throw new LangException(LangError.INDEX_OUT_OF_BOUNDS, "cannot set index "+index);
 
-    TrieList ret = vec;
+    if (index < size && isLongList() && value.isLongNum()){
+      Allocations.accountListItems(size);
+      long[] ret = new long[size];
+      for (int i = 0; i < size; i++) {
+        ret[i] = longAt(i);
+      }
+      ret[(int) index] = value.longNum();
+      return new ListValue(ret, null, 0, size);
+    }
+
+    if (index < size && doubles != null && value.isDoubleNum()){
+      Allocations.accountListItems(size);
+      double[] ret = Arrays.copyOfRange(doubles, offset, offset + size);
+      ret[(int) index] = value.doubleNum();
+      return new ListValue(null, ret, 0, size);
+    }
+
+    RrbList ret = tree();
 
-    if (index >= vec.size()){
+    if (index >= ret.size()){
+      Allocations.accountListItems(index - ret.size());
       ret = ret.padTo((int)index, Values.NIL).add(value);
     }
     else{
       ret = ret.set((int)index, value);
     }
 
+    Allocations.accountListItems(1);
+
     return new ListValue(ret);
   }
 
   public boolean isEmpty() {
-    return vec.isEmpty();
+    return size() == 0;
   }
 
   public ListValue append(Value v) {
-    return new ListValue(vec.add(v));
+    Allocations.accountListItems(1);
+    if (isLongList() && v.isLongNum()) return appendLong(v.longNum());
+    if (doubles != null && v.isDoubleNum()) return appendDouble(v.doubleNum());
+    return new ListValue(tree().add(v));
   }
 
   public ListValue appendAll(List<? extends Value> values) {
-    return new ListValue(vec.addAll(values.toArray()));
+    Allocations.accountListItems(values.size());
+    return new ListValue(tree().addAll(values.toArray()));
   }
 
   public ListValue appendAll(Value[] values) {
-    return new ListValue(vec.addAll(values));
+    Allocations.accountListItems(values.length);
+    return new ListValue(tree().addAll(values));
+  }
+
+  // appends items a transient list has accounted for already
+  ListValue appendAccounted(Object[] items) {
+    if (items.length == 0) return this;
+    return new ListValue(tree().addAll(items));
   }
 
   public ListValue appendAll(ListValue values) {
-    return new ListValue(vec.addAll(values.vec));
+    Allocations.accountListItems(values.size());
+
+    if (values.isEmpty()) return this;
+    if (isEmpty()) return values;
+
+    if (range && values.range && start + offset + size == values.start + values.offset && size + values.size > 0){
+      return new ListValue(null, null, null, null, true, start + offset, null, null, null, 0, size + values.size);
+    }
+
+    if (isLongList() && values.isLongList()){
+      long[] ret = new long[size + values.size];
+      for (int i = 0; i < size; i++) {
+        ret[i] = longAt(i);
+      }
+      for (int i = 0; i < values.size; i++) {
+        ret[size + i] = values.longAt(i);
+      }
+      return new ListValue(ret, null, 0, ret.length);
+    }
+
+    if (doubles != null && values.doubles != null){
+      double[] ret = Arrays.copyOfRange(doubles, offset, offset + size + values.size);
+      System.arraycopy(values.doubles, values.offset, ret, size, values.size);
+      return new ListValue(null, ret, 0, ret.length);
+    }
+
+    return new ListValue(tree().addAll(values.tree()));
   }
 
   public ListValue prepend(Value x) {
-    return new ListValue(vec.insert(0, x));
+    Allocations.accountListItems(size() + 1);
+    return new ListValue(tree().insert(0, x));
   }
 
   public ListValue padTo(long length, Value withValue) {
     if (length > Integer.MAX_VALUE) throw new LangException(LangError.INDEX_OUT_OF_BOUNDS, "cannot pad to length "+length);
-    return new ListValue(vec.padTo((int)length, withValue));
+    if (length > size()) Allocations.accountListItems(length - size());
+    return new ListValue(tree().padTo((int)length, withValue));
   }
   
   public ListValue insert(long idx, Value value) {
     if (idx >= Integer.MAX_VALUE) throw new LangException(LangError.INDEX_OUT_OF_BOUNDS, "cannot insert at index "+idx);
-    TrieList ret = vec;
-    if (idx > vec.size()){
+    RrbList ret = tree();
+    int size = ret.size();
+    if (idx > size){
       ret = ret.padTo((int)idx, Values.NIL);
     }
 
+    Allocations.accountListItems(Math.max(idx, size) + 1);
     ret = ret.insert((int)idx, value);
 
     return new ListValue(ret);
   }
 
   public ListValue delete(long idx) {
-    if (idx >= vec.size()) return this;
+    if (idx >= size()) return this;
     if (idx < 0) return this;
-    return new ListValue(vec.remove((int)idx));
+    Allocations.accountListItems(size());
+    return new ListValue(tree().remove((int)idx));
   }
 
   public ListValue take(int n) {
-    return new ListValue(vec.slice(0, Math.min(n, vec.size())));
+    int size = size();
+    Allocations.accountListItems(Math.min(n, size));
+    if (isCompact() && n >= 0) return view(0, Math.min(n, size));
+    return new ListValue(tree().slice(0, Math.min(n, size)));
   }
 
   public ListValue drop(int n) {
     if (n == 0) return this;
-    return new ListValue(vec.slice(Math.min(n, vec.size()), vec.size()));
+    int size = size();
+    Allocations.accountListItems(size - Math.min(n, size));
+    if (isCompact() && n > 0) return view(Math.min(n, size), size);
+    return new ListValue(tree().slice(Math.min(n, size), size));
   }
 
   public ListValue init() {
-    if (vec.size() == 0){
+    int size = size();
+    if (size == 0){
       return this;
     }
-    if (vec.size() == 1){
-      return new ListValue(TrieList.empty());
+    if (size == 1){
+      return new ListValue(RrbList.empty());
     }
-    return new ListValue(vec.slice(0, vec.size()-1));
+    Allocations.accountListItems(size-1);
+    if (isCompact()) return view(0, size-1);
+    return new ListValue(vec.slice(0, size-1));
   }
 
   public ListValue tail() {
-    if (vec.size() == 0){
+    int size = size();
+    if (size == 0){
       return this;
     }
-    if (vec.size() == 1){
-      return new ListValue(TrieList.empty());
+    if (size == 1){
+      return new ListValue(RrbList.empty());
     }
-    return new ListValue(vec.slice(1, vec.size()));
+    Allocations.accountListItems(size-1);
+    if (isCompact()) return view(1, size);
+    return new ListValue(vec.slice(1, size));
   }
 
   public ListValue reverse() {
 
-    if (vec.isEmpty()) return this;
+    if (isEmpty()) return this;
 
-    TrieList ret = TrieList.empty();
-    for(Iterator iterator = vec.reverseIterator(); iterator.hasNext();){
-      ret = ret.add(iterator.next());
+    if (repeated != null) return this;
+
+    Allocations.accountListItems(size());
+
+    if (isLongList()){
+      long[] ret = new long[size];
+      for (int i = 0; i < size; i++) {
+        ret[i] = longAt(size - 1 - i);
+      }
+      return new ListValue(ret, null, 0, size);
     }
-    return new ListValue(ret);
+
+    if (doubles != null){
+      double[] ret = new double[size];
+      for (int i = 0; i < size; i++) {
+        ret[i] = doubles[offset + size - 1 - i];
+      }
+      return new ListValue(null, ret, 0, size);
+    }
+
+    Object[] items = isCompact() ? toArray() : vec.toArray();
+    for (int i = 0, j = items.length - 1; i < j; i++, j--) {
+      Object item = items[i];
+      items[i] = items[j];
+      items[j] = item;
+    }
+    return new ListValue(RrbList.empty().addAll(items));
   }
 
   public Value head() {
+    if (isCompact()) return boxedAt(0);
     return (Value) vec.get(0);
   }
 
   public Value last() {
+    if (isCompact()) return boxedAt(size-1);
     return (Value) vec.get(vec.size()-1);
   }
 
   public ListValue slice(int startIndex, int endIndex) {
-    return new ListValue(vec.slice(startIndex, endIndex));
+    Allocations.accountListItems(Math.max(endIndex - startIndex, 0));
+    if (isCompact() && startIndex >= 0 && startIndex <= endIndex && endIndex <= size){
+      return view(startIndex, endIndex);
+    }
+    return new ListValue(tree().slice(startIndex, endIndex));
+  }
+
+  // index of the first element in [from, to) that is identical to x, or -1
+  private int primitiveIndexOf(Value x, int from, int to) {
+    if (repeated != null){
+      if (from < to && repeated.equals(x)) return from;
+    }
+    else if (range && x.isLongNum()){
+      long i = x.longNum() - (start + offset);
+      if (i >= from && i < to) return (int) i;
+    }
+    else if (longs != null && x.isLongNum()){
+      long n = x.longNum();
+      for (int i = from; i < to; i++) {
+        if (longs[offset + i] == n) return i;
+      }
+    }
+    else if (doubles != null && x.isDoubleNum()){
+      double d = x.doubleNum();
+      boolean nan = Double.isNaN(d);
+      for (int i = from; i < to; i++) {
+        double e = doubles[offset + i];
+        if (e == d || nan && Double.isNaN(e)) return i;
+      }
+    }
+    else if (loader != null){
+      for (int i = from; i < to; i++) {
+        if (boxedAt(i).equals(x)) return i;
+      }
+    }
+    return -1;
+  }
+
+  // index of the last element in [0, end] that is identical to x, or -1
+  private int primitiveLastIndexOf(Value x, int end) {
+    if (repeated != null){
+      if (end >= 0 && repeated.equals(x)) return end;
+    }
+    else if (range && x.isLongNum()){
+      long i = x.longNum() - (start + offset);
+      if (i >= 0 && i <= end) return (int) i;
+    }
+    else if (longs != null && x.isLongNum()){
+      long n = x.longNum();
+      for (int i = end; i >= 0; i--) {
+        if (longs[offset + i] == n) return i;
+      }
+    }
+    else if (doubles != null && x.isDoubleNum()){
+      double d = x.doubleNum();
+      boolean nan = Double.isNaN(d);
+      for (int i = end; i >= 0; i--) {
+        double e = doubles[offset + i];
+        if (e == d || nan && Double.isNaN(e)) return i;
+      }
+    }
+    else if (loader != null){
+      for (int i = end; i >= 0; i--) {
+        if (boxedAt(i).equals(x)) return i;
+      }
+    }
+    return -1;
   }
 
   public Value indexOf(Value x) {
+    if (isCompact()) return Values.make(primitiveIndexOf(x, 0, size));
     return Values.make(vec.indexOf(x));
   }
 
   public Value indexOf(Value x, long from) {
     if (from > Integer.MAX_VALUE) return Values.LONG_NEG_ONE;
+    if (isCompact()) return Values.make(primitiveIndexOf(x, Math.max((int) from, 0), size));
     return Values.make(vec.indexOf(x, Math.max((int) from, 0)));
   }
   
   public Value lastIndexOf(Value x) {
+    if (isCompact()) return Values.make(primitiveLastIndexOf(x, size-1));
     return Values.make(vec.lastIndexOf(x));
   }
 
   public Value lastIndexOf(Value x, long end) {
     if (end >= Integer.MAX_VALUE) return Values.LONG_NEG_ONE;
+    if (isCompact()) return Values.make(primitiveLastIndexOf(x, Math.min(size-1, (int)end)));
     return Values.make(vec.lastIndexOf(x, Math.min(vec.size()-1, (int)end)));
   }
 
   public int size() {
+    if (isCompact()) return size;
     return vec.size();
   }
 
   public boolean containsValue(Value value) {
+    if (isCompact()) return primitiveIndexOf(value, 0, size) >= 0;
     return vec.contains(value);
   }
 
   @SuppressWarnings("unchecked")
   public ListValue sort(Comparator comparator){
-    Object[] values = vec.toArray();
+    Object[] values = isCompact() ? toArray() : vec.toArray();
     Arrays.sort(values, comparator);
     return new ListValue(values);
   }
 
   public Iterator<Value> iterator() {
 
+    if (isCompact()){
+      return new Iterator<Value>() {
+
+        private int i = 0;
+
+        public boolean hasNext() {
+          return i < size;
+        }
+
+        public Value next() {
+          if (i >= size) throw new NoSuchElementException();
+          return boxedAt(i++);
+        }
+      };
+    }
+
     // basic iterator implementation that allows basic traversal only
     Iterator internalIterator = vec.iterator();
 
@@ -260,11 +709,87 @@ final public class ListValue implements Iterable<Value> {
 
     if (!(o instanceof ListValue)) return false;
     ListValue values = (ListValue) o;
-    return vec.equals(values.vec);
+
+    if (!isCompact() && !values.isCompact()){
+      return vec.equals(values.vec);
+    }
+
+    int size = size();
+    if (size != values.size()) return false;
+
+    if (range && values.range){
+      return start + offset == values.start + values.offset;
+    }
+
+    if (repeated != null && values.repeated != null){
+      return repeated.equals(values.repeated);
+    }
+
+    if (isLongList() && values.isLongList()){
+      for (int i = 0; i < size; i++) {
+        if (longAt(i) != values.longAt(i)) return false;
+      }
+      return true;
+    }
+
+    if (doubles != null && values.doubles != null){
+      for (int i = 0; i < size; i++) {
+        double a = doubles[offset + i];
+        double b = values.doubles[values.offset + i];
+        if (a != b && !(Double.isNaN(a) && Double.isNaN(b))) return false;
+      }
+      return true;
+    }
+
+    for (int i = 0; i < size; i++) {
+      if (!get(i).equals(values.get(i))) return false;
+    }
+    return true;
 
   }
 
   public int hashCode() {
-    return vec.hashCode();
+
+    // hashes must match across representations, so all of them combine element hashes
+    // the way java.util.List does, longs and doubles hashing as LongType and DoubleType do
+    int h = 1;
+
+    if (vec != null){
+      Iterator items = vec.iterator();
+      while (items.hasNext()){
+        Object item = items.next();
+        h = 31 * h + (item == null ? Values.NIL : item).hashCode();
+      }
+      return h;
+    }
+
+    // ranges hash their elements as they are computed
+    if (isLongList()){
+      for (int i = 0; i < size; i++) {
+        h = 31 * h + Double.hashCode((double) longAt(i));
+      }
+      return h;
+    }
+
+    if (repeated != null){
+      int e = repeated.hashCode();
+      for (int i = 0; i < size; i++) {
+        h = 31 * h + e;
+      }
+      return h;
+    }
+
+    if (doubles != null){
+      for (int i = 0; i < size; i++) {
+        h = 31 * h + Double.hashCode(doubles[offset + i]);
+      }
+      return h;
+    }
+
+    // lazy lists do not keep elements loaded for hashing
+    for (int i = 0; i < size; i++) {
+      h = 31 * h + peekAt(i).hashCode();
+    }
+    return h;
   }
 }
@@ -0,0 +1,487 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A persistent list stored as a relaxed radix balanced tree.
+ *
+ * Branches keep a table of cumulative child sizes, so their children need not be full. This allows
+ * concatenation, splitting, insertion and deletion in logarithmic time by joining and splitting trees
+ * along their edges instead of copying elements. All nodes but the root hold between half and all of
+ * their capacity, which bounds the height of the tree and keeps indexed access near-constant.
+ * Appended items are collected in a tail, which joins the tree as a full leaf.
+ */
+final class RrbList implements Iterable<Object> {
+
+  // node capacity
+  private static final int M = 32;
+
+  // minimum width of non-root nodes
+  private static final int MIN = M / 2;
+
+  private static final Object[] NO_ITEMS = new Object[0];
+  private static final Node EMPTY_NODE = new Node(NO_ITEMS);
+  private static final RrbList EMPTY = new RrbList(EMPTY_NODE, NO_ITEMS);
+
+  private static final class Node {
+
+    final int height;
+
+    // items of a leaf, null for branches
+    final Object[] items;
+
+    // children of a branch and their cumulative sizes, null for leaves
+    final Node[] children;
+    final int[] sizes;
+
+    Node(Object[] items) {
+      this.height = 0;
+      this.items = items;
+      this.children = null;
+      this.sizes = null;
+    }
+
+    Node(Node[] children) {
+      this.height = children[0].height + 1;
+      this.items = null;
+      this.children = children;
+      this.sizes = new int[children.length];
+      int size = 0;
+      for (int i = 0; i < children.length; i++) {
+        size += children[i].size();
+        sizes[i] = size;
+      }
+    }
+
+    boolean isLeaf() {
+      return items != null;
+    }
+
+    int size() {
+      if (items != null) return items.length;
+      return sizes[sizes.length - 1];
+    }
+
+    int width() {
+      if (items != null) return items.length;
+      return children.length;
+    }
+
+    // index of the child holding index i
+    int childIndex(int i) {
+      int c = (int) ((long) i * children.length / size());
+      while (c > 0 && sizes[c - 1] > i) c--;
+      while (sizes[c] <= i) c++;
+      return c;
+    }
+
+    // number of items in children before child c
+    int offset(int c) {
+      return c == 0 ? 0 : sizes[c - 1];
+    }
+  }
+
+  private final Node root;
+  private final Object[] tail;
+  private final int rootSize;
+
+  private RrbList(Node root, Object[] tail) {
+    this.root = root;
+    this.tail = tail;
+    this.rootSize = root.size();
+  }
+
+  static RrbList empty() {
+    return EMPTY;
+  }
+
+  int size() {
+    return rootSize + tail.length;
+  }
+
+  Object get(int i) {
+    if (i >= rootSize) return tail[i - rootSize];
+    Node n = root;
+    while (!n.isLeaf()) {
+      int c = n.childIndex(i);
+      i -= n.offset(c);
+      n = n.children[c];
+    }
+    return n.items[i];
+  }
+
+  RrbList set(int i, Object x) {
+    if (i >= rootSize){
+      Object[] t = tail.clone();
+      t[i - rootSize] = x;
+      return new RrbList(root, t);
+    }
+    return new RrbList(set(root, i, x), tail);
+  }
+
+  RrbList add(Object x) {
+    if (tail.length < M){
+      Object[] t = Arrays.copyOf(tail, tail.length + 1);
+      t[tail.length] = x;
+      return new RrbList(root, t);
+    }
+    return new RrbList(join(root, new Node(tail)), new Object[]{x});
+  }
+
+  RrbList addAll(Object[] xs) {
+    if (xs.length == 0) return this;
+    if (tail.length + xs.length <= M){
+      Object[] t = Arrays.copyOf(tail, tail.length + xs.length);
+      System.arraycopy(xs, 0, t, tail.length, xs.length);
+      return new RrbList(root, t);
+    }
+    return new RrbList(join(flat(), build(xs, 0, xs.length)), NO_ITEMS);
+  }
+
+  RrbList addAll(RrbList xs) {
+    if (xs.size() == 0) return this;
+    if (size() == 0) return xs;
+    return new RrbList(join(flat(), xs.root), xs.tail);
+  }
+
+  RrbList padTo(int length, Object x) {
+    int size = size();
+    if (length <= size) return this;
+    Object[] xs = new Object[length - size];
+    Arrays.fill(xs, x);
+    return addAll(xs);
+  }
+
+  RrbList insert(int i, Object x) {
+    if (i >= rootSize && tail.length < M){
+      int at = i - rootSize;
+      Object[] t = new Object[tail.length + 1];
+      System.arraycopy(tail, 0, t, 0, at);
+      t[at] = x;
+      System.arraycopy(tail, at, t, at + 1, tail.length - at);
+      return new RrbList(root, t);
+    }
+    Node[] r = insert(flat(), i, x);
+    return new RrbList(r.length == 1 ? r[0] : new Node(r), NO_ITEMS);
+  }
+
+  RrbList remove(int i) {
+    if (i >= rootSize){
+      int at = i - rootSize;
+      Object[] t = new Object[tail.length - 1];
+      System.arraycopy(tail, 0, t, 0, at);
+      System.arraycopy(tail, at + 1, t, at, tail.length - at - 1);
+      return new RrbList(root, t);
+    }
+    return new RrbList(join(take(root, i), drop(root, i + 1)), tail);
+  }
+
+  // items in [from, to), bounds are clamped to the list
+  RrbList slice(int from, int to) {
+    from = Math.max(from, 0);
+    to = Math.min(to, size());
+    if (from >= to) return EMPTY;
+    if (from == 0 && to == size()) return this;
+    Node n = flat();
+    return new RrbList(take(drop(n, from), to - from), NO_ITEMS);
+  }
+
+  boolean contains(Object x) {
+    return indexOf(x, 0) >= 0;
+  }
+
+  int indexOf(Object x) {
+    return indexOf(x, 0);
+  }
+
+  int indexOf(Object x, int from) {
+    int size = size();
+    int[] start = new int[1];
+    for (int i = from; i < size; ) {
+      Object[] items = leaf(i, start);
+      for (int j = i - start[0]; j < items.length; j++) {
+        if (Objects.equals(items[j], x)) return start[0] + j;
+      }
+      i = start[0] + items.length;
+    }
+    return -1;
+  }
+
+  int lastIndexOf(Object x) {
+    return lastIndexOf(x, size() - 1);
+  }
+
+  int lastIndexOf(Object x, int end) {
+    int[] start = new int[1];
+    for (int i = end; i >= 0; ) {
+      Object[] items = leaf(i, start);
+      for (int j = i - start[0]; j >= 0; j--) {
+        if (Objects.equals(items[j], x)) return start[0] + j;
+      }
+      i = start[0] - 1;
+    }
+    return -1;
+  }
+
+  Object[] toArray() {
+    Object[] ret = new Object[size()];
+    int[] start = new int[1];
+    for (int i = 0; i < ret.length; ) {
+      Object[] items = leaf(i, start);
+      System.arraycopy(items, 0, ret, i, items.length);
+      i += items.length;
+    }
+    return ret;
+  }
+
+  @Override
+  public Iterator<Object> iterator() {
+
+    return new Iterator<Object>() {
+
+      private final int size = size();
+      private final int[] start = new int[1];
+      private Object[] items = NO_ITEMS;
+      private int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < size;
+      }
+
+      @Override
+      public Object next() {
+        if (i >= size) throw new NoSuchElementException();
+        int j = i - start[0];
+        if (j >= items.length){
+          items = leaf(i, start);
+          j = 0;
+        }
+        i++;
+        return items[j];
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof RrbList)) return false;
+    RrbList that = (RrbList) o;
+    if (size() != that.size()) return false;
+    Iterator<Object> a = iterator();
+    Iterator<Object> b = that.iterator();
+    while (a.hasNext()) {
+      if (!Objects.equals(a.next(), b.next())) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int h = 1;
+    for (Object x : this) {
+      h = 31 * h + Objects.hashCode(x);
+    }
+    return h;
+  }
+
+  // the items of the leaf or tail holding index i, sets start[0] to the index of its first item
+  private Object[] leaf(int i, int[] start) {
+    if (i >= rootSize){
+      start[0] = rootSize;
+      return tail;
+    }
+    int offset = 0;
+    Node n = root;
+    while (!n.isLeaf()) {
+      int c = n.childIndex(i - offset);
+      offset += n.offset(c);
+      n = n.children[c];
+    }
+    start[0] = offset;
+    return n.items;
+  }
+
+  // the tree holding all items, including the tail
+  private Node flat() {
+    if (tail.length == 0) return root;
+    return join(root, new Node(tail));
+  }
+
+  private static Node set(Node n, int i, Object x) {
+    if (n.isLeaf()){
+      Object[] items = n.items.clone();
+      items[i] = x;
+      return new Node(items);
+    }
+    int c = n.childIndex(i);
+    Node[] children = n.children.clone();
+    children[c] = set(children[c], i - n.offset(c), x);
+    return new Node(children);
+  }
+
+  // inserts x at index i, returns one node, or two if n overflows
+  private static Node[] insert(Node n, int i, Object x) {
+    if (n.isLeaf()){
+      Object[] items = new Object[n.items.length + 1];
+      System.arraycopy(n.items, 0, items, 0, i);
+      items[i] = x;
+      System.arraycopy(n.items, i, items, i + 1, n.items.length - i);
+      return leaves(items);
+    }
+    int c = i == n.size() ? n.children.length - 1 : n.childIndex(i);
+    Node[] r = insert(n.children[c], i - n.offset(c), x);
+    Node[] children = new Node[n.children.length + r.length - 1];
+    System.arraycopy(n.children, 0, children, 0, c);
+    System.arraycopy(r, 0, children, c, r.length);
+    System.arraycopy(n.children, c + 1, children, c + r.length, n.children.length - c - 1);
+    return branches(children);
+  }
+
+  // the first k items of n
+  private static Node take(Node n, int k) {
+    if (k >= n.size()) return n;
+    if (k <= 0) return EMPTY_NODE;
+    if (n.isLeaf()) return new Node(Arrays.copyOf(n.items, k));
+    int c = n.childIndex(k - 1);
+    Node part = take(n.children[c], k - n.offset(c));
+    if (c == 0) return part;
+    return join(branch(n.children, 0, c), part);
+  }
+
+  // all but the first k items of n
+  private static Node drop(Node n, int k) {
+    if (k <= 0) return n;
+    if (k >= n.size()) return EMPTY_NODE;
+    if (n.isLeaf()) return new Node(Arrays.copyOfRange(n.items, k, n.items.length));
+    int c = n.childIndex(k);
+    Node part = drop(n.children[c], k - n.offset(c));
+    if (c == n.children.length - 1) return part;
+    return join(part, branch(n.children, c + 1, n.children.length));
+  }
+
+  // a tree of children [from, to), collapsed to the child if there is only one
+  private static Node branch(Node[] children, int from, int to) {
+    if (to - from == 1) return children[from];
+    return new Node(Arrays.copyOfRange(children, from, to));
+  }
+
+  // joins trees a and b, all nodes but their roots must be at least half full
+  private static Node join(Node a, Node b) {
+    if (a.size() == 0) return b;
+    if (b.size() == 0) return a;
+    Node[] r = a.height >= b.height ? joinRight(a, b) : joinLeft(a, b);
+    if (r.length == 1) return r[0];
+    return new Node(r);
+  }
+
+  // joins b into the right edge of the taller a, returns nodes of the height of a
+  private static Node[] joinRight(Node a, Node b) {
+    if (a.height == b.height) return merge(a, b);
+    int last = a.children.length - 1;
+    Node[] r = joinRight(a.children[last], b);
+    Node[] children = Arrays.copyOf(a.children, last + r.length);
+    System.arraycopy(r, 0, children, last, r.length);
+    return branches(children);
+  }
+
+  // joins a into the left edge of the taller b, returns nodes of the height of b
+  private static Node[] joinLeft(Node a, Node b) {
+    if (a.height == b.height) return merge(a, b);
+    Node[] r = joinLeft(a, b.children[0]);
+    Node[] children = new Node[r.length + b.children.length - 1];
+    System.arraycopy(r, 0, children, 0, r.length);
+    System.arraycopy(b.children, 1, children, r.length, b.children.length - 1);
+    return branches(children);
+  }
+
+  // joins nodes of the same height, returns them as they are if both are at least half full
+  private static Node[] merge(Node a, Node b) {
+    if (a.width() >= MIN && b.width() >= MIN) return new Node[]{a, b};
+    if (a.isLeaf()){
+      Object[] items = Arrays.copyOf(a.items, a.items.length + b.items.length);
+      System.arraycopy(b.items, 0, items, a.items.length, b.items.length);
+      return leaves(items);
+    }
+    Node[] children = Arrays.copyOf(a.children, a.children.length + b.children.length);
+    System.arraycopy(b.children, 0, children, a.children.length, b.children.length);
+    return branches(children);
+  }
+
+  // one leaf of items, or two halves if there are too many items
+  private static Node[] leaves(Object[] items) {
+    if (items.length <= M) return new Node[]{new Node(items)};
+    int half = items.length / 2;
+    return new Node[]{
+        new Node(Arrays.copyOfRange(items, 0, half)),
+        new Node(Arrays.copyOfRange(items, half, items.length))
+    };
+  }
+
+  // one branch of children, or two halves if there are too many children
+  private static Node[] branches(Node[] children) {
+    if (children.length <= M) return new Node[]{new Node(children)};
+    int half = children.length / 2;
+    return new Node[]{
+        new Node(Arrays.copyOfRange(children, 0, half)),
+        new Node(Arrays.copyOfRange(children, half, children.length))
+    };
+  }
+
+  // a tree of items [from, to), with nodes filled evenly
+  private static Node build(Object[] items, int from, int to) {
+    int n = to - from;
+    if (n == 0) return EMPTY_NODE;
+
+    int count = (n + M - 1) / M;
+    Node[] nodes = new Node[count];
+    for (int i = 0, start = from; i < count; i++) {
+      int len = n / count + (i < n % count ? 1 : 0);
+      nodes[i] = new Node(Arrays.copyOfRange(items, start, start + len));
+      start += len;
+    }
+
+    while (count > 1) {
+      int parents = (count + M - 1) / M;
+      Node[] next = new Node[parents];
+      for (int i = 0, start = 0; i < parents; i++) {
+        int len = count / parents + (i < count % parents ? 1 : 0);
+        next[i] = new Node(Arrays.copyOfRange(nodes, start, start + len));
+        start += len;
+      }
+      nodes = next;
+      count = parents;
+    }
+
+    return nodes[0];
+  }
+
+}
@@ -38,7 +38,7 @@ public class TransientDictValue {
   }
 
   public TransientDictValue(DictValue d){
-    this(new TransientChampMap<>(d.map));
+    this(new TransientChampMap<>(d.champ()));
   }
 
   private TransientDictValue(TransientChampMap<String, Value> t){
@@ -46,6 +46,7 @@ public class TransientDictValue {
   }
 
   public void put(String key, Value v){
+    Allocations.account(Allocations.DICT_ENTRY);
     t.set(key, v);
   }
 
@@ -66,12 +67,15 @@ public class TransientDictValue {
   }
 
   public void putAll(Map<String, Value> m){
+    Allocations.account(m.size() * Allocations.DICT_ENTRY);
     t.setAll(m);
   }
   public void putAll(DictValue d){
-    t.setAll(d.map);
+    Allocations.account(d.size() * Allocations.DICT_ENTRY);
+    t.setAll(d.champ());
   }
   public void putAll(String[] keys, Value[] values){
+    Allocations.account(keys.length * Allocations.DICT_ENTRY);
     t.setAll(keys, values);
   }
 
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import java.util.Arrays;
+
+/**
+ * Builds a list by appending items in place. Appends are collected in a buffer, which is bulk-loaded
+ * into the underlying tree once the list is made persistent. This avoids creating a new persistent list
+ * for every appended item. Lists built from longs only, or doubles only, are stored as primitives.
+ */
+public class TransientListValue {
+
+  private static final Value[] EMPTY = new Value[0];
+
+  private ListValue base;
+  private Value[] items;
+  private int size;
+
+  public TransientListValue(){
+    this(new ListValue());
+  }
+
+  public TransientListValue(int capacity){
+    this.base = new ListValue();
+    this.items = capacity > 0 ? new Value[capacity] : EMPTY;
+  }
+
+  public TransientListValue(ListValue base){
+    this.base = base;
+    this.items = EMPTY;
+  }
+
+  public void append(Value v){
+    Allocations.accountListItems(1);
+    if (size == items.length) grow(size + 1);
+    items[size++] = v;
+  }
+
+  public void appendAll(Value[] values){
+    Allocations.accountListItems(values.length);
+    if (size + values.length > items.length) grow(size + values.length);
+    System.arraycopy(values, 0, items, size, values.length);
+    size += values.length;
+  }
+
+  public void appendAll(ListValue values){
+    flush();
+    base = base.appendAll(values);
+  }
+
+  public int size(){
+    return base.size() + size;
+  }
+
+  public boolean isEmpty(){
+    return size() == 0;
+  }
+
+  public Value get(int index){
+    int baseSize = base.size();
+    if (index < baseSize) return base.get(index);
+    if (index - baseSize < size) return items[index - baseSize];
+    return Values.NIL;
+  }
+
+  public ListValue persistent(){
+    flush();
+    return base;
+  }
+
+  private void flush(){
+    if (size == 0) return;
+    ListValue primitive = base.isEmpty() ? ListValue.primitiveOf(items, size) : null;
+    if (primitive != null){
+      base = primitive;
+    }
+    else {
+      base = base.appendAccounted(size == items.length ? items : Arrays.copyOf(items, size));
+    }
+    items = EMPTY;
+    size = 0;
+  }
+
+  private void grow(int minCapacity){
+    int capacity = Math.max(minCapacity, Math.max(16, items.length + (items.length >> 1)));
+    items = Arrays.copyOf(items, capacity);
+  }
+
+}
@@ -24,6 +24,8 @@
 
 package com.twineworks.tweakflow.lang.values;
 
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
 import com.twineworks.tweakflow.lang.interpreter.Stack;
 
 public interface UserCallContext {
@@ -35,4 +37,13 @@ public interface UserCallContext {
 
   void debug(Value v);
   Stack getStack();
+
+  // a context for calling functions on another thread, it shares limits and cancellation with this context
+  default UserCallContext fork() {
+    throw new LangException(LangError.UNKNOWN_ERROR, getClass().getName() + " does not support calling functions on other threads");
+  }
+
+  // called on a fork once done with it, returns steps granted to the fork but not taken
+  default void release() {
+  }
 }
@@ -78,12 +78,14 @@ final public class Values {
   public static Value make(String s) {
     if (s == null) return NIL;
     if (s.length() == 0) return EMPTY_STRING;
+    Allocations.accountString(s);
     return new Value(Types.STRING, s);
   }
 
   public static Value make(byte[] bin) {
     if (bin == null) return NIL;
     if (bin.length == 0) return EMPTY_BINARY;
+    Allocations.accountBinary(bin);
     return new Value(Types.BINARY, bin);
   }
 
@@ -245,11 +247,11 @@ final public class Values {
     if (o instanceof Struct){
       Struct struct = (Struct) o;
       try {
-        ListValue list = new ListValue();
+        TransientListValue list = new TransientListValue();
         for (Object attribute : struct.getAttributes()) {
-          list = list.append(Values.make(attribute));
+          list.append(Values.make(attribute));
         }
-        return Values.make(list);
+        return Values.make(list.persistent());
       } catch (SQLException e) {
         return Values.NIL;
       }
@@ -257,51 +259,51 @@ final public class Values {
 
     if (o.getClass().isArray()){
 
-      ListValue list = new ListValue();
+      TransientListValue list = new TransientListValue();
 
       if (o instanceof int[]){
         int[] a = (int[]) o;
         for (int value : a) {
-          list = list.append(Values.make(value));
+          list.append(Values.make(value));
         }
       }
       else if (o instanceof long[]){
         long[] a = (long[]) o;
         for (long value : a) {
-          list = list.append(Values.make(value));
+          list.append(Values.make(value));
         }
       }
       else if (o instanceof boolean[]){
         boolean[] a = (boolean[]) o;
         for (boolean value : a) {
-          list = list.append(Values.make(value));
+          list.append(Values.make(value));
         }
       }
       else if (o instanceof double[]){
         double[] a = (double[]) o;
         for (double value : a) {
-          list = list.append(Values.make(value));
+          list.append(Values.make(value));
         }
       }
       else if (o instanceof char[]){
         char[] a = (char[]) o;
         for (char value : a) {
-          list = list.append(Values.make(value));
+          list.append(Values.make(value));
         }
       }
       if (o instanceof String[]){
         String[] a = (String[]) o;
         for (String value : a) {
-          list = list.append(Values.make(value));
+          list.append(Values.make(value));
         }
       }
       else {
         // https://stackoverflow.com/questions/2725533/how-to-see-if-an-object-is-an-array-without-using-reflection
         for(int i = 0; i< Array.getLength(o); i++){
-          list = list.append(Values.make(Array.get(o, i)));
+          list.append(Values.make(Array.get(o, i)));
         }
       }
-      return Values.make(list);
+      return Values.make(list.persistent());
     }
 
     if (o instanceof Map){
@@ -315,11 +317,11 @@ final public class Values {
 
     if (o instanceof Collection){
       Collection collection = (Collection) o;
-      ListValue list = new ListValue();
+      TransientListValue list = new TransientListValue();
       for (Object item : collection) {
-        list = list.append(Values.make(item));
+        list.append(Values.make(item));
       }
-      return Values.make(list);
+      return Values.make(list.persistent());
     }
 
     return Values.make(o.toString());
@@ -345,13 +347,7 @@ final public class Values {
       throw new IllegalArgumentException("Cannot make range exceeding: " + Integer.MAX_VALUE + " items");
     }
 
-    ListValue range = new ListValue();
-    long idx = from;
-    while (idx <= to) {
-      range = range.append(make(idx));
-      idx++;
-    }
-    return new Value(Types.LIST, range);
+    return new Value(Types.LIST, ListValue.range(from, (int) size));
   }
 
   public static Value makeList(Value... values) {
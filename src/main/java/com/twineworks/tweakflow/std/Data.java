@@ -620,12 +620,12 @@ public final class Data {
         return Values.NIL;
       }
 
-      ListValue result = new ListValue();
+      TransientListValue result = new TransientListValue();
 
       for (Value list : listsList) {
         if (list.isList()){
           ListValue listValue = list.list();
-          result = result.appendAll(listValue);
+          result.appendAll(listValue);
         }
         else if (list.isNil()){ // trying to concat with nil results in nil
           return Values.NIL;
@@ -636,7 +636,7 @@ public final class Data {
         }
       }
 
-      return Values.make(result);
+      return Values.make(result.persistent());
     }
   }
 
@@ -700,14 +700,14 @@ public final class Data {
 
       ListValue list = xs.list();
 
-      ArrayList<Value> out = new ArrayList<>();
+      TransientListValue out = new TransientListValue();
 
       if (withIndex){
         Arity2CallSite pcs = context.createArity2CallSite(p);
         for (int i = 0, listSize = list.size(); i < listSize; i++) {
           Value x = list.get(i);
           if (pcs.call(x, Values.make(i)).castTo(Types.BOOLEAN) == Values.TRUE) {
-            out.add(x);
+            out.append(x);
           }
           else{
             break;
@@ -719,7 +719,7 @@ public final class Data {
         for (int i = 0, listSize = list.size(); i < listSize; i++) {
           Value x = list.get(i);
           if (pcs.call(x).castTo(Types.BOOLEAN) == Values.TRUE) {
-            out.add(x);
+            out.append(x);
           }
           else{
             break;
@@ -727,7 +727,7 @@ public final class Data {
         }
       }
 
-      return Values.make(new ListValue(out));
+      return Values.make(out.persistent());
 
     }
   }
@@ -747,14 +747,14 @@ public final class Data {
 
       ListValue list = xs.list();
 
-      ArrayList<Value> out = new ArrayList<>();
+      TransientListValue out = new TransientListValue();
 
       if (withIndex){
         Arity2CallSite pcs = context.createArity2CallSite(p);
         for (int i = 0, listSize = list.size(); i < listSize; i++) {
           Value x = list.get(i);
           if (pcs.call(x, Values.make(i)).castTo(Types.BOOLEAN) != Values.TRUE) {
-            out.add(x);
+            out.append(x);
           }
           else{
             break;
@@ -766,7 +766,7 @@ public final class Data {
         for (int i = 0, listSize = list.size(); i < listSize; i++) {
           Value x = list.get(i);
           if (pcs.call(x).castTo(Types.BOOLEAN) != Values.TRUE) {
-            out.add(x);
+            out.append(x);
           }
           else{
             break;
@@ -774,7 +774,7 @@ public final class Data {
         }
       }
 
-      return Values.make(new ListValue(out));
+      return Values.make(out.persistent());
 
     }
   }
@@ -1019,7 +1019,7 @@ public final class Data {
       long num = n.longNum();
       if (num < 0 || num > Integer.MAX_VALUE) throw new LangException(LangError.INDEX_OUT_OF_BOUNDS, "Cannot repeat "+num+" times");
 
-      return Values.make(new ListValue().padTo(n.longNum().intValue(), x));
+      return Values.make(ListValue.repeat((int) num, x));
 
     }
   }
@@ -1072,7 +1072,7 @@ public final class Data {
         if (paramCount == 0) throw new LangException(LangError.ILLEGAL_ARGUMENT, "predicate function must accept at least one argument");
 
         boolean withIndex = paramCount >= 2;
-        ListValue retVal = new ListValue();
+        TransientListValue retVal = new TransientListValue();
         ListValue list = xs.list();
 
         if (withIndex){
@@ -1080,7 +1080,7 @@ public final class Data {
           for (int i = 0, listSize = list.size(); i < listSize; i++) {
             Value x = list.get(i);
             if (pcs.call(x, Values.make(i)).castTo(Types.BOOLEAN) == Values.TRUE){
-              retVal = retVal.append(x);
+              retVal.append(x);
             }
           }
         }
@@ -1089,13 +1089,13 @@ public final class Data {
           for (int i = 0, listSize = list.size(); i < listSize; i++) {
             Value x = list.get(i);
             if (pcs.call(x).castTo(Types.BOOLEAN) == Values.TRUE){
-              retVal = retVal.append(x);
+              retVal.append(x);
             }
           }
 
         }
 
-        return Values.make(retVal);
+        return Values.make(retVal.persistent());
       }
       else if (xs.isDict()){
 
@@ -1135,6 +1135,26 @@ public final class Data {
     }
   }
 
+  // function pfilter: (xs, function p)
+  public static final class pfilter implements UserFunction, Arity2UserFunction {
+
+    private final filter sequential = new filter();
+
+    @Override
+    public Value call(UserCallContext context, Value xs, Value p) {
+
+      if (!xs.isList()) return sequential.call(context, xs, p);
+
+      if (p.isNil()) throw new LangException(LangError.NIL_ERROR, "predicate function cannot be nil");
+
+      int paramCount = p.function().getSignature().getParameterList().size();
+      if (paramCount == 0) throw new LangException(LangError.ILLEGAL_ARGUMENT, "predicate function must accept at least one argument");
+
+      return Values.make(ParallelData.filter(context, xs.list(), p, paramCount >= 2));
+
+    }
+  }
+
   // function find: (list xs, function p)
   public static final class find implements UserFunction, Arity2UserFunction {
 
@@ -1376,11 +1396,11 @@ public final class Data {
 
       if (withRet){
         // we can pick the same index multiple times
-        ListValue ret = new ListValue();
+        TransientListValue ret = new TransientListValue();
         for (int i=0;i<nr;i++){
-          ret = ret.append(list.get(r.nextInt(size)));
+          ret.append(list.get(r.nextInt(size)));
         }
-        return Values.make(ret);
+        return Values.make(ret.persistent());
       }
       else {
         // we cannot pick the same index multiple times
@@ -1390,11 +1410,11 @@ public final class Data {
         }
         shuffleArray(indexes, r);
 
-        ListValue ret = new ListValue();
+        TransientListValue ret = new TransientListValue();
         for (int i=0;i<nr && i<size;i++){
-          ret = ret.append(list.get(indexes[i]));
+          ret.append(list.get(indexes[i]));
         }
-        return Values.make(ret);
+        return Values.make(ret.persistent());
 
       }
 
@@ -1412,7 +1432,7 @@ public final class Data {
       ListValue list = xs.list();
       if (list.size() < 2) return xs;
 
-      ArrayList<Value> out = new ArrayList<>();
+      TransientListValue out = new TransientListValue();
       HashSet<Value> set = new HashSet<>(list.size());
 
       for (Value value : list) {
@@ -1420,7 +1440,7 @@ public final class Data {
         // non-comparable -> never equal to anything
         boolean nonComparable = (value.isFunction() || value.isDoubleNum() && value.doubleNum().isNaN());
         if (nonComparable){
-          out.add(value);
+          out.append(value);
           continue;
         }
         // at this point values are comparable to each other
@@ -1429,11 +1449,11 @@ public final class Data {
         }
         else{
           set.add(value);
-          out.add(value);
+          out.append(value);
         }
 
       }
-      return Values.make(new ListValue(out));
+      return Values.make(out.persistent());
 
     }
   }
@@ -1512,12 +1532,12 @@ public final class Data {
       DictValue dict = xs.dict();
       if (dict.isEmpty()) return Values.EMPTY_LIST;
 
-      ListValue listValue = new ListValue();
+      TransientListValue listValue = new TransientListValue();
       for (String k : dict.keys()) {
-        listValue = listValue.append(Values.makeDict("key", k, "value", dict.get(k)));
+        listValue.append(Values.makeDict("key", k, "value", dict.get(k)));
       }
 
-      return Values.make(listValue);
+      return Values.make(listValue.persistent());
     }
   }
 
@@ -1654,7 +1674,7 @@ public final class Data {
       if (xs.isList()){
 
         boolean withIndex = paramCount >= 2;
-        ListValue retVal = new ListValue();
+        TransientListValue retVal = new TransientListValue(xs.list().size());
 
         ListValue list = xs.list();
 
@@ -1663,7 +1683,7 @@ public final class Data {
           for (int i = 0, listSize = list.size(); i < listSize; i++) {
             Value x = list.get(i);
             Value mapped = fcs.call(x, Values.make(i));
-            retVal = retVal.append(mapped);
+            retVal.append(mapped);
           }
         }
         else{
@@ -1672,11 +1692,11 @@ public final class Data {
           for (int i = 0, listSize = list.size(); i < listSize; i++) {
             Value x = list.get(i);
             Value mapped = fcs.call(x);
-            retVal = retVal.append(mapped);
+            retVal.append(mapped);
           }
         }
 
-        return Values.make(retVal);
+        return Values.make(retVal.persistent());
       }
       else if (xs.isDict()){
 
@@ -1714,6 +1734,26 @@ public final class Data {
     }
   }
 
+  // function pmap: (xs, function f)
+  public static final class pmap implements UserFunction, Arity2UserFunction {
+
+    private final map sequential = new map();
+
+    @Override
+    public Value call(UserCallContext context, Value xs, Value f) {
+
+      if (!xs.isList()) return sequential.call(context, xs, f);
+
+      if (f == Values.NIL) throw new LangException(LangError.NIL_ERROR, "f cannot be nil");
+
+      int paramCount = f.function().getSignature().getParameterList().size();
+      if (paramCount == 0) throw new LangException(LangError.ILLEGAL_ARGUMENT, "f must accept at least one argument");
+
+      return Values.make(ParallelData.map(context, xs.list(), f, paramCount >= 2));
+
+    }
+  }
+
   // function has?: (xs, key)
   public static final class has implements UserFunction, Arity2UserFunction {
 
@@ -1783,11 +1823,11 @@ public final class Data {
       }
       else if (xs.isList()){
         ListValue listValue = xs.list();
-        ListValue ret = new ListValue();
+        TransientListValue ret = new TransientListValue();
         for (Value value : listValue) {
-          ret = ret.append(pluck(key, value));
+          ret.append(pluck(key, value));
         }
-        return Values.make(ret);
+        return Values.make(ret.persistent());
       }
       else{
         throw new LangException(LangError.ILLEGAL_ARGUMENT, "pluck is not defined for type "+xs.type().name());
@@ -1909,6 +1949,26 @@ public final class Data {
     }
   }
 
+  // function preduce: (xs, init, function f)
+  public static final class preduce implements UserFunction, Arity3UserFunction {
+
+    private final reduce sequential = new reduce();
+
+    @Override
+    public Value call(UserCallContext context, Value xs, Value init, Value f) {
+
+      if (!xs.isList()) return sequential.call(context, xs, init, f);
+
+      if (f == Values.NIL) throw new LangException(LangError.NIL_ERROR, "f cannot be nil");
+
+      int paramCount = f.function().getSignature().getParameterList().size();
+      if (paramCount < 2) throw new LangException(LangError.ILLEGAL_ARGUMENT, "f must accept at least two arguments");
+
+      return ParallelData.reduce(context, xs.list(), init, f);
+
+    }
+  }
+
   // function reduce_until: (xs, init, function p, function f)
   public static final class reduce_until implements UserFunction, Arity4UserFunction {
 
@@ -29,6 +29,10 @@ import com.twineworks.tweakflow.lang.errors.LangException;
 import com.twineworks.tweakflow.lang.types.Types;
 import com.twineworks.tweakflow.lang.values.*;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public final class Fun {
 
   // function times: (long n, any x, function f) ->  any
@@ -156,5 +160,140 @@ public final class Fun {
     }
   }
 
+  public static final class memoized_impl implements UserFunction,
+      Arity0UserFunction, Arity1UserFunction, Arity2UserFunction, Arity3UserFunction, Arity4UserFunction, ArityNUserFunction {
+
+    private final Value f;
+    private final int capacity;
+    private final LinkedHashMap<Args, Value> cache;
+
+    private long hits;
+    private long misses;
+
+    public memoized_impl(Value f, int capacity) {
+      this.f = f;
+      this.capacity = capacity;
+      // access order, so the least recently used entry is evicted first
+      this.cache = new LinkedHashMap<Args, Value>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Args, Value> eldest) {
+          return size() > memoized_impl.this.capacity;
+        }
+      };
+    }
+
+    public synchronized long getHits() {
+      return hits;
+    }
+
+    public synchronized long getMisses() {
+      return misses;
+    }
+
+    public synchronized int getSize() {
+      return cache.size();
+    }
+
+    public int getCapacity() {
+      return capacity;
+    }
+
+    private Value lookup(UserCallContext context, Value ... args) {
+
+      Args key = new Args(args);
+
+      synchronized (this) {
+        Value cached = cache.get(key);
+        if (cached != null) {
+          hits++;
+          return cached;
+        }
+        misses++;
+      }
+
+      // evaluate outside the lock, so recursive and concurrent calls do not block each other
+      Value result = context.call(f, args);
+
+      synchronized (this) {
+        cache.put(key, result);
+      }
+
+      return result;
+    }
+
+    @Override
+    public Value call(UserCallContext context) {
+      return lookup(context);
+    }
+
+    @Override
+    public Value call(UserCallContext context, Value x) {
+      return lookup(context, x);
+    }
+
+    @Override
+    public Value call(UserCallContext context, Value x, Value y) {
+      return lookup(context, x, y);
+    }
+
+    @Override
+    public Value call(UserCallContext context, Value x, Value y, Value z) {
+      return lookup(context, x, y, z);
+    }
+
+    @Override
+    public Value call(UserCallContext context, Value x, Value y, Value z, Value w) {
+      return lookup(context, x, y, z, w);
+    }
+
+    @Override
+    public Value callVariadic(UserCallContext context, Value... args) {
+      return lookup(context, args.clone());
+    }
+
+    private static final class Args {
+
+      private final Value[] values;
+      private final int hashCode;
+
+      Args(Value[] values) {
+        this.values = values;
+        this.hashCode = Arrays.hashCode(values);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(values, ((Args) o).values);
+      }
+
+      @Override
+      public int hashCode() {
+        return hashCode;
+      }
+    }
+  }
+
+  // function memoize: (function f, long capacity=1000) -> function
+  public static final class memoize implements UserFunction, Arity2UserFunction {
+
+    @Override
+    public Value call(UserCallContext context, Value f, Value capacity) {
+
+      if (f == Values.NIL) throw new LangException(LangError.NIL_ERROR, "f cannot be nil");
+      if (capacity == Values.NIL) throw new LangException(LangError.NIL_ERROR, "capacity cannot be nil");
+
+      long c = capacity.longNum();
+      if (c < 1 || c > Integer.MAX_VALUE) throw new LangException(LangError.ILLEGAL_ARGUMENT, "capacity out of range: "+c);
+
+      return Values.make(
+          new UserFunctionValue(
+              f.function().getSignature(),
+              new memoized_impl(f, (int) c)));
+
+    }
+  }
+
 
 }
@@ -291,13 +291,10 @@ public final class Math {
       if (longCount < 0) throw new LangException(LangError.ILLEGAL_ARGUMENT, "count cannot be negative, found: "+longCount);
       if (longCount == 0) return Values.EMPTY_LIST;
 
-      Random rnd = new Random(seed.hashCode());
-      ListValue ret = new ListValue();
-      for (long i=0;i<longCount;i++){
-        ret = ret.append(Values.make(rnd.nextDouble()));
-      }
+      if (longCount >= Integer.MAX_VALUE) throw new LangException(LangError.ILLEGAL_ARGUMENT, "count too large, found: "+longCount);
 
-      return Values.make(ret);
+      Random rnd = new Random(seed.hashCode());
+      return Values.make(ListValue.ofDoubles((int) longCount, i -> rnd.nextDouble()));
     }
   }
 
@@ -320,6 +317,26 @@ public final class Math {
       ListValue list = xs.list();
       if (list.isEmpty()) return Values.NIL;
 
+      // primitive lists are scanned without boxing
+      if (list.isLongList()){
+        long ret = list.longAt(0);
+        for (int i = 1, size = list.size(); i < size; i++) {
+          long num = list.longAt(i);
+          if (num < ret) ret = num;
+        }
+        return Values.make(ret);
+      }
+
+      if (list.isDoubleList()){
+        double ret = list.doubleAt(0);
+        for (int i = 0, size = list.size(); i < size; i++) {
+          double num = list.doubleAt(i);
+          if (Double.isNaN(num)) return Values.NIL;
+          if (num < ret) ret = num;
+        }
+        return Values.make(ret);
+      }
+
       // only one element?
       if (list.size() == 1) {
         Value v = list.get(0);
@@ -495,6 +512,26 @@ public final class Math {
       ListValue list = xs.list();
       if (list.isEmpty()) return Values.NIL;
 
+      // primitive lists are scanned without boxing
+      if (list.isLongList()){
+        long ret = list.longAt(0);
+        for (int i = 1, size = list.size(); i < size; i++) {
+          long num = list.longAt(i);
+          if (num > ret) ret = num;
+        }
+        return Values.make(ret);
+      }
+
+      if (list.isDoubleList()){
+        double ret = list.doubleAt(0);
+        for (int i = 0, size = list.size(); i < size; i++) {
+          double num = list.doubleAt(i);
+          if (Double.isNaN(num)) return Values.NIL;
+          if (num > ret) ret = num;
+        }
+        return Values.make(ret);
+      }
+
       // only one element?
       if (list.size() == 1) {
         Value v = list.get(0);
@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.std;
+
+import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs list transformations on the common fork-join pool. The list is split into index ranges.
+ * Each range is processed with call sites created from its own fork of the calling context, and
+ * results are merged in list order. Forks share the step and allocation limits of the calling context.
+ *
+ * The first error stops the remaining ranges from starting new calls, and is thrown once all
+ * ranges are done.
+ */
+final class ParallelData {
+
+  // amount of ranges per worker, allowing idle workers to steal from busy ones
+  private static final int RANGES_PER_WORKER = 4;
+
+  private ParallelData() {}
+
+  static ListValue map(UserCallContext context, ListValue list, Value f, boolean withIndex) {
+
+    Value[] mapped = new Value[list.size()];
+
+    run(context, list.size(), (ctx, from, to, failure) -> {
+      if (withIndex){
+        Arity2CallSite fcs = ctx.createArity2CallSite(f);
+        for (int i = from; i < to && failure.get() == null; i++) {
+          mapped[i] = fcs.call(list.get(i), Values.make(i));
+        }
+      }
+      else {
+        Arity1CallSite fcs = ctx.createArity1CallSite(f);
+        for (int i = from; i < to && failure.get() == null; i++) {
+          mapped[i] = fcs.call(list.get(i));
+        }
+      }
+    });
+
+    return new ListValue(mapped);
+  }
+
+  static ListValue filter(UserCallContext context, ListValue list, Value p, boolean withIndex) {
+
+    boolean[] keep = new boolean[list.size()];
+
+    run(context, list.size(), (ctx, from, to, failure) -> {
+      if (withIndex){
+        Arity2CallSite pcs = ctx.createArity2CallSite(p);
+        for (int i = from; i < to && failure.get() == null; i++) {
+          keep[i] = pcs.call(list.get(i), Values.make(i)).castTo(Types.BOOLEAN) == Values.TRUE;
+        }
+      }
+      else {
+        Arity1CallSite pcs = ctx.createArity1CallSite(p);
+        for (int i = from; i < to && failure.get() == null; i++) {
+          keep[i] = pcs.call(list.get(i)).castTo(Types.BOOLEAN) == Values.TRUE;
+        }
+      }
+    });
+
+    TransientListValue retVal = new TransientListValue();
+    for (int i = 0; i < keep.length; i++) {
+      if (keep[i]) retVal.append(list.get(i));
+    }
+    return retVal.persistent();
+  }
+
+  // reduces each range starting from init, then combines range results in order using f
+  static Value reduce(UserCallContext context, ListValue list, Value init, Value f) {
+
+    int size = list.size();
+    if (size == 0) return init;
+
+    int rangeSize = rangeSize(size);
+    int rangeCount = (size + rangeSize - 1) / rangeSize;
+    Value[] reduced = new Value[rangeCount];
+
+    run(context, size, (ctx, from, to, failure) -> {
+      Arity2CallSite fcs = ctx.createArity2CallSite(f);
+      Value acc = init;
+      for (int i = from; i < to && failure.get() == null; i++) {
+        acc = fcs.call(acc, list.get(i));
+      }
+      reduced[from / rangeSize] = acc;
+    });
+
+    Arity2CallSite fcs = context.createArity2CallSite(f);
+    Value ret = reduced[0];
+    for (int i = 1; i < reduced.length; i++) {
+      ret = fcs.call(ret, reduced[i]);
+    }
+    return ret;
+  }
+
+  private interface RangeTask {
+    void run(UserCallContext context, int from, int to, AtomicReference<RuntimeException> failure);
+  }
+
+  private static int rangeSize(int size) {
+    int ranges = ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_WORKER;
+    return java.lang.Math.max(1, (size + ranges - 1) / ranges);
+  }
+
+  private static void run(UserCallContext context, int size, RangeTask task) {
+
+    if (size == 0) return;
+
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    int rangeSize = rangeSize(size);
+
+    ForkJoinPool.commonPool().invoke(new Ranges(context, task, failure, rangeSize, 0, (size + rangeSize - 1) / rangeSize, size));
+
+    RuntimeException e = failure.get();
+    if (e != null) throw e;
+  }
+
+  // splits ranges [first, last) in halves until a single range of list indexes remains
+  private static final class Ranges extends RecursiveAction {
+
+    private final UserCallContext context;
+    private final RangeTask task;
+    private final AtomicReference<RuntimeException> failure;
+    private final int rangeSize;
+    private final int first;
+    private final int last;
+    private final int size;
+
+    Ranges(UserCallContext context, RangeTask task, AtomicReference<RuntimeException> failure, int rangeSize, int first, int last, int size) {
+      this.context = context;
+      this.task = task;
+      this.failure = failure;
+      this.rangeSize = rangeSize;
+      this.first = first;
+      this.last = last;
+      this.size = size;
+    }
+
+    @Override
+    protected void compute() {
+
+      if (last - first > 1){
+        int mid = (first + last) >>> 1;
+        invokeAll(
+            new Ranges(context, task, failure, rangeSize, first, mid, size),
+            new Ranges(context, task, failure, rangeSize, mid, last, size)
+        );
+        return;
+      }
+
+      if (failure.get() != null) return;
+
+      int from = first * rangeSize;
+      int to = java.lang.Math.min(from + rangeSize, size);
+      UserCallContext fork = null;
+      try {
+        fork = context.fork();
+        task.run(fork, from, to, failure);
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+      } finally {
+        if (fork != null) fork.release();
+      }
+
+    }
+  }
+
+}
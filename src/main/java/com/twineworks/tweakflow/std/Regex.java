@@ -98,7 +98,7 @@ public final class Regex {
       if (x == Values.NIL) return Values.NIL;
       String str = x.string();
       Matcher matcher = pattern.matcher(str);
-      ListValue groups = new ListValue();
+      TransientListValue groups = new TransientListValue();
 
       if (matcher.find() && matcher.start() == 0 && matcher.end() == str.length()){
         int groupCount = matcher.groupCount();
@@ -106,14 +106,14 @@ public final class Regex {
         for (int i=0; i<=groupCount; i++){
           String group = matcher.group(i);
           if (group == null){
-            groups = groups.append(Values.NIL);
+            groups.append(Values.NIL);
           }
           else {
-            groups = groups.append(Values.make(group));
+            groups.append(Values.make(group));
           }
         }
       }
-      return Values.make(groups);
+      return Values.make(groups.persistent());
     }
   }
 
@@ -214,25 +214,25 @@ public final class Regex {
       String str = x.string();
       Matcher matcher = pattern.matcher(str);
 
-      ListValue result = new ListValue();
+      TransientListValue result = new TransientListValue();
 
       while (matcher.find()){
-        ListValue groups = new ListValue();
+        TransientListValue groups = new TransientListValue();
         int groupCount = matcher.groupCount();
 
         for (int i=0; i<=groupCount; i++){
           String group = matcher.group(i);
           if (group == null){
-            groups = groups.append(Values.NIL);
+            groups.append(Values.NIL);
           }
           else {
-            groups = groups.append(Values.make(group));
+            groups.append(Values.make(group));
           }
         }
-        result = result.append(Values.make(groups));
+        result.append(Values.make(groups.persistent()));
       }
 
-      return Values.make(result);
+      return Values.make(result.persistent());
     }
   }
 
@@ -279,13 +279,13 @@ public final class Regex {
       String str = x.string();
       String[] out = pattern.split(str, limit);
 
-      ListValue result = new ListValue();
+      TransientListValue result = new TransientListValue(out.length);
 
       for (String s : out) {
-        result = result.append(Values.make(s));
+        result.append(Values.make(s));
       }
 
-      return Values.make(result);
+      return Values.make(result.persistent());
     }
   }
 
@@ -138,11 +138,11 @@ public final class Strings {
       if (x.isNil()) return Values.NIL;
       String s = x.string();
       int[] ints = s.codePoints().toArray();
-      ListValue v = new ListValue();
+      TransientListValue v = new TransientListValue(ints.length);
       for (int i : ints) {
-        v = v.append(Values.make(i));
+        v.append(Values.make(i));
       }
-      return Values.make(v);
+      return Values.make(v.persistent());
 
     }
   }
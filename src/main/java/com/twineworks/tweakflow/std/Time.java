@@ -83,7 +83,7 @@ public final class Time {
     @Override
     public Value call(UserCallContext context, Value x) {
       if (x == Values.NIL) return Values.NIL;
-      return Values.make(x.dateTime().getInstant().toEpochMilli()/1000L);
+      return Values.make(x.dateTime().toEpochMilli()/1000L);
     }
   }
 
@@ -92,7 +92,7 @@ public final class Time {
     @Override
     public Value call(UserCallContext context, Value x) {
       if (x == Values.NIL) return Values.NIL;
-      return Values.make(x.dateTime().getInstant().toEpochMilli());
+      return Values.make(x.dateTime().toEpochMilli());
     }
   }
 
@@ -157,7 +157,7 @@ public final class Time {
       DateTimeValue start = startInclusive.dateTime();
       DateTimeValue end = endExclusive.dateTime();
 
-      return Values.make(ChronoUnit.HOURS.between(start.getZoned(), end.getZoned()));
+      return Values.make(start.secondsUntil(end) / 3600L);
     }
   }
 
@@ -173,7 +173,7 @@ public final class Time {
       DateTimeValue start = startInclusive.dateTime();
       DateTimeValue end = endExclusive.dateTime();
 
-      return Values.make(ChronoUnit.MINUTES.between(start.getZoned(), end.getZoned()));
+      return Values.make(start.secondsUntil(end) / 60L);
     }
   }
 
@@ -189,7 +189,7 @@ public final class Time {
       DateTimeValue start = startInclusive.dateTime();
       DateTimeValue end = endExclusive.dateTime();
 
-      return Values.make(ChronoUnit.SECONDS.between(start.getZoned(), end.getZoned()));
+      return Values.make(start.secondsUntil(end));
     }
   }
 
@@ -224,7 +224,7 @@ public final class Time {
       DateTimeValue end = endExclusive.dateTime();
 
       return durationToDict(
-          Duration.between(start.getZoned(), end.getZoned())
+          start.durationUntil(end)
       );
     }
   }
@@ -275,10 +275,7 @@ public final class Time {
       DateTimeValue startTime = start.dateTime();
 
       try {
-        return Values.make(new DateTimeValue(
-            startTime.getZoned()
-                .plusSeconds(secondsLong)
-                .plusNanos(nanosLong)));
+        return Values.make(startTime.plus(secondsLong, nanosLong));
 
       } catch (DateTimeException e) {
         throw new LangException(LangError.ILLEGAL_ARGUMENT, e.getMessage());
@@ -415,7 +412,7 @@ public final class Time {
     @Override
     public Value call(UserCallContext context, Value x) {
       if (x == Values.NIL) return Values.NIL;
-      return Values.make(x.dateTime().getZoned().getZone().getId());
+      return Values.make(x.dateTime().getZone().getId());
     }
   }
 
@@ -557,13 +554,13 @@ public final class Time {
     @Override
     public Value call(UserCallContext context) {
 
-      ListValue list = new ListValue();
+      TransientListValue list = new TransientListValue();
 
       for (String tz : ZoneId.getAvailableZoneIds()) {
-        list = list.append(Values.make(tz));
+        list.append(Values.make(tz));
       }
 
-      return Values.make(list);
+      return Values.make(list.persistent());
 
     }
   }
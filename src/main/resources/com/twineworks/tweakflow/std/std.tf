@@ -2036,6 +2036,37 @@ ERROR:
 
   function filter: (xs, function p) ->                      via {:class "com.twineworks.tweakflow.std.Data$filter"};
 
+doc
+~~~
+`(xs, function p) ->`
+
+Like [filter](#data-filter), but calls `p` on multiple threads when `xs` is a `list`.
+The list is split into ranges that are filtered in parallel. The order of elements is preserved.
+
+Calls of `p` may happen in any order, so `p` should not depend on side effects like
+debug output. If `p` throws an error, remaining calls are skipped and the error is thrown.
+
+Dicts are filtered the same way `filter` does.
+
+Returns `nil` if `xs` is `nil`.
+
+Throws an error if `xs` is neither a `list` nor a `dict`.\
+Throws an error if `p` is `nil`.
+
+```tweakflow
+> data.pfilter(data.range(1, 20), (x) -> x % 3 == 0)
+[3, 6, 9, 12, 15, 18]
+
+> data.pfilter(["a", "b", "c", "d", "e", "f", "g"], (x, i) -> i % 2 == 0)
+["a", "c", "e", "g"]
+
+> data.pfilter(nil, (x) -> true)
+nil
+```
+~~~
+
+  function pfilter: (xs, function p) ->                     via {:class "com.twineworks.tweakflow.std.Data$pfilter"};
+
 doc
 ~~~
 `(list xs, seed) -> list`
@@ -3109,6 +3140,39 @@ ERROR:
 
   function map: (xs, function f) -> via {:class "com.twineworks.tweakflow.std.Data$map"};
 
+doc
+~~~
+`(xs, function f) -> any`
+
+Like [map](#data-map), but calls `f` on multiple threads when `xs` is a `list`.
+The list is split into ranges that are mapped in parallel. The result list holds mapped
+values in the order of `xs`.
+
+Calls of `f` may happen in any order, so `f` should not depend on side effects like
+debug output. If `f` throws an error, remaining calls are skipped and the error is thrown.
+
+Dicts are mapped the same way `map` does.
+
+Returns `nil` if `xs` is `nil`.
+
+Throws an error if `xs` is neither a `list` nor a `dict`.
+
+Throws an error if `f` is `nil`.
+
+```tweakflow
+> data.pmap([1,2,3], (x) -> x*x)
+[1, 4, 9]
+
+> data.pmap(["a", "b", "c"], (x, i) -> i.." -> "..x)
+["0 -> a", "1 -> b", "2 -> c"]
+
+> data.pmap(nil, (x) -> x)
+nil
+```
+~~~
+
+  function pmap: (xs, function f) -> via {:class "com.twineworks.tweakflow.std.Data$pmap"};
+
 doc
 ~~~
 `(xs, function f) -> list`
@@ -3555,6 +3619,47 @@ ERROR:
 
   function reduce: (xs, init, function f) -> any                via {:class "com.twineworks.tweakflow.std.Data$reduce"};
 
+doc
+~~~
+`(xs, init, function f) -> any`
+
+Like [reduce](#data-reduce), but calls `f` on multiple threads when `xs` is a `list`.
+
+The list is split into ranges. Each range is reduced in parallel, starting with `init` as
+the accumulator value. The results of ranges are then combined in order by calling `f`
+with the combined result so far and the result of the next range.
+
+For the result to match `reduce`, `f` must be associative, and `init` must be an identity of `f`.
+Examples are `0` for addition, `""` for string concatenation, or `[]` for list concatenation.
+Only the current accumulator value and `x` are passed to `f`.
+
+If `f` throws an error, remaining calls are skipped and the error is thrown.
+
+Dicts are reduced the same way `reduce` does.
+
+Returns `nil` if `xs` is `nil`.
+
+Throws an error if `xs` is neither a `list` nor a `dict`.
+
+Throws an error if `f` is `nil`.
+
+```tweakflow
+> data.preduce(data.range(1, 100), 0, (a, x) -> a+x)
+5050
+
+> data.preduce(["a", "b", "c"], "", (a, x) -> a..x)
+"abc"
+
+> data.preduce([], 0, (a, x) -> a+x)
+0
+
+> data.preduce(nil, 0, (a, x) -> x)
+nil
+```
+~~~
+
+  function preduce: (xs, init, function f) -> any               via {:class "com.twineworks.tweakflow.std.Data$preduce"};
+
 doc
 ~~~
 `(xs, init, function p, function f) -> any`
@@ -6529,6 +6634,36 @@ function
     if data.size(fs) == 0 then core.id
     (data.reduce(data.reverse(fs), nil, (a, f) -> if a == nil then f else (x) -> (f(a(x)))));
 
+doc
+~~~
+`(function f, long capacity=1000) -> function`
+
+Returns a function with the same signature as `f` that caches the results of calls to `f`.
+A call with arguments identical to a previous call returns the cached result without calling `f` again.
+The cache holds results for up to `capacity` distinct argument lists. When full, the least recently
+used result is discarded.
+
+Since functions always return the same result when given the same arguments, memoization does not change
+the results of calls. It saves time if `f` is expensive to compute and called repeatedly with the same arguments.
+Errors thrown by `f` are not cached.
+
+Throws an error if `f` is `nil` or `capacity` is `nil`.\
+Throws an error if `capacity` is smaller than `1`.
+
+```tweakflow
+> sum_to: fun.memoize((long n) -> data.reduce(data.range(1, n), 0, (a, x) -> a + x))
+function
+
+> sum_to(1000000)
+500000500000
+
+> sum_to(1000000)
+500000500000
+```
+~~~
+
+  function memoize: (function f, long capacity=1000) -> function via {:class "com.twineworks.tweakflow.std.Fun$memoize"};
+
 doc
 ~~~
 `(function f) -> dict`
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.values.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IndexedInTest {
+
+  static final Path scratchFile = Paths.get("target/test-scratch/indexed.bin").toAbsolutePath().normalize();
+  FileChannel w;
+  FileChannel r;
+
+  @BeforeEach
+  void clearScratch() throws Exception {
+    File f = scratchFile.toFile();
+    Files.createDirectories(scratchFile.getParent());
+    if (f.exists()){
+      if (!f.delete()) throw new AssertionError("Could not delete scratch file: "+f);
+    }
+
+    w = new RandomAccessFile(f, "rw").getChannel();
+    w.truncate(0);
+    r = new RandomAccessFile(f, "r").getChannel();
+  }
+
+  @AfterEach
+  void tearDown() {
+
+    if (w != null){
+      try {
+        w.close();
+        w = null;
+      } catch (IOException ignored) { }
+    }
+
+    if (r != null){
+      try {
+        r.close();
+        r = null;
+      } catch (IOException ignored) { }
+    }
+
+  }
+
+  private ArrayList<Value> values(){
+    ArrayList<Value> ret = new ArrayList<>();
+    ret.add(Values.NIL);
+    ret.add(Values.TRUE);
+    ret.add(Values.make(42L));
+    ret.add(Values.make(-1.5));
+    ret.add(Values.make(new BigDecimal("3.14159265358979323846")));
+    ret.add(Values.make("hello world 😀"));
+    ret.add(Values.make(new byte[]{1, 2, 3, 4, 5}));
+    ret.add(Values.make(new DateTimeValue(ZonedDateTime.of(2020, 2, 29, 12, 30, 0, 1, ZoneId.of("Europe/Berlin")))));
+    ret.add(Values.makeList());
+    ret.add(Values.makeDict());
+    ret.add(Values.makeList(Values.make(1L), Values.make("a"), Values.makeList(Values.NIL)));
+    ret.add(Values.makeDict("a", Values.make(1L), "b", Values.makeList(Values.make("x")), "ä", Values.makeDict("d", Values.TRUE)));
+    ret.add(Values.makeRange(1, 1000));
+    return ret;
+  }
+
+  private void write(ArrayList<Value> values) throws IOException {
+    try (IndexedOut out = new IndexedOut(w, 17)) {
+      for (Value value : values) {
+        out.write(value);
+      }
+    }
+    w.close();
+  }
+
+  @Test
+  void reads_values() throws Exception {
+
+    ArrayList<Value> values = values();
+    write(values);
+
+    try (IndexedIn in = new IndexedIn(r)){
+      for (Value value : values) {
+        Value read = in.readNext();
+        assertThat(read).isEqualTo(value);
+        assertThat(read.hashCode()).isEqualTo(value.hashCode());
+      }
+      assertThat(in.readNext()).isNull();
+    }
+
+  }
+
+  @Test
+  void reads_nested_elements() throws Exception {
+
+    TransientListValue items = new TransientListValue();
+    for (int i = 0; i < 10_000; i++) {
+      items.append(Values.makeDict("id", Values.make(i), "tags", Values.makeList(Values.make("t"+i))));
+    }
+    ArrayList<Value> values = new ArrayList<>();
+    values.add(Values.makeDict("items", Values.make(items.persistent())));
+    write(values);
+
+    try (IndexedIn in = new IndexedIn(r)){
+      DictValue doc = in.readNext().dict();
+      ListValue list = doc.get("items").list();
+      assertThat(list.size()).isEqualTo(10_000);
+      assertThat(list.get(9_999).dict().get("id")).isEqualTo(Values.make(9_999));
+      assertThat(list.get(4_711).dict().get("tags").list().get(0)).isEqualTo(Values.make("t4711"));
+      assertThat(list.slice(10, 12).get(1).dict().get("id")).isEqualTo(Values.make(11));
+    }
+
+  }
+
+  @Test
+  void decodes_elements_on_access() throws Exception {
+
+    ArrayList<Value> values = new ArrayList<>();
+    values.add(Values.makeDict("a", Values.make(1L), "b", Values.make("needle")));
+    write(values);
+
+    // corrupt the format of the string value
+    byte[] bytes = Files.readAllBytes(scratchFile);
+    byte[] needle = "needle".getBytes(StandardCharsets.UTF_16BE);
+    int at = -1;
+    for (int i = 0; i + needle.length <= bytes.length && at < 0; i++) {
+      boolean found = true;
+      for (int j = 0; j < needle.length && found; j++) {
+        found = bytes[i + j] == needle[j];
+      }
+      if (found) at = i;
+    }
+    assertThat(bytes[at - 5]).isEqualTo(MagicNumbers.Format.STRING);
+    bytes[at - 5] = 99;
+
+    try (IndexedIn in = new IndexedIn(ByteBuffer.wrap(bytes))){
+      DictValue dict = in.readNext().dict();
+      assertThat(dict.size()).isEqualTo(2);
+      assertThat(dict.get("a")).isEqualTo(Values.make(1L));
+      assertThrows(LangException.class, () -> dict.get("b"));
+      assertThat(in.readNext()).isNull();
+    }
+
+  }
+
+  @Test
+  void fails_on_truncated_data() throws Exception {
+
+    ByteBuffer buffer = ByteBuffer.allocate(9);
+    buffer.put(MagicNumbers.Format.INDEXED_LIST);
+    buffer.putInt(1);
+    buffer.putInt(0);
+    buffer.flip();
+
+    try (IndexedIn in = new IndexedIn(buffer)){
+      assertThrows(IOException.class, in::readNext);
+    }
+
+  }
+
+}
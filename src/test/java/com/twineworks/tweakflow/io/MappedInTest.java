@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.io;
+
+import com.twineworks.tweakflow.lang.values.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedInTest {
+
+  static final Path scratchFile = Paths.get("target/test-scratch/mapped.bin").toAbsolutePath().normalize();
+  FileChannel w;
+  FileChannel r;
+
+  @BeforeEach
+  void clearScratch() throws Exception {
+    File f = scratchFile.toFile();
+    Files.createDirectories(scratchFile.getParent());
+    if (f.exists()){
+      if (!f.delete()) throw new AssertionError("Could not delete scratch file: "+f);
+    }
+
+    w = new RandomAccessFile(f, "rw").getChannel();
+    w.truncate(0);
+    r = new RandomAccessFile(f, "r").getChannel();
+  }
+
+  @AfterEach
+  void tearDown() {
+
+    if (w != null){
+      try {
+        w.close();
+        w = null;
+      } catch (IOException ignored) { }
+    }
+
+    if (r != null){
+      try {
+        r.close();
+        r = null;
+      } catch (IOException ignored) { }
+    }
+
+  }
+
+  private ArrayList<Value> values(){
+    ArrayList<Value> ret = new ArrayList<>();
+    ret.add(Values.NIL);
+    ret.add(Values.TRUE);
+    ret.add(Values.make(42L));
+    ret.add(Values.make(-1.5));
+    ret.add(Values.make(new BigDecimal("3.14159265358979323846")));
+    ret.add(Values.make("hello world 😀"));
+    ret.add(Values.make(new byte[]{1, 2, 3, 4, 5}));
+    ret.add(Values.make(new DateTimeValue(ZonedDateTime.of(2020, 2, 29, 12, 30, 0, 1, ZoneId.of("Europe/Berlin")))));
+    ret.add(Values.makeList(Values.make(1L), Values.make("a"), Values.makeList(Values.NIL)));
+    ret.add(Values.makeDict("a", Values.make(1L), "b", Values.makeList(Values.make("x")), "c", Values.makeDict("d", Values.TRUE)));
+    ret.add(Values.makeRange(1, 1000));
+    return ret;
+  }
+
+  private void write(ArrayList<Value> values) throws IOException {
+    try (Out out = new Out(w, 17)) {
+      for (Value value : values) {
+        out.write(value);
+      }
+    }
+    w.close();
+  }
+
+  @Test
+  void reads_values_from_buffers() throws Exception {
+
+    ArrayList<Value> values = values();
+    write(values);
+
+    ByteBuffer buffer = r.map(FileChannel.MapMode.READ_ONLY, 0, r.size());
+    try (MappedIn in = new MappedIn(buffer)){
+      for (Value value : values) {
+        assertThat(in.readNext()).isEqualTo(value);
+      }
+      assertThat(in.readNext()).isNull();
+    }
+
+  }
+
+  @Test
+  void reads_values_across_windows() throws Exception {
+
+    ArrayList<Value> values = values();
+    for (int i = 0; i < 10; i++) {
+      values.addAll(values());
+    }
+    write(values);
+
+    try (MappedIn in = new MappedIn(r, 17)){
+      for (Value value : values) {
+        assertThat(in.readNext()).isEqualTo(value);
+      }
+      assertThat(in.readNext()).isNull();
+    }
+
+  }
+
+  @Test
+  void reads_empty_files() throws Exception {
+
+    w.close();
+
+    try (MappedIn in = new MappedIn(r)){
+      assertThat(in.readNext()).isNull();
+    }
+
+  }
+
+  @Test
+  void fails_on_truncated_data() throws Exception {
+
+    ByteBuffer buffer = ByteBuffer.allocate(5);
+    buffer.put(MagicNumbers.Format.STRING);
+    buffer.putInt(10);
+    buffer.flip();
+
+    try (MappedIn in = new MappedIn(buffer)){
+      assertThrows(IOException.class, in::readNext);
+    }
+
+  }
+
+}
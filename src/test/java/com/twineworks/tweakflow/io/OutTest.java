@@ -495,6 +495,104 @@ class OutTest {
 
   }
 
+  @Test
+  void writes_compressed_blocks() throws Exception {
+
+    ArrayList<Value> values = new ArrayList<>();
+    for (int i=0;i<1000;i++){
+      values.add(Values.makeDict("id", Values.make(i), "name", Values.make("name "+(i % 10))));
+    }
+
+    try (Out out = new Out(w, 1024, new DeflateCodec())) {
+      for (Value value : values) {
+        out.write(value);
+      }
+    }
+    w.close();
+
+    try (In in = new In(r, 1024, new DeflateCodec())){
+      for (Value value : values) {
+        assertThat(in.readNext()).isEqualTo(value);
+      }
+      assertThat(in.readNext()).isNull();
+    }
+
+    long compressedSize = Files.size(scratchFile);
+    assertThat(compressedSize).isLessThan(1000 * 20);
+    r.close();
+
+  }
+
+  @Test
+  void skips_compressed_blocks() throws Exception {
+
+    try (Out out = new Out(w, 1024, new DeflateCodec())) {
+      out.write(Values.make("first"));
+      out.flush();
+      out.write(Values.make("second"));
+      out.flush();
+      out.write(Values.make("third"));
+    }
+    w.close();
+
+    BlockDecompressingChannel blocks = new BlockDecompressingChannel(r, new DeflateCodec());
+    assertThat(blocks.skipBlock()).isTrue();
+    assertThat(blocks.skipBlock()).isTrue();
+
+    try (In in = new In(blocks, 1024)){
+      assertThat(in.readNext()).isEqualTo(Values.make("third"));
+      assertThat(in.readNext()).isNull();
+    }
+    assertThat(blocks.skipBlock()).isFalse();
+    r.close();
+
+  }
+
+  @Test
+  void streams_list_elements_and_dict_entries() throws Exception {
+
+    ArrayList<Value> items = new ArrayList<>();
+    for (int i=0;i<1000;i++){
+      items.add(Values.makeDict("id", Values.make(i)));
+    }
+    Value list = Values.makeList(items);
+    Value dict = Values.makeDict("items", list, "count", Values.make(1000));
+
+    try (Out out = new Out(w, 17)) {
+      out.write(list);
+      out.write(dict);
+    }
+    w.close();
+
+    try (In in = new In(r, 17)){
+
+      int size = in.readListHead();
+      assertThat(size).isEqualTo(1000);
+      for (int i=0;i<size;i++){
+        assertThat(in.readNext()).isEqualTo(items.get(i));
+      }
+
+      int entries = in.readDictHead();
+      assertThat(entries).isEqualTo(2);
+      for (int i=0;i<entries;i++){
+        String key = in.readKey();
+        if (key.equals("items")){
+          int n = in.readListHead();
+          for (int j=0;j<n;j++){
+            assertThat(in.readNext()).isEqualTo(items.get(j));
+          }
+        }
+        else {
+          assertThat(in.readNext()).isEqualTo(dict.dict().get(key));
+        }
+      }
+
+      assertThat(in.readNext()).isNull();
+    }
+    r.close();
+
+  }
+
   @Test
   void cannot_serialize_functions() throws Exception {
 
@@ -24,6 +24,8 @@
 
 package com.twineworks.tweakflow.io.stream;
 
+import com.twineworks.tweakflow.io.BlockCodec;
+import com.twineworks.tweakflow.io.DeflateCodec;
 import com.twineworks.tweakflow.io.In;
 import com.twineworks.tweakflow.io.Out;
 import com.twineworks.tweakflow.lang.TweakFlow;
@@ -99,6 +101,21 @@ class ValueOutputStreamTest {
     return new ValueOutputStream(out);
   }
 
+  ValueInputStream getIn(BlockCodec codec) throws IOException {
+    in = new BufferedInputStream(Files.newInputStream(scratchFile, StandardOpenOption.READ), 64*1024);
+    return new ValueInputStream(in, 0, codec);
+  }
+
+  ValueOutputStream getOut(BlockCodec codec, int blockSize) throws IOException {
+    out = Files.newOutputStream(scratchFile, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+    return new ValueOutputStream(out, 0, codec, blockSize);
+  }
+
+  ValueOutputStream getOut(int tableSize) throws IOException {
+    out = new BufferedOutputStream(Files.newOutputStream(scratchFile, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.CREATE), 64*1024);
+    return new ValueOutputStream(out, tableSize);
+  }
+
   @Test
   void writes_nils() throws Exception {
 
@@ -637,6 +654,125 @@ class ValueOutputStreamTest {
 
   }
 
+  @Test
+  void writes_shaped_dicts_and_string_references() throws Exception {
+
+    ArrayList<Value> values = new ArrayList<>();
+    for (int i=0;i<1000;i++){
+      values.add(Values.makeDict(
+          "id", Values.make(i),
+          "status", Values.make(i % 2 == 0 ? "active" : "inactive"),
+          "tags", Values.makeList(Values.make("t"+(i % 10)))
+      ));
+    }
+    values.add(Values.makeDict());
+    values.add(Values.makeDict("status", Values.make("active")));
+
+    // a table too small for all strings and shapes falls back to plain encoding
+    for (int tableSize : new int[]{1, 1000}) {
+
+      try (ValueOutputStream out = getOut(tableSize)) {
+        for (Value value : values) {
+          out.write(value);
+        }
+      }
+
+      try (ValueInputStream in = getIn()){
+        for (Value value : values) {
+          Value v = in.read();
+          assertThat(v).isEqualTo(value);
+          assertThat(v.hashCode()).isEqualTo(value.hashCode());
+        }
+        assertThrows(EOFException.class, in::read);
+      }
+    }
+
+  }
+
+  @Test
+  void writes_repeated_keys_once() throws Exception {
+
+    ArrayList<Value> values = new ArrayList<>();
+    for (int i=0;i<1000;i++){
+      values.add(Values.makeDict("a_long_key_name", Values.make(i), "another_long_key_name", Values.make("value")));
+    }
+
+    try (ValueOutputStream out = getOut()) {
+      for (Value value : values) {
+        out.write(value);
+      }
+    }
+    long plainSize = Files.size(scratchFile);
+
+    try (ValueOutputStream out = getOut(1000)) {
+      for (Value value : values) {
+        out.write(value);
+      }
+    }
+    long sharedSize = Files.size(scratchFile);
+
+    assertThat(sharedSize * 2).isLessThan(plainSize);
+
+  }
+
+  @Test
+  void writes_compressed_blocks() throws Exception {
+
+    ArrayList<Value> values = new ArrayList<>();
+    for (int i=0;i<1000;i++){
+      values.add(Values.makeDict("id", Values.make(i), "name", Values.make("name "+(i % 10))));
+    }
+
+    try (ValueOutputStream out = getOut(new DeflateCodec(), 1024)) {
+      for (Value value : values) {
+        out.write(value);
+      }
+    }
+
+    try (ValueInputStream in = getIn(new DeflateCodec())){
+      for (Value value : values) {
+        assertThat(in.read()).isEqualTo(value);
+      }
+      assertThrows(EOFException.class, in::read);
+    }
+
+    assertThat(Files.size(scratchFile)).isLessThan(1000 * 20);
+
+  }
+
+  @Test
+  void streams_list_elements_and_dict_entries() throws Exception {
+
+    ArrayList<Value> items = new ArrayList<>();
+    for (int i=0;i<1000;i++){
+      items.add(Values.makeDict("id", Values.make(i), "name", Values.make("item")));
+    }
+
+    // shaped dicts list their keys from the shape
+    for (int tableSize : new int[]{0, 1000}) {
+
+      try (ValueOutputStream out = getOut(tableSize)) {
+        out.write(Values.makeList(items));
+      }
+
+      try (ValueInputStream in = getIn()){
+        int size = in.readListHead();
+        assertThat(size).isEqualTo(1000);
+        for (int i=0;i<size;i++){
+          int entries = in.readDictHead();
+          assertThat(entries).isEqualTo(2);
+          for (int j=0;j<entries;j++){
+            String key = in.readKey();
+            assertThat(in.read()).isEqualTo(items.get(i).dict().get(key));
+          }
+        }
+        assertThrows(IOException.class, in::readKey);
+        assertThrows(EOFException.class, in::read);
+      }
+    }
+
+  }
+
   @Test
   void cannot_serialize_functions() throws Exception {
 
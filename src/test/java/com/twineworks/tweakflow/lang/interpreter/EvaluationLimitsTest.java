@@ -0,0 +1,272 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.StrictAssertions.assertThat;
+import static org.assertj.core.api.StrictAssertions.fail;
+
+public class EvaluationLimitsTest {
+
+  private static final String module = "import data, strings from 'std';\n" +
+      "library lib {\n" +
+      "  fib: (x) -> if x > 2 then fib(x-2)+fib(x-1) else 1;\n" +
+      "  loop: (n) -> loop(n+1);\n" +
+      "  count: (n) -> if n == 0 then 0 else count(n-1);\n" +
+      "  for_size: (n) -> data.size(for i <- data.range(1, n), i);\n" +
+      "  map_size: (n) -> data.size(data.map(data.range(1, n), (x) -> x));\n" +
+      "  pmap_count: (n) -> data.size(data.pmap(data.range(1, n), (x) -> count(100)));\n" +
+      "  guarded_loop: (n) -> try loop(n) catch 'caught';\n" +
+      "  repeat: (n) -> data.append(data.repeat(n-1, 'x'), 'x');\n" +
+      "  grow: (n) -> data.reduce(data.range(1, n), '', (a, x) -> a .. 'xxxxxxxxxx');\n" +
+      "  build_dict: (n) -> data.reduce(data.range(1, n), {}, (a, x) -> data.put(a, x as string, x));\n" +
+      "  provided long n;\n" +
+      "  slow_var: fib(n);\n" +
+      "}";
+
+  private Runtime compile(){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .addStdLocation()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", module)
+            .build())
+        .build();
+
+    return TweakFlow.compile(loadPath, "userModule");
+  }
+
+  private Runtime.Library library(Runtime runtime){
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib");
+  }
+
+  private void assertAborted(Runnable r, String message){
+    try {
+      r.run();
+      fail("expected evaluation to be aborted");
+    } catch (LangException e){
+      assertThat(e.getCode()).isEqualTo(LangError.EVALUATION_ABORTED);
+      assertThat(e.getMessage()).contains(message);
+    }
+  }
+
+  @Test
+  void aborts_endless_recursion_on_step_limit() {
+
+    Runtime runtime = compile();
+    Runtime.Var loop = library(runtime).getVar("loop");
+
+    runtime.setStepLimit(10000);
+    assertAborted(() -> loop.call(Values.make(0L)), "step limit of 10000 exceeded");
+  }
+
+  @Test
+  void allows_evaluations_within_step_limit() {
+
+    Runtime runtime = compile();
+    Runtime.Var count = library(runtime).getVar("count");
+
+    // one step for each call
+    runtime.setStepLimit(101);
+    assertThat(count.call(Values.make(100L))).isEqualTo(Values.make(0L));
+    assertThat(runtime.getStepsTaken()).isEqualTo(101L);
+
+    runtime.setStepLimit(100);
+    assertAborted(() -> count.call(Values.make(100L)), "step limit");
+  }
+
+  @Test
+  void applies_limits_to_each_evaluation() throws Exception {
+
+    Runtime runtime = compile();
+    Runtime.Library lib = library(runtime);
+    Runtime.Var count = lib.getVar("count");
+    Runtime.Var repeat = lib.getVar("repeat");
+
+    runtime.setStepLimit(101);
+    for (int i = 0; i < 3; i++) {
+      assertThat(count.call(Values.make(100L))).isEqualTo(Values.make(0L));
+      assertThat(runtime.getStepsTaken()).isEqualTo(101L);
+    }
+
+    runtime.setTimeLimit(50);
+    Thread.sleep(100);
+    assertThat(count.call(Values.make(100L))).isEqualTo(Values.make(0L));
+
+    runtime.clearLimits();
+    runtime.setAllocationLimit(1024 * 1024);
+    repeat.call(Values.make(1000L));
+    long bytes = runtime.getBytesAllocated();
+
+    runtime.setAllocationLimit(bytes * 2);
+    for (int i = 0; i < 3; i++) {
+      assertThat(repeat.call(Values.make(1000L)).list().size()).isEqualTo(1000);
+      assertThat(runtime.getBytesAllocated()).isEqualTo(bytes);
+    }
+  }
+
+  @Test
+  void counts_for_loop_iterations() {
+
+    Runtime runtime = compile();
+    Runtime.Var forSize = library(runtime).getVar("for_size");
+
+    runtime.setStepLimit(100);
+    assertThat(forSize.call(Values.make(50L))).isEqualTo(Values.make(50L));
+
+    runtime.setStepLimit(100);
+    assertAborted(() -> forSize.call(Values.make(1000L)), "step limit");
+  }
+
+  @Test
+  void counts_calls_from_std_higher_order_functions() {
+
+    Runtime runtime = compile();
+    Runtime.Var mapSize = library(runtime).getVar("map_size");
+
+    runtime.setStepLimit(1000);
+    assertAborted(() -> mapSize.call(Values.make(100000L)), "step limit");
+  }
+
+  @Test
+  void shares_step_limit_with_parallel_calls() {
+
+    Runtime runtime = compile();
+    Runtime.Var pmapCount = library(runtime).getVar("pmap_count");
+
+    // each element takes 102 steps, no single range of 16 elements or less reaches the limit
+    runtime.setStepLimit(3000);
+    assertAborted(() -> pmapCount.call(Values.make(64L)), "step limit of 3000 exceeded");
+
+    runtime.setStepLimit(10000);
+    assertThat(pmapCount.call(Values.make(64L))).isEqualTo(Values.make(64L));
+    assertThat(runtime.getStepsTaken()).isBetween(64L * 102, 64L * 102 + 10);
+  }
+
+  @Test
+  void aborts_on_time_limit() {
+
+    Runtime runtime = compile();
+    Runtime.Var fib = library(runtime).getVar("fib");
+
+    runtime.setTimeLimit(50);
+    assertAborted(() -> fib.call(Values.make(100L)), "time limit exceeded");
+  }
+
+  @Test
+  void cannot_catch_aborted_evaluation() {
+
+    Runtime runtime = compile();
+    Runtime.Var guardedLoop = library(runtime).getVar("guarded_loop");
+
+    runtime.setStepLimit(1000);
+    assertAborted(() -> guardedLoop.call(Values.make(0L)), "step limit");
+  }
+
+  @Test
+  void aborts_cancelled_evaluation() throws Exception {
+
+    Runtime runtime = compile();
+    Runtime.Var loop = library(runtime).getVar("loop");
+
+    Thread canceller = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException ignored) {
+      }
+      runtime.cancel();
+    });
+
+    canceller.start();
+    assertAborted(() -> loop.call(Values.make(0L)), "cancelled");
+    canceller.join();
+  }
+
+  @Test
+  void remains_usable_after_aborted_evaluation() {
+
+    Runtime runtime = compile();
+    Runtime.Library lib = library(runtime);
+    Runtime.Var provided = lib.getVar("n");
+    Runtime.Var slowVar = lib.getVar("slow_var");
+
+    runtime.setStepLimit(1000);
+    assertAborted(() -> provided.update(Values.make(20L)), "step limit");
+
+    runtime.clearLimits();
+    slowVar.evaluate();
+    assertThat(slowVar.getValue()).isEqualTo(Values.make(6765L));
+    assertThat(lib.getVar("fib").call(Values.make(10L))).isEqualTo(Values.make(55L));
+  }
+
+  @Test
+  void aborts_on_allocation_limit_before_building_large_list() {
+
+    Runtime runtime = compile();
+    Runtime.Var repeat = library(runtime).getVar("repeat");
+
+    runtime.setAllocationLimit(1024 * 1024);
+    assertAborted(() -> repeat.call(Values.make(1_000_000_000L)), "allocation limit of 1048576 bytes exceeded");
+  }
+
+  @Test
+  void accounts_string_and_dict_allocations() {
+
+    Runtime runtime = compile();
+    Runtime.Library lib = library(runtime);
+
+    runtime.setAllocationLimit(100_000);
+    assertAborted(() -> lib.getVar("grow").call(Values.make(10_000L)), "allocation limit");
+
+    runtime.setAllocationLimit(100_000);
+    assertAborted(() -> lib.getVar("build_dict").call(Values.make(10_000L)), "allocation limit");
+  }
+
+  @Test
+  void allows_evaluations_within_allocation_limit() {
+
+    Runtime runtime = compile();
+    Runtime.Library lib = library(runtime);
+
+    runtime.setAllocationLimit(1024 * 1024);
+    assertThat(lib.getVar("repeat").call(Values.make(1000L)).list().size()).isEqualTo(1000);
+    assertThat(runtime.getBytesAllocated()).isGreaterThan(8000L);
+
+    runtime.clearLimits();
+    assertThat(lib.getVar("repeat").call(Values.make(1_000_000L)).list().size()).isEqualTo(1_000_000);
+    assertThat(runtime.getBytesAllocated()).isEqualTo(0L);
+  }
+
+}
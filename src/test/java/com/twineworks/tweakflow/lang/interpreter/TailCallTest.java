@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.StrictAssertions.fail;
+import static org.assertj.core.api.StrictAssertions.assertThat;
+
+public class TailCallTest {
+
+  private static final String module = "import data, fun from 'std';\n" +
+      "library lib {\n" +
+      "  count: (n, acc) -> if n == 0 then acc else count(n-1, acc+1);\n" +
+      "  even?: (n) -> if n == 0 then true else odd?(n-1);\n" +
+      "  odd?: (n) -> if n == 0 then false else even?(n-1);\n" +
+      "  sum_let: (n, acc) -> let { m: n-1; } if n == 0 then acc else sum_let(m, acc+n);\n" +
+      "  sum_match: (n, acc) -> match n\n" +
+      "    0 -> acc,\n" +
+      "    default -> sum_match(n-1, acc+n);\n" +
+      "  count_long: (n, acc) -> long if n == 0 then acc else count_long(n-1, acc+1);\n" +
+      "  as_long: (x) -> long as_string(x);\n" +
+      "  as_string: (x) -> string x;\n" +
+      "  fail_at_zero: (n) -> if n == 0 then throw 'bottom' else fail_at_zero(n-1);\n" +
+      "  reduce_count: (n) -> data.reduce(data.range(1, n), 0, (a, x) -> count(x, a));\n" +
+      "  non_tail: (n) -> if n == 0 then 0 else non_tail(n-1) + 1;\n" +
+      "}";
+
+  private Runtime.Library compileLibrary(){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .addStdLocation()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", module)
+            .build())
+        .build();
+
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib");
+  }
+
+  private Value call(String name, Value... args){
+    return compileLibrary().getVar(name).call(args);
+  }
+
+  @Test
+  void runs_deep_self_recursion() {
+    assertThat(call("count", Values.make(100000L), Values.make(0L))).isEqualTo(Values.make(100000L));
+  }
+
+  @Test
+  void runs_deep_mutual_recursion() {
+    assertThat(call("even?", Values.make(100001L))).isEqualTo(Values.FALSE);
+    assertThat(call("odd?", Values.make(100001L))).isEqualTo(Values.TRUE);
+  }
+
+  @Test
+  void runs_deep_recursion_in_let_body() {
+    assertThat(call("sum_let", Values.make(100000L), Values.make(0L))).isEqualTo(Values.make(5000050000L));
+  }
+
+  @Test
+  void runs_deep_recursion_in_match_lines() {
+    assertThat(call("sum_match", Values.make(100000L), Values.make(0L))).isEqualTo(Values.make(5000050000L));
+  }
+
+  @Test
+  void runs_deep_recursion_with_matching_return_type() {
+    assertThat(call("count_long", Values.make(100000L), Values.make(0L))).isEqualTo(Values.make(100000L));
+  }
+
+  @Test
+  void casts_tail_call_result_with_different_return_type() {
+    assertThat(call("as_long", Values.make(42L))).isEqualTo(Values.make(42L));
+  }
+
+  @Test
+  void runs_tail_calls_from_higher_order_functions() {
+    assertThat(call("reduce_count", Values.make(10L))).isEqualTo(Values.make(55L));
+  }
+
+  @Test
+  void evaluates_non_tail_recursion() {
+    assertThat(call("non_tail", Values.make(100L))).isEqualTo(Values.make(100L));
+  }
+
+  @Test
+  void reports_errors_from_deep_recursion() {
+    try {
+      call("fail_at_zero", Values.make(100000L));
+      fail("expected exception");
+    } catch (LangException e) {
+      assertThat(e.getCode()).isEqualTo(LangError.CUSTOM_ERROR);
+      assertThat(e.getMessage()).contains("bottom");
+    }
+  }
+
+}
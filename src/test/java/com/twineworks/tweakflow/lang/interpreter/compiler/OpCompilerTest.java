@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.compiler;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.interpreter.ops.ExpressionOp;
+import com.twineworks.tweakflow.lang.interpreter.ops.TieredOp;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.StandardFunctionValue;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.StrictAssertions.assertThat;
+
+public class OpCompilerTest {
+
+  private static final String module = "library lib {\n" +
+      "  arith: (long x, long y) -> if x < y then x * 2 + 1 else (x - y) / 2;\n" +
+      "  cmp: (double x, double y) -> x <= y && x >= 0.0 || !(x > y);\n" +
+      "  mixed: (long x) -> x + ([x, 2][1] as long);\n" +
+      "  nested: (long x) -> [x * 2 + 1, if x > 0 then x - 1 else 0];\n" +
+      "  fallback: (x) -> [x, x];\n" +
+      "}";
+
+  private Runtime.Library compileLibrary(int compileThreshold){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .addStdLocation()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", module)
+            .build())
+        .build();
+
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    runtime.setCompileThreshold(compileThreshold);
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib");
+  }
+
+  private ExpressionOp bodyOp(Runtime.Var var){
+    StandardFunctionValue f = (StandardFunctionValue) var.getValue().function();
+    return f.getBody().getOp();
+  }
+
+  private void assertSameResults(String name, Value[]... argLists){
+
+    Runtime.Var interpreted = compileLibrary(0).getVar(name);
+    Runtime.Var compiled = compileLibrary(1).getVar(name);
+
+    for (int i = 0; i < 3; i++) {
+      for (Value[] args : argLists) {
+        assertThat(compiled.call(args)).isEqualTo(interpreted.call(args));
+      }
+    }
+
+    assertThat(bodyOp(interpreted)).isInstanceOf(TieredOp.class);
+    assertThat(((TieredOp) bodyOp(interpreted)).isCompiled()).isFalse();
+    assertThat(((TieredOp) bodyOp(compiled)).isCompiled()).isTrue();
+  }
+
+  @Test
+  void compiles_long_arithmetic() {
+    assertSameResults("arith",
+        new Value[]{Values.make(1L), Values.make(2L)},
+        new Value[]{Values.make(7L), Values.make(2L)},
+        new Value[]{Values.NIL, Values.make(2L)},
+        new Value[]{Values.make(2L), Values.NIL},
+        new Value[]{Values.NIL, Values.NIL}
+    );
+  }
+
+  @Test
+  void compiles_double_comparisons_and_logic() {
+    assertSameResults("cmp",
+        new Value[]{Values.make(1.0), Values.make(2.0)},
+        new Value[]{Values.make(-1.0), Values.make(2.0)},
+        new Value[]{Values.make(3.0), Values.make(2.0)},
+        new Value[]{Values.NIL, Values.make(2.0)},
+        new Value[]{Values.make(2.0), Values.NIL},
+        new Value[]{Values.NIL, Values.NIL}
+    );
+  }
+
+  @Test
+  void compiles_around_interpreted_ops() {
+    assertSameResults("mixed",
+        new Value[]{Values.make(1L)},
+        new Value[]{Values.make(-5L)},
+        new Value[]{Values.NIL}
+    );
+  }
+
+  @Test
+  void compiles_expressions_below_interpreted_ops() {
+    assertSameResults("nested",
+        new Value[]{Values.make(1L)},
+        new Value[]{Values.make(-5L)},
+        new Value[]{Values.NIL}
+    );
+  }
+
+  @Test
+  void keeps_interpreting_unsupported_bodies() {
+
+    Runtime.Var f = compileLibrary(1).getVar("fallback");
+    for (int i = 0; i < 3; i++) {
+      assertThat(f.call(Values.make(1L))).isEqualTo(Values.makeList(1L, 1L));
+    }
+
+    assertThat(((TieredOp) bodyOp(f)).isCompiled()).isFalse();
+  }
+
+}
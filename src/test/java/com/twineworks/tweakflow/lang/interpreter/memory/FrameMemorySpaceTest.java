@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.memory;
+
+import com.twineworks.collections.shapemap.ConstShapeMap;
+import com.twineworks.tweakflow.lang.types.Types;
+import com.twineworks.tweakflow.lang.values.FunctionParameter;
+import com.twineworks.tweakflow.lang.values.FunctionSignature;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrameMemorySpaceTest {
+
+  private FunctionSignature signature(String... names){
+    FunctionParameter[] parameters = new FunctionParameter[names.length];
+    for (int i = 0; i < names.length; i++) {
+      parameters[i] = new FunctionParameter(i, names[i], Types.ANY, Values.NIL);
+    }
+    return new FunctionSignature(Arrays.asList(parameters), Types.ANY);
+  }
+
+  @Test
+  void reads_slots() {
+    FrameMemorySpace frame = new FrameMemorySpace(null, null, signature("x", "y"), new Value[]{Values.make(1L), Values.make("a")});
+    assertThat(frame.get(0)).isEqualTo(Values.make(1L));
+    assertThat(frame.get(1)).isEqualTo(Values.make("a"));
+    assertThat(frame.getMemorySpaceType()).isEqualTo(MemorySpaceType.CALL_ARGUMENTS);
+  }
+
+  @Test
+  void views_slots_as_cells() {
+    FrameMemorySpace frame = new FrameMemorySpace(null, null, signature("x", "y"), new Value[]{Values.make(1L), Values.make("a")});
+    ConstShapeMap<Cell> cells = frame.getCells();
+    assertThat(cells.keySet()).hasSize(2);
+    assertThat(cells.gets("x").getValue()).isEqualTo(Values.make(1L));
+    assertThat(cells.gets("y").getValue()).isEqualTo(Values.make("a"));
+    assertThat(frame.getCells()).isSameAs(cells);
+  }
+
+  @Test
+  void rebuilds_cells_after_slot_changes() {
+    FrameMemorySpace frame = new FrameMemorySpace(null, null, signature("x"), new Value[]{Values.make(1L)});
+    ConstShapeMap<Cell> cells = frame.getCells();
+    frame.set(0, Values.make(2L));
+    assertThat(frame.get(0)).isEqualTo(Values.make(2L));
+    assertThat(frame.getCells()).isNotSameAs(cells);
+    assertThat(frame.getCells().gets("x").getValue()).isEqualTo(Values.make(2L));
+  }
+
+}
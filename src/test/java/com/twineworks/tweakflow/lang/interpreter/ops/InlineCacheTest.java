@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.StrictAssertions.assertThat;
+import static org.assertj.core.api.StrictAssertions.fail;
+
+public class InlineCacheTest {
+
+  private static final String module = "import data, strings from 'std';\n" +
+      "library lib {\n" +
+      "  apply: (f, x) -> f(x);\n" +
+      "  apply_all: (fs, x) -> data.map(fs, (f) -> f(x));\n" +
+      "  adders: (n) -> data.map(data.range(1, n), (i) -> (x) -> x + i);\n" +
+      "  strategies: {:inc (x) -> x + 1, :dbl (long x) -> x * 2, :len strings.length, :neg (x, y=-1) -> x * y};\n" +
+      "  use: (k, x) -> let { f: strategies[k]; } f(x);\n" +
+      "  poly: (x) -> apply_all([(a) -> a, (a) -> a+1, (a) -> a+2, (a) -> a+3, (a) -> a+4, (a) -> a+5], x);\n" +
+      "  closures: (n) -> apply_all(adders(n), 10);\n" +
+      "  too_many: (f) -> f(1, 2, 3);\n" +
+      "}";
+
+  private Runtime.Library compileLibrary(){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .addStdLocation()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", module)
+            .build())
+        .build();
+
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib");
+  }
+
+  @Test
+  void calls_strategies_through_dynamic_call_site() {
+
+    Runtime.Var use = compileLibrary().getVar("use");
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(use.call(Values.make("inc"), Values.make(1L))).isEqualTo(Values.make(2L));
+      assertThat(use.call(Values.make("dbl"), Values.make("4"))).isEqualTo(Values.make(8L));
+      assertThat(use.call(Values.make("len"), Values.make("abc"))).isEqualTo(Values.make(3L));
+      assertThat(use.call(Values.make("neg"), Values.make(5L))).isEqualTo(Values.make(-5L));
+      assertThat(use.call(Values.make("dbl"), Values.NIL)).isEqualTo(Values.NIL);
+    }
+  }
+
+  @Test
+  void calls_megamorphic_call_site() {
+
+    Runtime.Var poly = compileLibrary().getVar("poly");
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(poly.call(Values.make(1L))).isEqualTo(Values.makeList(1L, 2L, 3L, 4L, 5L, 6L));
+    }
+  }
+
+  @Test
+  void calls_closures_of_same_function_node() {
+
+    Runtime.Var closures = compileLibrary().getVar("closures");
+    assertThat(closures.call(Values.make(5L))).isEqualTo(Values.makeList(11L, 12L, 13L, 14L, 15L));
+  }
+
+  @Test
+  void calls_user_functions_through_dynamic_call_site() {
+
+    Runtime.Library lib = compileLibrary();
+    Runtime.Var apply = lib.getVar("apply");
+    Value len = lib.getVar("strategies").getValue().dict().get("len");
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(apply.call(len, Values.make("abcd"))).isEqualTo(Values.make(4L));
+    }
+  }
+
+  @Test
+  void reports_cast_errors_at_argument() {
+
+    Runtime.Library lib = compileLibrary();
+    Runtime.Var use = lib.getVar("use");
+    Runtime.Var apply = lib.getVar("apply");
+    Value len = lib.getVar("strategies").getValue().dict().get("len");
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        use.call(Values.make("dbl"), Values.make("x"));
+        fail("expected exception");
+      } catch (LangException e) {
+        assertThat(e.getCode()).isEqualTo(LangError.CAST_ERROR);
+        assertThat(e.getSourceInfo().getSourceCode()).isEqualTo("x");
+      }
+
+      try {
+        apply.call(len, Values.makeList(1L));
+        fail("expected exception");
+      } catch (LangException e) {
+        assertThat(e.getCode()).isEqualTo(LangError.CAST_ERROR);
+        assertThat(e.getSourceInfo().getSourceCode()).isEqualTo("x");
+      }
+    }
+  }
+
+  @Test
+  void reports_too_many_arguments() {
+
+    Runtime.Var tooMany = compileLibrary().getVar("too_many");
+    Runtime.Var inc = compileLibrary().getVar("strategies");
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        tooMany.call(inc.getValue().dict().get("inc"));
+        fail("expected exception");
+      } catch (LangException e) {
+        assertThat(e.getCode()).isEqualTo(LangError.UNEXPECTED_ARGUMENT);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.StrictAssertions.assertThat;
+
+public class SlotReferenceTest {
+
+  private static final String module = "import data from 'std';\n" +
+      "library lib {\n" +
+      "  sub: (x, y) -> x - y;\n" +
+      "  with_default: (x, y=10) -> x - y;\n" +
+      "  adder: (x) -> (y) -> x + y;\n" +
+      "  add: (a, b) -> adder(a)(b);\n" +
+      "  curry: (a) -> (b) -> (c) -> [a, b, c];\n" +
+      "  curried: (a, b, c) -> curry(a)(b)(c);\n" +
+      "  scale: (xs, k) -> data.map(xs, (x) -> x * k);\n" +
+      "  let_param: (x) -> let { y: x + 1; } y * x;\n" +
+      "  nested_let_param: (x) -> let { y: 1; } let { z: 2; } x + y + z;\n" +
+      "  for_param: (n, k) -> for i <- data.range(1, n), i * k;\n" +
+      "  match_param: (x, k) -> match x long @v -> v + k, default -> k;\n" +
+      "}";
+
+  private Runtime.Library compileLibrary(){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .addStdLocation()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", module)
+            .build())
+        .build();
+
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib");
+  }
+
+  @Test
+  void reads_parameters_from_slots() {
+
+    Runtime.Library lib = compileLibrary();
+    assertThat(lib.getVar("sub").call(Values.make(5L), Values.make(3L))).isEqualTo(Values.make(2L));
+    assertThat(lib.getVar("with_default").call(Values.make(5L))).isEqualTo(Values.make(-5L));
+    assertThat(lib.getVar("with_default").call(Values.make(5L), Values.make(1L))).isEqualTo(Values.make(4L));
+  }
+
+  @Test
+  void captures_parameters_in_closures() {
+
+    Runtime.Library lib = compileLibrary();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(lib.getVar("add").call(Values.make(1L), Values.make(2L))).isEqualTo(Values.make(3L));
+      assertThat(lib.getVar("add").call(Values.make(10L), Values.make(20L))).isEqualTo(Values.make(30L));
+    }
+    assertThat(lib.getVar("curried").call(Values.make(1L), Values.make(2L), Values.make(3L))).isEqualTo(Values.makeList(1L, 2L, 3L));
+    assertThat(lib.getVar("scale").call(Values.makeList(1L, 2L, 3L), Values.make(2L))).isEqualTo(Values.makeList(2L, 4L, 6L));
+  }
+
+  @Test
+  void reads_parameters_from_nested_scopes() {
+
+    Runtime.Library lib = compileLibrary();
+    assertThat(lib.getVar("let_param").call(Values.make(3L))).isEqualTo(Values.make(12L));
+    assertThat(lib.getVar("nested_let_param").call(Values.make(3L))).isEqualTo(Values.make(6L));
+    assertThat(lib.getVar("for_param").call(Values.make(3L), Values.make(2L))).isEqualTo(Values.makeList(2L, 4L, 6L));
+    assertThat(lib.getVar("match_param").call(Values.make(1L), Values.make(2L))).isEqualTo(Values.make(3L));
+    assertThat(lib.getVar("match_param").call(Values.make("x"), Values.make(2L))).isEqualTo(Values.make(2L));
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.StrictAssertions.assertThat;
+
+public class TypeFeedbackTest {
+
+  private Runtime.Var compileFunction(String expression){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", "library lib {f: (a, b) -> " + expression + ";}")
+            .build())
+        .build();
+
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib").getVar("f");
+  }
+
+  @Test
+  void arithmetic_deoptimizes_on_type_change() {
+
+    Runtime.Var f = compileFunction("a + b");
+
+    // warm up with longs
+    for (int i = 0; i < 3; i++) {
+      assertThat(f.call(Values.make(i), Values.make(2L))).isEqualTo(Values.make(i + 2L));
+    }
+
+    // types change
+    assertThat(f.call(Values.make(1.5), Values.make(2.0))).isEqualTo(Values.make(3.5));
+    assertThat(f.call(Values.make(1L), Values.make(2.0))).isEqualTo(Values.make(3.0));
+    assertThat(f.call(Values.make(1L), Values.make(new BigDecimal("2")))).isEqualTo(Values.make(new BigDecimal("3")));
+    assertThat(f.call(Values.NIL, Values.make(2L))).isEqualTo(Values.NIL);
+    assertThat(f.call(Values.make(1L), Values.make(2L))).isEqualTo(Values.make(3L));
+
+  }
+
+  @Test
+  void comparison_deoptimizes_on_type_change() {
+
+    Runtime.Var f = compileFunction("a < b");
+
+    // warm up with doubles
+    for (int i = 0; i < 3; i++) {
+      assertThat(f.call(Values.make(1.0), Values.make(2.0))).isSameAs(Values.TRUE);
+    }
+
+    // types change
+    assertThat(f.call(Values.make(3L), Values.make(2L))).isSameAs(Values.FALSE);
+    assertThat(f.call(Values.NIL, Values.make(2.0))).isSameAs(Values.FALSE);
+    assertThat(f.call(Values.make(1L), Values.make(2.0))).isSameAs(Values.TRUE);
+
+  }
+
+  @Test
+  void equality_deoptimizes_on_type_change() {
+
+    Runtime.Var f = compileFunction("a == b");
+
+    Value nan = Values.make(Double.NaN);
+
+    assertThat(f.call(Values.make(1L), Values.make(1L))).isSameAs(Values.TRUE);
+    assertThat(f.call(Values.make(1000L), Values.make(1000L))).isSameAs(Values.TRUE);
+    assertThat(f.call(Values.make(1L), Values.make(1.0))).isSameAs(Values.TRUE);
+    assertThat(f.call(nan, nan)).isSameAs(Values.FALSE);
+    assertThat(f.call(Values.make("a"), Values.make("a"))).isSameAs(Values.TRUE);
+
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2019 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.interpreter.ops;
+
+import com.twineworks.tweakflow.lang.TweakFlow;
+import com.twineworks.tweakflow.lang.load.loadpath.LoadPath;
+import com.twineworks.tweakflow.lang.load.loadpath.MemoryLocation;
+import com.twineworks.tweakflow.lang.runtime.Runtime;
+import com.twineworks.tweakflow.lang.values.Values;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.StrictAssertions.assertThat;
+
+public class UnboxedEvaluationTest {
+
+  private Runtime.Var compileFunction(String function){
+
+    LoadPath loadPath = new LoadPath.Builder()
+        .add(new MemoryLocation.Builder()
+            .add("userModule", "library lib {f: " + function + ";}")
+            .build())
+        .build();
+
+    Runtime runtime = TweakFlow.compile(loadPath, "userModule");
+    Runtime.Module m = runtime.getModules().get(runtime.unitKey("userModule"));
+    m.evaluate();
+    return m.getLibrary("lib").getVar("f");
+  }
+
+  @Test
+  void evaluates_nested_long_arithmetic() {
+
+    Runtime.Var f = compileFunction("(long a, long b, long c) -> a * b + c - 1");
+
+    assertThat(f.call(Values.make(2L), Values.make(3L), Values.make(4L))).isEqualTo(Values.make(9L));
+    assertThat(f.call(Values.NIL, Values.make(3L), Values.make(4L))).isSameAs(Values.NIL);
+    assertThat(f.call(Values.make(2L), Values.NIL, Values.make(4L))).isSameAs(Values.NIL);
+    assertThat(f.call(Values.make(2L), Values.make(3L), Values.NIL)).isSameAs(Values.NIL);
+
+  }
+
+  @Test
+  void evaluates_nested_double_arithmetic() {
+
+    Runtime.Var f = compileFunction("(long a, long b, double c) -> a / b * c");
+
+    assertThat(f.call(Values.make(1L), Values.make(2L), Values.make(3.0))).isEqualTo(Values.make(1.5));
+    assertThat(f.call(Values.make(1L), Values.NIL, Values.make(3.0))).isSameAs(Values.NIL);
+    assertThat(f.call(Values.make(1L), Values.make(2L), Values.NIL)).isSameAs(Values.NIL);
+
+  }
+
+  @Test
+  void compares_nested_arithmetic() {
+
+    Runtime.Var lt = compileFunction("(long a, long b) -> a + 1 < b * 2");
+    assertThat(lt.call(Values.make(1L), Values.make(2L))).isSameAs(Values.TRUE);
+    assertThat(lt.call(Values.make(5L), Values.make(2L))).isSameAs(Values.FALSE);
+    assertThat(lt.call(Values.NIL, Values.make(2L))).isSameAs(Values.FALSE);
+    assertThat(lt.call(Values.make(1L), Values.NIL)).isSameAs(Values.FALSE);
+
+    Runtime.Var lte = compileFunction("(double a, double b) -> a * 2.0 <= b + 1.0");
+    assertThat(lte.call(Values.make(1.0), Values.make(1.0))).isSameAs(Values.TRUE);
+    assertThat(lte.call(Values.make(2.0), Values.make(1.0))).isSameAs(Values.FALSE);
+    assertThat(lte.call(Values.NIL, Values.make(1.0))).isSameAs(Values.FALSE);
+    assertThat(lte.call(Values.make(1.0), Values.NIL)).isSameAs(Values.FALSE);
+    assertThat(lte.call(Values.NIL, Values.NIL)).isSameAs(Values.TRUE);
+
+  }
+
+}
@@ -24,13 +24,22 @@
 
 package com.twineworks.tweakflow.lang.runtime;
 
+import com.twineworks.tweakflow.lang.errors.LangError;
+import com.twineworks.tweakflow.lang.errors.LangException;
+import com.twineworks.tweakflow.lang.values.Value;
+import com.twineworks.tweakflow.lang.values.ValueProvider;
 import com.twineworks.tweakflow.lang.values.Values;
 import com.twineworks.tweakflow.util.VarTable;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.StrictAssertions.assertThat;
+import static org.assertj.core.api.StrictAssertions.fail;
 
 class RuntimeTest {
 
@@ -154,4 +163,307 @@ class RuntimeTest {
     }
 
   }
-}
\ No newline at end of file
+
+  @Test
+  void can_share_runtime_between_threads() throws Throwable {
+
+    VarTable table = new VarTable.Builder()
+        .setPrologue("import data from 'std';\n\n" +
+            "library row { \n" +
+            "  provided a;\n" +
+            "}\n")
+        .setVarLibraryName("lib")
+        .addVar("c", "data.range(1, 1000)")
+        .addVar("p", "row.a*row.a")
+        .addVar("q", "data.size(c)+p")
+        .build();
+
+    Runtime runtime = table.compile().share();
+
+    Runtime.Library row = runtime.getModules().get(table.getModulePath()).getLibrary("row");
+    Runtime.Library lib = runtime.getModules().get(table.getModulePath()).getLibrary(table.getVarLibraryName());
+
+    Runtime.Var a = row.getVar("a");
+    Runtime.Var c = lib.getVar("c");
+    Runtime.Var p = lib.getVar("p");
+    Runtime.Var q = lib.getVar("q");
+
+    // constants are evaluated once and shared
+    Value constant = c.getValue();
+    assertThat(constant.list().size()).isEqualTo(1000);
+
+    int threadCount = 50;
+
+    ArrayList<Thread> threads = new ArrayList<>();
+    ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+    for(int t=0;t<threadCount;t++){
+
+      int seed = t;
+
+      Thread thread = new Thread(() -> {
+
+        // each thread starts with the state at time of sharing
+        assertThat(p.getValue()).isEqualTo(Values.NIL);
+
+        for (int i=0;i<10_000;i++){
+          long n = seed+i;
+          runtime.updateVars(a, Values.make(n));
+          assertThat(p.getValue()).isEqualTo(Values.make(n*n));
+          assertThat(q.getValue()).isEqualTo(Values.make(1000+n*n));
+          assertThat(c.getValue()).isSameAs(constant);
+        }
+      });
+
+      thread.setUncaughtExceptionHandler((x, e) -> errors.add(e));
+      threads.add(thread);
+      thread.start();
+
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(errors.size()).isEqualTo(0);
+
+    // updates on other threads are not visible
+    assertThat(a.getValue()).isEqualTo(Values.NIL);
+    assertThat(p.getValue()).isEqualTo(Values.NIL);
+    assertThat(runtime.isShared()).isTrue();
+
+  }
+
+  @Test
+  void cancels_shared_runtime_on_all_threads() throws Throwable {
+
+    VarTable table = new VarTable.Builder()
+        .setVarLibraryName("lib")
+        .addVar("loop", "(n) -> loop(n+1)")
+        .addVar("inc", "(n) -> n+1")
+        .build();
+
+    Runtime runtime = table.compile().share();
+    Runtime.Library lib = runtime.getModules().get(table.getModulePath()).getLibrary(table.getVarLibraryName());
+    Runtime.Var loop = lib.getVar("loop");
+
+    int threadCount = 4;
+    ArrayList<Thread> threads = new ArrayList<>();
+    ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+    for (int t = 0; t < threadCount; t++) {
+      Thread thread = new Thread(() -> {
+        try {
+          loop.call(Values.make(0L));
+          fail("expected evaluation to be aborted");
+        } catch (LangException e) {
+          assertThat(e.getCode()).isEqualTo(LangError.EVALUATION_ABORTED);
+        }
+      });
+      thread.setDaemon(true);
+      thread.setUncaughtExceptionHandler((x, e) -> errors.add(e));
+      threads.add(thread);
+      thread.start();
+    }
+
+    Thread.sleep(100);
+    runtime.cancel();
+
+    for (Thread thread : threads) {
+      thread.join(10_000);
+      assertThat(thread.isAlive()).isFalse();
+    }
+
+    assertThat(errors.size()).isEqualTo(0);
+
+    runtime.clearLimits();
+    assertThat(lib.getVar("inc").call(Values.make(1L))).isEqualTo(Values.make(2L));
+
+  }
+
+  @Test
+  void evaluates_independent_vars_in_parallel() {
+
+    VarTable table = new VarTable.Builder()
+        .setPrologue("import data from 'std';\n")
+        .setVarLibraryName("lib")
+        .addVar("a", "data.reduce(data.range(1, 10000), 0, (x, y) -> x+y)")
+        .addVar("b", "data.reduce(data.range(1, 20000), 0, (x, y) -> x+y)")
+        .addVar("c", "a+b")
+        .addVar("even", "(n) -> if n == 0 then true else odd(n-1)")
+        .addVar("odd", "(n) -> if n == 0 then false else even(n-1)")
+        .addVar("d", "even(c % 100)")
+        .build();
+
+    Runtime runtime = table.compile();
+    Runtime.Module module = runtime.getModules().get(table.getModulePath());
+    Runtime.Library lib = module.getLibrary(table.getVarLibraryName());
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      module.evaluate(executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(lib.getVar("a").isDirty()).isFalse();
+    assertThat(lib.getVar("c").isDirty()).isFalse();
+    assertThat(lib.getVar("d").isDirty()).isFalse();
+
+    assertThat(lib.getVar("a").getValue()).isEqualTo(Values.make(50005000L));
+    assertThat(lib.getVar("b").getValue()).isEqualTo(Values.make(200010000L));
+    assertThat(lib.getVar("c").getValue()).isEqualTo(Values.make(250015000L));
+    assertThat(lib.getVar("d").getValue()).isEqualTo(Values.TRUE);
+
+  }
+
+  @Test
+  void parallel_evaluation_shares_step_limit() {
+
+    // each var takes about 1000 steps, no single var reaches the limit
+    VarTable table = new VarTable.Builder()
+        .setPrologue("import data from 'std';\n")
+        .setVarLibraryName("lib")
+        .addVar("a", "data.reduce(data.range(1, 1000), 0, (x, y) -> x+y)")
+        .addVar("b", "data.reduce(data.range(1, 1000), 0, (x, y) -> x+y)")
+        .addVar("c", "data.reduce(data.range(1, 1000), 0, (x, y) -> x+y)")
+        .addVar("d", "data.reduce(data.range(1, 1000), 0, (x, y) -> x+y)")
+        .build();
+
+    Runtime runtime = table.compile();
+    Runtime.Module module = runtime.getModules().get(table.getModulePath());
+
+    runtime.setStepLimit(3000);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      module.evaluate(executor);
+      fail("expected evaluation to be aborted");
+    } catch (LangException e) {
+      assertThat(e.getCode()).isEqualTo(LangError.EVALUATION_ABORTED);
+      assertThat(e.getMessage()).contains("step limit of 3000 exceeded");
+    } finally {
+      executor.shutdown();
+    }
+
+  }
+
+  @Test
+  void parallel_evaluation_reports_failing_var() {
+
+    VarTable table = new VarTable.Builder()
+        .setVarLibraryName("lib")
+        .addVar("a", "1")
+        .addVar("b", "throw \"failed\"")
+        .addVar("c", "b+a")
+        .build();
+
+    Runtime runtime = table.compile();
+    Runtime.Library lib = runtime.getModules().get(table.getModulePath()).getLibrary(table.getVarLibraryName());
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      lib.evaluate(executor);
+      fail("expected evaluation to fail");
+    } catch (LangException e) {
+      assertThat(e.getCode()).isEqualTo(LangError.CUSTOM_ERROR);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(lib.getVar("b").isDirty()).isTrue();
+    assertThat(lib.getVar("c").isDirty()).isTrue();
+
+  }
+
+  @Test
+  void cuts_off_re_evaluation_of_unchanged_dependants() {
+
+    VarTable table = new VarTable.Builder()
+        .setPrologue("library row { \n" +
+            "  provided a;\n" +
+            "}\n")
+        .setVarLibraryName("lib")
+        .addVar("sign", "if row.a > 0 then 1 else -1")
+        .addVar("out", "[sign, sign]")
+        .addVar("raw", "[row.a]")
+        .build();
+
+    Runtime runtime = table.compile();
+    Runtime.Library lib = runtime.getModules().get(table.getModulePath()).getLibrary(table.getVarLibraryName());
+
+    Runtime.Var a = runtime.getModules().get(table.getModulePath()).getLibrary("row").getVar("a");
+    Runtime.Var out = lib.getVar("out");
+    Runtime.Var raw = lib.getVar("raw");
+
+    runtime.updateVars(a, Values.make(5));
+    Value out5 = out.getValue();
+    Value raw5 = raw.getValue();
+    assertThat(out5).isEqualTo(Values.makeList(1, 1));
+
+    // sign does not change, out is not re-evaluated
+    runtime.updateVars(a, Values.make(6));
+    assertThat(out.getValue()).isSameAs(out5);
+    assertThat(raw.getValue()).isNotSameAs(raw5);
+    assertThat(raw.getValue()).isEqualTo(Values.makeList(6));
+
+    // sign changes, out is re-evaluated
+    runtime.updateVars(a, Values.make(-6));
+    assertThat(out.getValue()).isEqualTo(Values.makeList(-1, -1));
+
+    // same for update batches
+    Runtime.UpdateBatch batch = runtime.createUpdateBatch(new Runtime.Var[]{a});
+    batch.update(new ValueProvider[]{Values.make(-7)});
+    Value outNeg = out.getValue();
+    batch.update(new ValueProvider[]{Values.make(-8)});
+    assertThat(out.getValue()).isSameAs(outNeg);
+    assertThat(raw.getValue()).isEqualTo(Values.makeList(-8));
+    batch.update(new ValueProvider[]{Values.make(8)});
+    assertThat(out.getValue()).isEqualTo(Values.makeList(1, 1));
+
+  }
+
+  @Test
+  void evaluates_batches_of_rows() {
+
+    VarTable table = new VarTable.Builder()
+        .setPrologue("library row { \n" +
+            "  provided long a;\n" +
+            "  provided long b;\n" +
+            "}\n")
+        .setVarLibraryName("lib")
+        .addVar("sum", "row.a+row.b")
+        .addVar("product", "row.a*row.b")
+        .addVar("constant", "'c'")
+        .build();
+
+    Runtime runtime = table.compile();
+    Runtime.Library row = runtime.getModules().get(table.getModulePath()).getLibrary("row");
+    Runtime.Library lib = runtime.getModules().get(table.getModulePath()).getLibrary(table.getVarLibraryName());
+
+    Runtime.BatchEvaluation batch = runtime.createBatchEvaluation(
+        new Runtime.Var[]{row.getVar("a"), row.getVar("b")},
+        new Runtime.Var[]{lib.getVar("sum"), lib.getVar("product"), lib.getVar("constant")});
+
+    Value[][] results = batch.evaluateColumns(new Value[][]{
+        {Values.make(1L), Values.make(2L), Values.make(2L)},
+        {Values.make(10L), Values.make(10L), Values.make("20")}
+    });
+
+    assertThat(results.length).isEqualTo(3);
+    assertThat(Arrays.asList(results[0])).isEqualTo(Arrays.asList(Values.make(11L), Values.make(12L), Values.make(22L)));
+    assertThat(Arrays.asList(results[1])).isEqualTo(Arrays.asList(Values.make(10L), Values.make(20L), Values.make(40L)));
+    assertThat(Arrays.asList(results[2])).isEqualTo(Arrays.asList(Values.make("c"), Values.make("c"), Values.make("c")));
+
+    ArrayList<Value[]> rows = new ArrayList<>();
+    rows.add(new Value[]{Values.make(3L), Values.make(4L)});
+    rows.add(new Value[]{Values.make(5L), Values.make(4L)});
+
+    ArrayList<Value[]> rowResults = new ArrayList<>();
+    batch.evaluateRows(rows.iterator(), rowResults::add);
+
+    assertThat(rowResults.size()).isEqualTo(2);
+    assertThat(Arrays.asList(rowResults.get(0))).isEqualTo(Arrays.asList(Values.make(7L), Values.make(12L), Values.make("c")));
+    assertThat(Arrays.asList(rowResults.get(1))).isEqualTo(Arrays.asList(Values.make(9L), Values.make(20L), Values.make("c")));
+
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateTimeValueTest {
+
+  private final ZonedDateTime start = ZonedDateTime.of(2021, 3, 28, 1, 30, 15, 500, ZoneId.of("Europe/Berlin"));
+  private final ZonedDateTime end = ZonedDateTime.of(2021, 3, 27, 23, 59, 0, 999, ZoneId.of("America/New_York"));
+
+  @Test
+  void derives_views() {
+    DateTimeValue dt = new DateTimeValue(start);
+    assertThat(dt.getZoned()).isEqualTo(start);
+    assertThat(dt.getOffset()).isEqualTo(start.toOffsetDateTime());
+    assertThat(dt.getLocal()).isEqualTo(start.toLocalDateTime());
+    assertThat(dt.getInstant()).isEqualTo(start.toInstant());
+    assertThat(dt).isEqualTo(DateTimeValue.ofEpochSecond(start.toEpochSecond(), 500, start.getZone()));
+  }
+
+  @Test
+  void compares_instants() {
+    DateTimeValue a = new DateTimeValue(start);
+    DateTimeValue b = new DateTimeValue(start.withZoneSameInstant(ZoneOffset.UTC));
+    assertThat(a.isSameInstant(b)).isTrue();
+    assertThat(a).isNotEqualTo(b);
+    assertThat(a.compareInstant(new DateTimeValue(end))).isLessThan(0);
+  }
+
+  @Test
+  void measures_time_between() {
+    DateTimeValue a = new DateTimeValue(start);
+    DateTimeValue b = new DateTimeValue(end);
+    assertThat(a.secondsUntil(b)).isEqualTo(ChronoUnit.SECONDS.between(start, end));
+    assertThat(b.secondsUntil(a)).isEqualTo(ChronoUnit.SECONDS.between(end, start));
+    assertThat(a.durationUntil(b)).isEqualTo(Duration.between(start, end));
+  }
+
+  @Test
+  void adds_durations_across_offset_changes() {
+    DateTimeValue dt = new DateTimeValue(start);
+    assertThat(dt.plus(3600L, -1_000L).getZoned()).isEqualTo(start.plusSeconds(3600L).plusNanos(-1_000L));
+    assertThat(dt.plus(-86_400L, 2_500_000_000L).getZoned()).isEqualTo(start.plusSeconds(-86_400L).plusNanos(2_500_000_000L));
+  }
+
+}
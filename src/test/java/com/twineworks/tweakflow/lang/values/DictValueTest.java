@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DictValueTest {
+
+  private DictShape shape(String... keys){
+    return DictShape.of(Arrays.asList(keys));
+  }
+
+  private DictValue record(DictShape shape, Object... keysAndValues){
+    Value[] slots = new Value[shape.size()];
+    for (int i = 0; i < keysAndValues.length; i+=2) {
+      slots[shape.slotOf((String) keysAndValues[i])] = (Value) keysAndValues[i+1];
+    }
+    return DictValue.record(shape, slots);
+  }
+
+  private DictValue hashed(Object... keysAndValues){
+    HashMap<String, Value> map = new HashMap<>();
+    for (int i = 0; i < keysAndValues.length; i+=2) {
+      map.put((String) keysAndValues[i], (Value) keysAndValues[i+1]);
+    }
+    return new DictValue(map);
+  }
+
+  @Test
+  void shares_shapes_of_same_keys() {
+    assertThat(shape("a", "b", "c")).isSameAs(shape("c", "b", "a"));
+    assertThat(shape("a", "b")).isNotSameAs(shape("a", "b", "c"));
+  }
+
+  @Test
+  void releases_shapes_no_longer_in_use() throws Exception {
+    WeakReference<DictShape> ref = new WeakReference<>(shape("released_a", "released_b"));
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(ref.get()).isNull();
+  }
+
+  @Test
+  void records_equal_hashed_dicts() {
+    DictValue record = record(shape("id", "name"), "id", Values.make(1L), "name", Values.make("x"));
+    DictValue hashed = hashed("id", Values.make(1L), "name", Values.make("x"));
+    assertThat(record.shape()).isNotNull();
+    assertThat(hashed.shape()).isNull();
+    assertThat(record).isEqualTo(hashed);
+    assertThat(hashed).isEqualTo(record);
+    assertThat(record.hashCode()).isEqualTo(hashed.hashCode());
+    assertThat(record.keys()).containsExactlyElementsOf(hashed.keys());
+    assertThat(record).isNotEqualTo(hashed("id", Values.make(1L), "name", Values.make("y")));
+    assertThat(record).isNotEqualTo(hashed("id", Values.make(1L), "label", Values.make("x")));
+  }
+
+  @Test
+  void hashes_entries_like_maps() {
+    HashMap<String, Value> map = new HashMap<>();
+    map.put("id", Values.make(1L));
+    map.put("name", Values.make("x"));
+    DictValue record = record(shape("id", "name"), "id", Values.make(1L), "name", Values.make("x"));
+    assertThat(record.hashCode()).isEqualTo(map.hashCode());
+    assertThat(new DictValue(map).hashCode()).isEqualTo(map.hashCode());
+    assertThat(record.put("id", Values.make(2L)).shape()).isNotNull();
+  }
+
+  @Test
+  void hashes_lazy_dicts_without_keeping_values() {
+    AtomicInteger loads = new AtomicInteger();
+    DictValue lazy = DictValue.lazy(new String[]{"id", "name"}, i -> {
+      loads.incrementAndGet();
+      return i == 0 ? Values.make(1L) : Values.make("x");
+    });
+    DictValue hashed = hashed("id", Values.make(1L), "name", Values.make("x"));
+    assertThat(lazy.hashCode()).isEqualTo(hashed.hashCode());
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(lazy.get("name")).isEqualTo(Values.make("x"));
+    assertThat(loads.get()).isEqualTo(3);
+  }
+
+  @Test
+  void reads_record_values() {
+    DictShape shape = shape("id", "name");
+    DictValue record = record(shape, "id", Values.make(1L), "name", Values.make("x"));
+    assertThat(record.size()).isEqualTo(2);
+    assertThat(record.get("name")).isEqualTo(Values.make("x"));
+    assertThat(record.get("missing")).isEqualTo(Values.NIL);
+    assertThat(record.valueAt(shape.slotOf("id"))).isEqualTo(Values.make(1L));
+    assertThat(record.containsKey("id")).isTrue();
+    assertThat(record.containsKey("missing")).isFalse();
+    assertThat(record.containsValue(Values.make("x"))).isTrue();
+  }
+
+  @Test
+  void keeps_shape_when_replacing_values() {
+    DictShape shape = shape("id", "name");
+    DictValue record = record(shape, "id", Values.make(1L), "name", Values.make("x"));
+    DictValue replaced = record.put("name", Values.make("y"));
+    assertThat(replaced.shape()).isSameAs(shape);
+    assertThat(replaced.get("name")).isEqualTo(Values.make("y"));
+    assertThat(record.get("name")).isEqualTo(Values.make("x"));
+  }
+
+  @Test
+  void leaves_shape_when_changing_keys() {
+    DictValue record = record(shape("id", "name"), "id", Values.make(1L), "name", Values.make("x"));
+
+    DictValue added = record.put("amount", Values.make(2L));
+    assertThat(added.shape()).isNull();
+    assertThat(added).isEqualTo(hashed("id", Values.make(1L), "name", Values.make("x"), "amount", Values.make(2L)));
+
+    DictValue deleted = record.delete("name");
+    assertThat(deleted.shape()).isNull();
+    assertThat(deleted).isEqualTo(hashed("id", Values.make(1L)));
+    assertThat(record.delete("missing")).isSameAs(record);
+  }
+
+}
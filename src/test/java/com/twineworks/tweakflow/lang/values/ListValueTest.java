@@ -0,0 +1,236 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListValueTest {
+
+  private ListValue boxedLongs(int size){
+    ListValue ret = new ListValue();
+    for (int i = 0; i < size; i++) {
+      ret = ret.append(Values.make((long) i));
+    }
+    return ret;
+  }
+
+  @Test
+  void ranges_hold_primitive_longs() {
+    ListValue range = Values.makeRange(0, 99).list();
+    assertThat(range.isLongList()).isTrue();
+    assertThat(range.size()).isEqualTo(100);
+    assertThat(range.get(42)).isEqualTo(Values.make(42L));
+    assertThat(range.get(100)).isEqualTo(Values.NIL);
+  }
+
+  @Test
+  void small_primitive_lists_are_boxed() {
+    ListValue list = ListValue.ofLongs(4, i -> i);
+    assertThat(list.isLongList()).isFalse();
+    assertThat(list.toList()).containsExactly(Values.make(0L), Values.make(1L), Values.make(2L), Values.make(3L));
+  }
+
+  @Test
+  void primitive_lists_equal_boxed_lists() {
+    ListValue primitive = ListValue.ofLongs(100, i -> i);
+    ListValue range = Values.makeRange(0, 99).list();
+    ListValue boxed = boxedLongs(100);
+    assertThat(boxed.isLongList()).isFalse();
+    assertThat(primitive).isEqualTo(boxed);
+    assertThat(boxed).isEqualTo(primitive);
+    assertThat(range).isEqualTo(primitive);
+    assertThat(primitive).isEqualTo(range);
+    assertThat(primitive.hashCode()).isEqualTo(boxed.hashCode());
+    assertThat(range.hashCode()).isEqualTo(boxed.hashCode());
+  }
+
+  @Test
+  void slices_primitive_lists() {
+    ListValue list = ListValue.ofLongs(100, i -> i);
+    ListValue slice = list.slice(10, 60);
+    assertThat(slice.isLongList()).isTrue();
+    assertThat(slice.size()).isEqualTo(50);
+    assertThat(slice.head()).isEqualTo(Values.make(10L));
+    assertThat(slice.last()).isEqualTo(Values.make(59L));
+    assertThat(slice.tail().head()).isEqualTo(Values.make(11L));
+    assertThat(slice.drop(49).toList()).containsExactly(Values.make(59L));
+    assertThat(slice.take(0).isEmpty()).isTrue();
+    assertThat(slice.reverse().head()).isEqualTo(Values.make(59L));
+  }
+
+  @Test
+  void boxes_primitive_lists_on_change() {
+    ListValue range = Values.makeRange(0, 99).list();
+    ListValue appended = range.append(Values.make("x"));
+    assertThat(appended.isLongList()).isFalse();
+    assertThat(appended.size()).isEqualTo(101);
+    assertThat(appended.get(99)).isEqualTo(Values.make(99L));
+    assertThat(appended.get(100)).isEqualTo(Values.make("x"));
+    assertThat(range.set(0, Values.make(-1L)).get(0)).isEqualTo(Values.make(-1L));
+    assertThat(range.get(0)).isEqualTo(Values.make(0L));
+  }
+
+  @Test
+  void keeps_primitive_lists_on_appending_numbers() {
+    ListValue list = ListValue.ofLongs(100, i -> i);
+    ListValue a = list.append(Values.make(100L));
+    ListValue b = a.append(Values.make(101L));
+    ListValue c = a.append(Values.make(-1L));
+    assertThat(b.isLongList()).isTrue();
+    assertThat(b).isEqualTo(Values.makeRange(0, 101).list());
+    assertThat(c.isLongList()).isTrue();
+    assertThat(c.last()).isEqualTo(Values.make(-1L));
+    assertThat(b.last()).isEqualTo(Values.make(101L));
+    assertThat(a.size()).isEqualTo(101);
+    assertThat(list.size()).isEqualTo(100);
+
+    ListValue set = list.set(5, Values.make(-5L));
+    assertThat(set.isLongList()).isTrue();
+    assertThat(set.get(5)).isEqualTo(Values.make(-5L));
+    assertThat(list.get(5)).isEqualTo(Values.make(5L));
+
+    ListValue doubles = ListValue.ofDoubles(40, i -> i * 0.5).append(Values.make(20.0));
+    assertThat(doubles.isDoubleList()).isTrue();
+    assertThat(doubles.last()).isEqualTo(Values.make(20.0));
+  }
+
+  @Test
+  void concatenates_primitive_lists() {
+    ListValue a = Values.makeRange(0, 49).list();
+    ListValue b = Values.makeRange(50, 99).list();
+    ListValue ab = a.appendAll(b);
+    assertThat(ab.isLongList()).isTrue();
+    assertThat(ab).isEqualTo(Values.makeRange(0, 99).list());
+  }
+
+  @Test
+  void finds_values_in_primitive_lists() {
+    ListValue list = ListValue.ofLongs(100, i -> i);
+    assertThat(list.indexOf(Values.make(42L))).isEqualTo(Values.make(42L));
+    assertThat(list.indexOf(Values.make(42.0))).isEqualTo(Values.make(-1L));
+    assertThat(list.indexOf(Values.make(42L), 43)).isEqualTo(Values.make(-1L));
+    assertThat(list.lastIndexOf(Values.make(42L), 41)).isEqualTo(Values.make(-1L));
+    assertThat(list.containsValue(Values.make(99L))).isTrue();
+    assertThat(list.containsValue(Values.make("99"))).isFalse();
+  }
+
+  @Test
+  void computes_range_elements_on_access() {
+    ListValue range = Values.makeRange(1, 2_000_000_000L).list();
+    assertThat(range.size()).isEqualTo(2_000_000_000);
+    assertThat(range.get(0)).isEqualTo(Values.make(1L));
+    assertThat(range.last()).isEqualTo(Values.make(2_000_000_000L));
+    assertThat(range.indexOf(Values.make(1_500_000_000L))).isEqualTo(Values.make(1_499_999_999L));
+    assertThat(range.lastIndexOf(Values.make(0L))).isEqualTo(Values.make(-1L));
+    assertThat(range.containsValue(Values.make(2_000_000_001L))).isFalse();
+
+    ListValue slice = range.drop(1_999_999_990).take(5);
+    assertThat(slice).isEqualTo(Values.makeRange(1_999_999_991L, 1_999_999_995L).list());
+    assertThat(slice.indexOf(Values.make(1_999_999_991L))).isEqualTo(Values.make(0L));
+    assertThat(slice.reverse().head()).isEqualTo(Values.make(1_999_999_995L));
+  }
+
+  @Test
+  void hashes_virtual_lists_without_allocating() {
+    AllocationBudget budget = new AllocationBudget(1024);
+    AllocationBudget previous = Allocations.bind(budget);
+    try {
+      ListValue range = Values.makeRange(0, 9_999_999L).list();
+      ListValue repeat = ListValue.repeat(10_000_000, Values.make("x"));
+      assertThat(range.hashCode()).isEqualTo(Values.makeRange(0, 9_999_999L).list().hashCode());
+      assertThat(repeat.hashCode()).isEqualTo(ListValue.repeat(10_000_000, Values.make("x")).hashCode());
+      assertThat(budget.getAllocated()).isLessThan(1024);
+    } finally {
+      Allocations.restore(budget, previous);
+    }
+    assertThat(ListValue.repeat(40, Values.make("x")).hashCode()).isEqualTo(ListValue.repeat(40, Values.make("x")).append(Values.NIL).take(40).hashCode());
+  }
+
+  @Test
+  void concatenates_adjacent_ranges() {
+    ListValue a = Values.makeRange(0, 999_999_999L).list();
+    ListValue b = Values.makeRange(1_000_000_000L, 1_999_999_999L).list();
+    ListValue ab = a.appendAll(b);
+    assertThat(ab.size()).isEqualTo(2_000_000_000);
+    assertThat(ab).isEqualTo(Values.makeRange(0, 1_999_999_999L).list());
+    assertThat(ab.get(1_000_000_000L)).isEqualTo(Values.make(1_000_000_000L));
+  }
+
+  @Test
+  void computes_repeated_elements_on_access() {
+    Value x = Values.make("x");
+    ListValue repeat = ListValue.repeat(1_000_000_000, x);
+    assertThat(repeat.size()).isEqualTo(1_000_000_000);
+    assertThat(repeat.get(999_999_999)).isEqualTo(x);
+    assertThat(repeat.get(1_000_000_000)).isEqualTo(Values.NIL);
+    assertThat(repeat.indexOf(x, 10)).isEqualTo(Values.make(10L));
+    assertThat(repeat.lastIndexOf(x)).isEqualTo(Values.make(999_999_999L));
+    assertThat(repeat.indexOf(Values.make("y"))).isEqualTo(Values.make(-1L));
+    assertThat(repeat.reverse()).isSameAs(repeat);
+    assertThat(repeat.take(3)).isEqualTo(new ListValue(new Value[]{x, x, x}));
+    assertThat(repeat.take(3).set(1, Values.NIL).toList()).containsExactly(x, Values.NIL, x);
+    assertThat(ListValue.repeat(2, x)).isEqualTo(ListValue.repeat(2, x));
+  }
+
+  @Test
+  void hashes_lazy_lists_without_keeping_elements() {
+    AtomicInteger loads = new AtomicInteger();
+    ListValue lazy = ListValue.lazy(3, i -> {
+      loads.incrementAndGet();
+      return Values.make("x" + i);
+    });
+    ListValue list = new ListValue(new Value[]{Values.make("x0"), Values.make("x1"), Values.make("x2")});
+    assertThat(lazy.hashCode()).isEqualTo(list.hashCode());
+    assertThat(loads.get()).isEqualTo(3);
+    assertThat(lazy.get(1)).isEqualTo(Values.make("x1"));
+    assertThat(loads.get()).isEqualTo(4);
+  }
+
+  @Test
+  void builds_primitive_doubles() {
+    TransientListValue t = new TransientListValue();
+    for (int i = 0; i < 50; i++) {
+      t.append(i == 10 ? Values.NAN : Values.make(i * 0.5));
+    }
+    ListValue list = t.persistent();
+    assertThat(list.isDoubleList()).isTrue();
+    assertThat(list.get(3)).isEqualTo(Values.make(1.5));
+    assertThat(list.indexOf(Values.NAN)).isEqualTo(Values.make(10L));
+
+    TransientListValue boxed = new TransientListValue();
+    for (Value v : list) {
+      boxed.append(v);
+    }
+    boxed.append(Values.make("x"));
+    assertThat(boxed.persistent().isDoubleList()).isFalse();
+    assertThat(boxed.persistent().take(50)).isEqualTo(list);
+    assertThat(boxed.persistent().take(50).hashCode()).isEqualTo(list.hashCode());
+  }
+
+}
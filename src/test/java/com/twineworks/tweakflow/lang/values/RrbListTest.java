@@ -0,0 +1,152 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RrbListTest {
+
+  private RrbList range(int from, int to){
+    RrbList ret = RrbList.empty();
+    for (int i = from; i < to; i++) {
+      ret = ret.add(i);
+    }
+    return ret;
+  }
+
+  private void assertSame(RrbList list, List<Object> expected){
+    assertThat(list.size()).isEqualTo(expected.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(list.get(i)).isEqualTo(expected.get(i));
+    }
+    assertThat(list.toArray()).containsExactly(expected.toArray());
+    assertThat(list.hashCode()).isEqualTo(expected.hashCode());
+  }
+
+  @Test
+  void appends_items() {
+    RrbList list = range(0, 10_000);
+    assertThat(list.size()).isEqualTo(10_000);
+    assertThat(list.get(0)).isEqualTo(0);
+    assertThat(list.get(4711)).isEqualTo(4711);
+    assertThat(list.get(9_999)).isEqualTo(9_999);
+    assertThat(list.indexOf(4711)).isEqualTo(4711);
+    assertThat(list.lastIndexOf(4711, 4710)).isEqualTo(-1);
+  }
+
+  @Test
+  void concatenates_and_splits() {
+    RrbList a = range(0, 5_000);
+    RrbList b = range(5_000, 12_345);
+    RrbList ab = a.addAll(b);
+    assertThat(ab).isEqualTo(range(0, 12_345));
+    assertThat(ab.slice(0, 5_000)).isEqualTo(a);
+    assertThat(ab.slice(5_000, 12_345)).isEqualTo(b);
+    assertThat(ab.slice(100, 200)).isEqualTo(range(100, 200));
+  }
+
+  @Test
+  void rotates_large_lists() {
+    RrbList list = range(0, 100_000);
+    RrbList rotated = list;
+    for (int i = 0; i < 100; i++) {
+      rotated = rotated.slice(1_000, rotated.size()).addAll(rotated.slice(0, 1_000));
+    }
+    assertThat(rotated).isEqualTo(list);
+  }
+
+  @Test
+  void matches_array_lists_under_random_changes() {
+
+    Random rnd = new Random(42);
+
+    for (int round = 0; round < 50; round++) {
+
+      RrbList list = RrbList.empty();
+      List<Object> expected = new ArrayList<>();
+
+      for (int step = 0; step < 200; step++) {
+        int size = expected.size();
+        switch (rnd.nextInt(7)) {
+          case 0: {
+            list = list.add(step);
+            expected.add(step);
+            break;
+          }
+          case 1: {
+            Object[] items = new Object[rnd.nextInt(1_000)];
+            Arrays.fill(items, step);
+            list = list.addAll(items);
+            expected.addAll(Arrays.asList(items));
+            break;
+          }
+          case 2: {
+            if (size == 0) break;
+            int i = rnd.nextInt(size);
+            list = list.set(i, -1);
+            expected.set(i, -1);
+            break;
+          }
+          case 3: {
+            int i = rnd.nextInt(size + 1);
+            list = list.insert(i, -2);
+            expected.add(i, -2);
+            break;
+          }
+          case 4: {
+            if (size == 0) break;
+            int i = rnd.nextInt(size);
+            list = list.remove(i);
+            expected.remove(i);
+            break;
+          }
+          case 5: {
+            int from = rnd.nextInt(size + 1);
+            int to = from + rnd.nextInt(size - from + 1);
+            list = list.slice(from, to);
+            expected = new ArrayList<>(expected.subList(from, to));
+            break;
+          }
+          default: {
+            int cut = rnd.nextInt(size + 1);
+            list = list.slice(cut, size).addAll(list.slice(0, cut));
+            List<Object> rotated = new ArrayList<>(expected.subList(cut, size));
+            rotated.addAll(expected.subList(0, cut));
+            expected = rotated;
+          }
+        }
+        assertSame(list, expected);
+      }
+    }
+  }
+
+}
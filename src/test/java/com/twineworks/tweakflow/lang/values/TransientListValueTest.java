@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 Twineworks GmbH
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.twineworks.tweakflow.lang.values;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransientListValueTest {
+
+  private ListValue strings(String... items){
+    Value[] values = new Value[items.length];
+    for (int i = 0; i < items.length; i++) {
+      values[i] = Values.make(items[i]);
+    }
+    return new ListValue(values);
+  }
+
+  @Test
+  void appends_items() {
+    TransientListValue t = new TransientListValue();
+    assertThat(t.isEmpty()).isTrue();
+    t.append(Values.make("a"));
+    t.append(Values.make("b"));
+    assertThat(t.size()).isEqualTo(2);
+    assertThat(t.get(1)).isEqualTo(Values.make("b"));
+    assertThat(t.get(2)).isEqualTo(Values.NIL);
+    assertThat(t.persistent()).isEqualTo(strings("a", "b"));
+  }
+
+  @Test
+  void appends_arrays_and_lists() {
+    TransientListValue t = new TransientListValue(strings("a"));
+    t.appendAll(new Value[]{Values.make("b"), Values.make("c")});
+    t.appendAll(strings("d", "e"));
+    t.append(Values.make("f"));
+    assertThat(t.size()).isEqualTo(6);
+    assertThat(t.get(0)).isEqualTo(Values.make("a"));
+    assertThat(t.get(3)).isEqualTo(Values.make("d"));
+    assertThat(t.persistent()).isEqualTo(strings("a", "b", "c", "d", "e", "f"));
+  }
+
+  @Test
+  void builds_primitive_longs() {
+    TransientListValue t = new TransientListValue(4);
+    for (int i = 0; i < 100; i++) {
+      t.append(Values.make((long) i));
+    }
+    ListValue list = t.persistent();
+    assertThat(list.isLongList()).isTrue();
+    assertThat(list).isEqualTo(Values.makeRange(0, 99).list());
+  }
+
+  @Test
+  void remains_usable_after_persistent() {
+    TransientListValue t = new TransientListValue();
+    t.append(Values.make("a"));
+    t.append(Values.make("b"));
+    ListValue first = t.persistent();
+    assertThat(t.persistent()).isEqualTo(first);
+
+    t.append(Values.make("c"));
+    t.appendAll(new Value[]{Values.make("d")});
+    ListValue second = t.persistent();
+
+    assertThat(first).isEqualTo(strings("a", "b"));
+    assertThat(second).isEqualTo(strings("a", "b", "c", "d"));
+    assertThat(t.size()).isEqualTo(4);
+  }
+
+}
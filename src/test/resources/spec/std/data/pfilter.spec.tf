@@ -0,0 +1,66 @@
+import data from 'std.tf';
+import assert, expect, expect_error, to, describe, it, subject, before, after from "std/spec";
+
+alias data.pfilter as pfilter;
+
+library spec {
+  spec:
+    describe("data.pfilter", [
+
+      it("filters_like_filter", () ->
+        let {
+          xs: data.range(0, 9999);
+          p: (x) -> x % 3 == 0;
+        }
+        expect(pfilter(xs, p), to.be(data.filter(xs, p)))
+      ),
+
+      it("filters_with_index", () ->
+        expect(pfilter(["a", "b", "c", "d"], (_, i) -> i % 2 == 1), to.be(["b", "d"]))
+      ),
+
+      it("casts_to_boolean", () ->
+        expect(pfilter([0, 1, nil, "", "a"], (x) -> x), to.be([1, "a"]))
+      ),
+
+      it("nil_xs", () ->
+        expect(pfilter(nil, (x) -> x), to.be_nil())
+      ),
+
+      it("empty_list", () ->
+        expect(pfilter([], (x) -> x), to.be([]))
+      ),
+
+      it("simple_dict", () ->
+        expect(pfilter({:a 1, :b 2, :c 3}, (x) -> x > 1), to.be({:b 2, :c 3}))
+      ),
+
+      it("error_in_p", () ->
+        expect_error(
+          () -> pfilter(data.range(0, 9999), (x) -> if x == 5000 then throw {:code "CUSTOM_ERROR"} else true),
+          to.have_code("CUSTOM_ERROR")
+        )
+      ),
+
+      it("nil_p", () ->
+        expect_error(
+          () -> pfilter([0,1], nil),
+          to.have_code("NIL_ERROR")
+        )
+      ),
+
+      it("zero_arg_p", () ->
+        expect_error(
+          () -> pfilter([0,1], () -> true),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+
+      it("non_collection_xs", () ->
+        expect_error(
+          () -> pfilter("foo", (x) -> x),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+  ]);
+}
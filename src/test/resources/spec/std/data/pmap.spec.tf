@@ -0,0 +1,86 @@
+import data from 'std.tf';
+import assert, expect, expect_error, to, describe, it, subject, before, after from "std/spec";
+
+alias data.pmap as pmap;
+
+library spec {
+  spec:
+    describe("data.pmap", [
+
+      it("maps_like_map", () ->
+        let {
+          xs: data.range(0, 9999);
+          f: (x) -> x*x;
+        }
+        expect(pmap(xs, f), to.be(data.map(xs, f)))
+      ),
+
+      it("maps_with_index", () ->
+        let {
+          xs: data.range(100, 10099);
+        }
+        expect(pmap(xs, (x, i) -> x-i), to.be(data.repeat(10000, 100)))
+      ),
+
+      it("maps_closures", () ->
+        expect(
+          data.map(pmap(["a", "b", "c"], (x) -> (y) -> y .. x), (f) -> f("-")),
+          to.be(["-a", "-b", "-c"])
+        )
+      ),
+
+      it("maps_nested", () ->
+        expect(
+          pmap([[1, 2], [3, 4]], (xs) -> pmap(xs, (x) -> x*10)),
+          to.be([[10, 20], [30, 40]])
+        )
+      ),
+
+      it("nil_xs", () ->
+        expect(pmap(nil, (x) -> x), to.be_nil())
+      ),
+
+      it("empty_list", () ->
+        expect(pmap([], (x) -> x), to.be([]))
+      ),
+
+      it("simple_dict", () ->
+        expect(pmap({:a 1, :b 2, :c 3}, (x) -> x*x), to.be({:a 1, :b 4, :c 9}))
+      ),
+
+      it("simple_dict_with_key", () ->
+        expect(
+          pmap({:a 1, :b 2, :c 3}, (x, k) -> k .. "->" .. x),
+          to.be({:a "a->1", :b "b->2", :c "c->3"})
+        )
+      ),
+
+      it("error_in_f", () ->
+        expect_error(
+          () -> pmap(data.range(0, 9999), (x) -> if x == 5000 then throw {:code "CUSTOM_ERROR"} else x),
+          to.have_code("CUSTOM_ERROR")
+        )
+      ),
+
+      it("nil_f", () ->
+        expect_error(
+          () -> pmap([0,1], nil),
+          to.have_code("NIL_ERROR")
+        )
+      ),
+
+      it("zero_arg_f", () ->
+        expect_error(
+          () -> pmap([0,1], () -> true),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+
+      it("non_collection_xs", () ->
+        expect_error(
+          () -> pmap("foo", (x) -> x),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+  ]);
+}
@@ -0,0 +1,72 @@
+import data, strings from 'std.tf';
+import assert, expect, expect_error, to, describe, it, subject, before, after from "std/spec";
+
+alias data.preduce as preduce;
+
+library spec {
+  spec:
+    describe("data.preduce", [
+
+      it("sums_like_reduce", () ->
+        let {
+          xs: data.range(1, 10000);
+          f: (a, x) -> a+x;
+        }
+        expect(preduce(xs, 0, f), to.be(data.reduce(xs, 0, f)))
+      ),
+
+      it("preserves_order", () ->
+        let {
+          xs: data.map(data.range(0, 999), (x) -> x as string);
+        }
+        expect(preduce(xs, "", (a, x) -> a .. x), to.be(strings.join(xs)))
+      ),
+
+      it("concatenates_lists", () ->
+        expect(
+          preduce(data.map(data.range(1, 5000), (x) -> [x]), [], (a, x) -> [...a, ...x]),
+          to.be(data.range(1, 5000))
+        )
+      ),
+
+      it("empty_list", () ->
+        expect(preduce([], 0, (a, x) -> a+x), to.be(0))
+      ),
+
+      it("nil_xs", () ->
+        expect(preduce(nil, 0, (a, x) -> a+x), to.be_nil())
+      ),
+
+      it("simple_dict", () ->
+        expect(preduce({:a 1, :b 2, :c 3}, 0, (a, x) -> a+x), to.be(6))
+      ),
+
+      it("error_in_f", () ->
+        expect_error(
+          () -> preduce(data.range(0, 9999), 0, (a, x) -> if x == 5000 then throw {:code "CUSTOM_ERROR"} else a+x),
+          to.have_code("CUSTOM_ERROR")
+        )
+      ),
+
+      it("nil_f", () ->
+        expect_error(
+          () -> preduce([0,1], 0, nil),
+          to.have_code("NIL_ERROR")
+        )
+      ),
+
+      it("one_arg_f", () ->
+        expect_error(
+          () -> preduce([0,1], 0, (a) -> a),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+
+      it("non_collection_xs", () ->
+        expect_error(
+          () -> preduce("foo", 0, (a, x) -> a),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+  ]);
+}
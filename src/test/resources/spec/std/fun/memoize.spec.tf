@@ -0,0 +1,65 @@
+import fun, data from 'std.tf';
+import assert, expect, expect_error, to, describe, it, subject, before, after from "std/spec";
+
+alias fun.memoize as memoize;
+
+library lib {
+  sum_to: memoize((long n) -> data.reduce(data.range(1, n), 0, (a, x) -> a + x));
+  add: memoize((x, y) -> x + y, 2);
+  five: memoize((a, b, c, d, e) -> [a, b, c, d, e]);
+}
+
+library spec {
+  spec:
+    describe("fun.memoize", [
+
+      it("of_repeated_calls", () ->
+        expect([lib.sum_to(1000), lib.sum_to(10), lib.sum_to(1000)], to.be([500500, 55, 500500]))
+      ),
+
+      it("of_repeated_args", () ->
+        expect(data.map([1, 2, 1, 3, 2, 1], (x) -> lib.add(x, 10)), to.be([11, 12, 11, 13, 12, 11]))
+      ),
+
+      it("of_distinct_arg_types", () ->
+        expect([lib.add(1, 1), lib.add(1.0, 1.0), lib.add(1, 1)], to.be([2, 2.0, 2]))
+      ),
+
+      it("of_many_args", () ->
+        expect(lib.five(1, 2, 3, 4, 5), to.be([1, 2, 3, 4, 5]))
+      ),
+
+      it("of_signature", () ->
+        expect(fun.signature(memoize((long x) -> x)), to.be(fun.signature((long x) -> x)))
+      ),
+
+      it("of_error", () ->
+        expect_error(
+          () -> memoize((x) -> throw {:code "CUSTOM_ERROR"})(1),
+          to.have_code("CUSTOM_ERROR")
+        )
+      ),
+
+      it("of_f_nil", () ->
+        expect_error(
+          () -> memoize(nil),
+          to.have_code("NIL_ERROR")
+        )
+      ),
+
+      it("of_capacity_nil", () ->
+        expect_error(
+          () -> memoize((x) -> x, nil),
+          to.have_code("NIL_ERROR")
+        )
+      ),
+
+      it("of_capacity_zero", () ->
+        expect_error(
+          () -> memoize((x) -> x, 0),
+          to.have_code("ILLEGAL_ARGUMENT")
+        )
+      ),
+
+  ]);
+}